@@ -0,0 +1,74 @@
+package com.example.search.benchmark;
+
+import com.example.search.Product;
+import com.example.search.ProductDataGenerator;
+import com.example.search.ProductSearchService;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * CatalogState - catalog and lookup keys shared by all benchmark threads
+ * Catalogs come from ProductDataGenerator with a fixed seed, so every run and
+ * every release benchmarks the same products; keys are drawn from a second
+ * fixed seed and either all hit or all miss
+ */
+@State(Scope.Benchmark)
+public class CatalogState {
+
+    static final long CATALOG_SEED = 20240601L;
+    static final long KEY_SEED = 42L;
+    // Keys per run; a power of two so threads can cycle through them with a mask
+    static final int KEY_COUNT = 4096;
+    static final int BATCH_SIZE = 64;
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int catalogSize;
+
+    @Param({"HIT", "MISS"})
+    public String keys;
+
+    public ProductSearchService service;
+    public ProductSearchService unindexedService;
+
+    /** Product IDs to look up, hits or misses depending on the keys parameter */
+    public int[] ids;
+    /** Ascending batches of BATCH_SIZE IDs for batch lookups */
+    public int[][] idBatches;
+    public String nameTerm;
+    public String category;
+    public double minPrice;
+    public double maxPrice;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Product[] products = new ProductDataGenerator(CATALOG_SEED).generateRandomProducts(catalogSize);
+        service = new ProductSearchService(products);
+        unindexedService = new ProductSearchService(products, false);
+
+        boolean hit = "HIT".equals(keys);
+        Random random = new Random(KEY_SEED);
+        ids = new int[KEY_COUNT];
+        for (int i = 0; i < KEY_COUNT; i++) {
+            // Generated IDs are 1..catalogSize, so misses lie just above the range
+            ids[i] = hit ? 1 + random.nextInt(catalogSize) : catalogSize + 1 + random.nextInt(catalogSize);
+        }
+
+        idBatches = new int[KEY_COUNT / BATCH_SIZE][];
+        for (int b = 0; b < idBatches.length; b++) {
+            idBatches[b] = Arrays.copyOfRange(ids, b * BATCH_SIZE, (b + 1) * BATCH_SIZE);
+            Arrays.sort(idBatches[b]);
+        }
+
+        nameTerm = hit ? "pro 1" : "zebra";
+        category = hit ? "Audio" : "Garden";
+        minPrice = hit ? 500.0 : 5000.0;
+        maxPrice = hit ? 520.0 : 6000.0;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.search.benchmark;
+
+import com.example.search.LatencyHistogram;
+import com.example.search.SearchMetrics;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+/**
+ * HistogramState - histograms shared by all benchmark threads, and the calls they record
+ * Latencies are log-uniform from 100 ns to 10 ms, so records spread over the buckets
+ * as timings of real search calls do; drawn from CatalogState's key seed
+ */
+@State(Scope.Benchmark)
+public class HistogramState {
+
+    public LatencyHistogram histogram;
+    public SearchMetrics metrics;
+
+    /** Latencies in nanoseconds, CatalogState.KEY_COUNT of them for KeyCursor */
+    public long[] latencies;
+    public int[] comparisons;
+    public int[] results;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        histogram = new LatencyHistogram();
+        metrics = new SearchMetrics();
+
+        Random random = new Random(CatalogState.KEY_SEED);
+        latencies = new long[CatalogState.KEY_COUNT];
+        comparisons = new int[CatalogState.KEY_COUNT];
+        results = new int[CatalogState.KEY_COUNT];
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = (long) Math.pow(10, 2 + 5 * random.nextDouble());
+            comparisons[i] = 1 + random.nextInt(1000);
+            results[i] = random.nextInt(20);
+        }
+    }
+}
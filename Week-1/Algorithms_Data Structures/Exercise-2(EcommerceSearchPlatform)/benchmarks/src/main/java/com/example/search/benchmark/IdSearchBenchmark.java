@@ -0,0 +1,69 @@
+package com.example.search.benchmark;
+
+import com.example.search.SearchResult;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * IdSearchBenchmark - average time of every search by product ID
+ * Each invocation looks up the next key of the thread's cursor, so consecutive
+ * calls touch different parts of the catalog as real traffic would
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+public class IdSearchBenchmark {
+
+    @Benchmark
+    public SearchResult linearSearchById(CatalogState catalog, KeyCursor cursor) {
+        return catalog.service.linearSearchById(catalog.ids[cursor.next()]);
+    }
+
+    @Benchmark
+    public SearchResult binarySearchById(CatalogState catalog, KeyCursor cursor) {
+        return catalog.service.binarySearchById(catalog.ids[cursor.next()]);
+    }
+
+    @Benchmark
+    public SearchResult binarySearchRecursive(CatalogState catalog, KeyCursor cursor) {
+        return catalog.service.binarySearchRecursive(catalog.ids[cursor.next()]);
+    }
+
+    @Benchmark
+    public SearchResult eytzingerSearchById(CatalogState catalog, KeyCursor cursor) {
+        return catalog.service.eytzingerSearchById(catalog.ids[cursor.next()]);
+    }
+
+    @Benchmark
+    public SearchResult interpolationSearchById(CatalogState catalog, KeyCursor cursor) {
+        return catalog.service.interpolationSearchById(catalog.ids[cursor.next()]);
+    }
+
+    @Benchmark
+    public SearchResult adaptiveSearchById(CatalogState catalog, KeyCursor cursor) {
+        return catalog.service.adaptiveSearchById(catalog.ids[cursor.next()]);
+    }
+
+    @Benchmark
+    public SearchResult indexedSearchById(CatalogState catalog, KeyCursor cursor) {
+        return catalog.service.indexedSearchById(catalog.ids[cursor.next()]);
+    }
+
+    /**
+     * One ascending batch of CatalogState.BATCH_SIZE IDs per invocation
+     */
+    @Benchmark
+    public SearchResult exponentialSearchByIds(CatalogState catalog, KeyCursor cursor) {
+        return catalog.service.exponentialSearchByIds(catalog.idBatches[cursor.next(catalog.idBatches.length)]);
+    }
+}
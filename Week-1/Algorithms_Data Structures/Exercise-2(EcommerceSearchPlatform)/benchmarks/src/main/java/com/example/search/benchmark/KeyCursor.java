@@ -0,0 +1,39 @@
+package com.example.search.benchmark;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * KeyCursor - per-thread position in the shared key array
+ * Threads start at different offsets so they do not look up the same keys in lockstep
+ */
+@State(Scope.Thread)
+public class KeyCursor {
+
+    private static int nextStart;
+
+    private int position;
+
+    public KeyCursor() {
+        synchronized (KeyCursor.class) {
+            position = nextStart;
+            nextStart += 997;
+        }
+    }
+
+    /**
+     * Next index into an array of CatalogState.KEY_COUNT entries
+     */
+    public int next() {
+        position = (position + 1) & (CatalogState.KEY_COUNT - 1);
+        return position;
+    }
+
+    /**
+     * Next index into an array of count entries
+     */
+    public int next(int count) {
+        position = (position + 1) % count;
+        return position;
+    }
+}
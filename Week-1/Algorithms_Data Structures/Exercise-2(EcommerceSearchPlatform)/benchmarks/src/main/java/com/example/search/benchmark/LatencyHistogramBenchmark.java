@@ -0,0 +1,48 @@
+package com.example.search.benchmark;
+
+import com.example.search.LatencyHistogram;
+import com.example.search.SearchOperation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LatencyHistogramBenchmark - cost of recording one search call, against its ~20 ns budget
+ * All threads record into the same histogram, so runs with several threads include
+ * the stripe claiming that keeps recorders apart; record is the raw histogram and
+ * recordMetrics the SearchMetrics path every SearchAlgorithms entry point takes
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class LatencyHistogramBenchmark {
+
+    @Benchmark
+    public void record(HistogramState state, KeyCursor cursor) {
+        int i = cursor.next();
+        state.histogram.record(state.latencies[i], state.comparisons[i], state.results[i]);
+    }
+
+    @Benchmark
+    public void recordMetrics(HistogramState state, KeyCursor cursor) {
+        int i = cursor.next();
+        state.metrics.record(SearchOperation.BINARY_BY_ID, state.latencies[i], state.comparisons[i], state.results[i]);
+    }
+
+    /**
+     * Reading side: adds up every stripe and its buckets
+     */
+    @Benchmark
+    public LatencyHistogram.Snapshot snapshot(HistogramState state) {
+        return state.histogram.snapshot();
+    }
+}
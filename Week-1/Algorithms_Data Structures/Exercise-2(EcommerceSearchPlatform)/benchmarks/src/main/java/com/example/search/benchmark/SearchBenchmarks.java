@@ -0,0 +1,43 @@
+package com.example.search.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * SearchBenchmarks - runs every benchmark once per thread count
+ * Results are written as JSON (one file per thread count) so two releases can be
+ * compared mechanically, e.g. with the JMH visualizer or a score diff script
+ *
+ * Usage: SearchBenchmarks [outputDirectory] [threadCounts...]
+ * Defaults: current directory, threads 1 2 4 8
+ * Extra JMH filters (e.g. a single catalog size) can be given on the JMH command
+ * line instead: java -jar benchmarks.jar IdSearch -p catalogSize=1000000 -t 4 -rf json
+ */
+public class SearchBenchmarks {
+
+    private static final int[] DEFAULT_THREAD_COUNTS = {1, 2, 4, 8};
+
+    public static void main(String[] args) throws RunnerException {
+        String outputDirectory = args.length > 0 ? args[0] : ".";
+        int[] threadCounts = DEFAULT_THREAD_COUNTS;
+        if (args.length > 1) {
+            threadCounts = new int[args.length - 1];
+            for (int i = 1; i < args.length; i++) {
+                threadCounts[i - 1] = Integer.parseInt(args[i]);
+            }
+        }
+
+        for (int threads : threadCounts) {
+            Options options = new OptionsBuilder()
+                    .include(SearchBenchmarks.class.getPackage().getName() + ".*Benchmark")
+                    .threads(threads)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(outputDirectory + "/search-benchmarks-" + threads + "-threads.json")
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.search.benchmark;
+
+import com.example.search.ProductComparators;
+import com.example.search.ProductQuery;
+import com.example.search.QueryResult;
+import com.example.search.SearchResult;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TextSearchBenchmark - name, category, price, filter, query and ranked searches
+ * Linear variants run on a service built without indexes so they always scan;
+ * the HIT/MISS parameter switches between terms that match and terms that do not
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+public class TextSearchBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Benchmark
+    public SearchResult linearSearchByName(CatalogState catalog) {
+        return catalog.unindexedService.linearSearchByName(catalog.nameTerm);
+    }
+
+    @Benchmark
+    public SearchResult indexedSearchByName(CatalogState catalog) {
+        return catalog.service.indexedSearchByName(catalog.nameTerm);
+    }
+
+    @Benchmark
+    public SearchResult linearSearchByCategory(CatalogState catalog) {
+        return catalog.unindexedService.linearSearchByCategory(catalog.category);
+    }
+
+    @Benchmark
+    public SearchResult indexedSearchByCategory(CatalogState catalog) {
+        return catalog.service.indexedSearchByCategory(catalog.category);
+    }
+
+    @Benchmark
+    public SearchResult linearSearchByPriceRange(CatalogState catalog) {
+        return catalog.unindexedService.linearSearchByPriceRange(catalog.minPrice, catalog.maxPrice);
+    }
+
+    @Benchmark
+    public SearchResult indexedSearchByPriceRange(CatalogState catalog) {
+        return catalog.service.indexedSearchByPriceRange(catalog.minPrice, catalog.maxPrice);
+    }
+
+    @Benchmark
+    public SearchResult indexedFilter(CatalogState catalog) {
+        return catalog.service.indexedFilter(catalog.category, true, catalog.minPrice, catalog.maxPrice);
+    }
+
+    @Benchmark
+    public QueryResult executeQuery(CatalogState catalog) {
+        return catalog.service.executeQuery(ProductQuery.builder()
+                .nameContains(catalog.nameTerm)
+                .category(catalog.category)
+                .availableOnly()
+                .build());
+    }
+
+    @Benchmark
+    public SearchResult rankedSearchByCategory(CatalogState catalog) {
+        return catalog.service.rankedSearchByCategory(catalog.category, ProductComparators.BY_RATING, 0, PAGE_SIZE);
+    }
+}
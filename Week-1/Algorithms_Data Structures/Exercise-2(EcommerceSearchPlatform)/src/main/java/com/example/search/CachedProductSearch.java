@@ -0,0 +1,116 @@
+package com.example.search;
+
+/**
+ * CachedProductSearch - product catalog searches served through a QueryResultCache
+ * Each search reads one catalog snapshot and uses its version for the cache, so a
+ * cached result is only returned while the catalog is unchanged since it was
+ * computed; any applied batch makes the next lookup recompute
+ * Cache hits report zero comparisons
+ * Cached products are never handed out: every caller gets its own copies, so a
+ * caller changing a returned product cannot change later hits
+ */
+public class CachedProductSearch {
+
+    /** Default bound on cached queries */
+    public static final int DEFAULT_MAX_ENTRIES = 1024;
+    /** Default bound on cached products across all entries */
+    public static final long DEFAULT_MAX_WEIGHT = 1000000L;
+
+    private final ProductCatalog catalog;
+    private final QueryResultCache cache;
+
+    /**
+     * Constructor - cache with the default bounds
+     */
+    public CachedProductSearch(ProductCatalog catalog) {
+        this(catalog, new QueryResultCache(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_WEIGHT));
+    }
+
+    public CachedProductSearch(ProductCatalog catalog, QueryResultCache cache) {
+        this.catalog = catalog;
+        this.cache = cache;
+    }
+
+    /**
+     * Search by product name (case-insensitive substring)
+     */
+    public SearchResult searchByName(String searchTerm) {
+        long startTime = System.nanoTime();
+        CatalogSnapshot snapshot = catalog.snapshot();
+        QueryKey key = QueryKey.name(searchTerm);
+        SearchResult cached = cache.get(key, snapshot.getVersion());
+        if (cached != null) {
+            return hit(cached, startTime);
+        }
+        return store(key, snapshot, snapshot.searchByName(searchTerm));
+    }
+
+    /**
+     * Search by category (case-insensitive)
+     */
+    public SearchResult searchByCategory(String category) {
+        long startTime = System.nanoTime();
+        CatalogSnapshot snapshot = catalog.snapshot();
+        QueryKey key = QueryKey.category(category);
+        SearchResult cached = cache.get(key, snapshot.getVersion());
+        if (cached != null) {
+            return hit(cached, startTime);
+        }
+        return store(key, snapshot, snapshot.searchByCategory(category));
+    }
+
+    /**
+     * Search by price range [minPrice, maxPrice]
+     */
+    public SearchResult searchByPriceRange(double minPrice, double maxPrice) {
+        long startTime = System.nanoTime();
+        CatalogSnapshot snapshot = catalog.snapshot();
+        QueryKey key = QueryKey.priceRange(minPrice, maxPrice);
+        SearchResult cached = cache.get(key, snapshot.getVersion());
+        if (cached != null) {
+            return hit(cached, startTime);
+        }
+        return store(key, snapshot, snapshot.searchByPriceRange(minPrice, maxPrice));
+    }
+
+    /**
+     * Combined category, availability and price filter
+     * @param category Category to match, or null for any category
+     */
+    public SearchResult filter(String category, boolean availableOnly, double minPrice, double maxPrice) {
+        long startTime = System.nanoTime();
+        CatalogSnapshot snapshot = catalog.snapshot();
+        QueryKey key = QueryKey.filter(category, availableOnly, minPrice, maxPrice);
+        SearchResult cached = cache.get(key, snapshot.getVersion());
+        if (cached != null) {
+            return hit(cached, startTime);
+        }
+        return store(key, snapshot, snapshot.filter(category, availableOnly, minPrice, maxPrice));
+    }
+
+    public QueryResultCache getCache() {
+        return cache;
+    }
+
+    public ProductCatalog getCatalog() {
+        return catalog;
+    }
+
+    private SearchResult store(QueryKey key, CatalogSnapshot snapshot, SearchResult result) {
+        cache.put(key, snapshot.getVersion(), result);
+        return new SearchResult(copies(result), result.getComparisonCount(), result.getElapsedNanos());
+    }
+
+    private static SearchResult hit(SearchResult cached, long startTime) {
+        return new SearchResult(copies(cached), 0, System.nanoTime() - startTime);
+    }
+
+    private static Product[] copies(SearchResult result) {
+        Product[] matches = result.matchesArray();
+        Product[] copies = new Product[matches.length];
+        for (int i = 0; i < matches.length; i++) {
+            copies[i] = matches[i].copy();
+        }
+        return copies;
+    }
+}
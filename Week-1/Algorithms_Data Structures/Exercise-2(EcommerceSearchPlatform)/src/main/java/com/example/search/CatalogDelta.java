@@ -0,0 +1,198 @@
+package com.example.search;
+
+import java.util.Arrays;
+
+/**
+ * CatalogDelta - products added or replaced since a CatalogSnapshot's base was built
+ * Kept sorted by product ID in primitive columns, with names lowercased once when a
+ * product enters the delta; a batch is folded in with one merge pass, so applying it
+ * costs O(delta + batch log batch) and builds no index
+ * Immutable; each batch produces a new delta and older snapshots keep theirs. The
+ * products are the batch's private copies and are only handed out as copies
+ */
+final class CatalogDelta {
+
+    static final CatalogDelta EMPTY = new CatalogDelta(0);
+
+    private final int[] ids;
+    private final Product[] rows;
+    private final String[] lowerNames;
+    private final String[] categories;
+    private final double[] prices;
+    private final int[] stock;
+
+    private CatalogDelta(int size) {
+        this.ids = new int[size];
+        this.rows = new Product[size];
+        this.lowerNames = new String[size];
+        this.categories = new String[size];
+        this.prices = new double[size];
+        this.stock = new int[size];
+    }
+
+    /**
+     * Number of products in the delta
+     */
+    int size() {
+        return ids.length;
+    }
+
+    int idAt(int index) {
+        return ids[index];
+    }
+
+    /**
+     * Copy of the product at a position of the ID order
+     */
+    Product row(int index) {
+        return rows[index].copy();
+    }
+
+    /**
+     * Position of a product ID by binary search
+     * @param comparisons comparisons[0] is increased by the probes made
+     * @return The position, or -1 if the ID is not in the delta
+     */
+    int indexOf(int productId, int[] comparisons) {
+        int left = 0;
+        int right = ids.length - 1;
+        while (left <= right) {
+            comparisons[0]++;
+            int mid = (left + right) >>> 1;
+            if (ids[mid] == productId) {
+                return mid;
+            } else if (ids[mid] < productId) {
+                left = mid + 1;
+            } else {
+                right = mid - 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * New delta with a batch of changes merged in
+     * @param changedIds Changed product IDs, ascending and distinct, in [0, count)
+     * @param changed New product for each changed ID, or null if it was removed
+     */
+    CatalogDelta merge(int[] changedIds, Product[] changed, int count) {
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < ids.length || j < count) {
+            if (j == count || (i < ids.length && ids[i] < changedIds[j])) {
+                i++;
+                size++;
+            } else {
+                if (i < ids.length && ids[i] == changedIds[j]) {
+                    i++;
+                }
+                if (changed[j++] != null) {
+                    size++;
+                }
+            }
+        }
+
+        CatalogDelta merged = new CatalogDelta(size);
+        int k = 0;
+        i = 0;
+        j = 0;
+        while (i < ids.length || j < count) {
+            if (j == count || (i < ids.length && ids[i] < changedIds[j])) {
+                merged.copyFrom(k++, this, i++);
+            } else {
+                if (i < ids.length && ids[i] == changedIds[j]) {
+                    i++;
+                }
+                Product product = changed[j++];
+                if (product != null) {
+                    merged.set(k++, product);
+                }
+            }
+        }
+        return merged;
+    }
+
+    private void copyFrom(int index, CatalogDelta source, int from) {
+        ids[index] = source.ids[from];
+        rows[index] = source.rows[from];
+        lowerNames[index] = source.lowerNames[from];
+        categories[index] = source.categories[from];
+        prices[index] = source.prices[from];
+        stock[index] = source.stock[from];
+    }
+
+    private void set(int index, Product product) {
+        ids[index] = product.getProductId();
+        rows[index] = product;
+        lowerNames[index] = ProductStore.normalizeName(product.getProductName());
+        categories[index] = product.getCategory();
+        prices[index] = product.getPrice();
+        stock[index] = product.getStockQuantity();
+    }
+
+    /**
+     * Products whose name contains the term, ignoring case, in ID order
+     * Same rule as ProductSearchService.linearSearchByName
+     */
+    Product[] matchName(String searchTerm, int[] comparisons) {
+        if (searchTerm == null || searchTerm.trim().isEmpty()) {
+            return new Product[0];
+        }
+        String lowerTerm = ProductStore.normalizeName(searchTerm);
+        Product[] matches = new Product[ids.length];
+        int count = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (lowerNames[i].contains(lowerTerm)) {
+                matches[count++] = row(i);
+            }
+        }
+        comparisons[0] += ids.length;
+        return Arrays.copyOf(matches, count);
+    }
+
+    /**
+     * Products in a category, ignoring case, in ID order
+     */
+    Product[] matchCategory(String category, int[] comparisons) {
+        if (category == null || category.trim().isEmpty()) {
+            return new Product[0];
+        }
+        Product[] matches = new Product[ids.length];
+        int count = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (categories[i] != null && categories[i].equalsIgnoreCase(category)) {
+                matches[count++] = row(i);
+            }
+        }
+        comparisons[0] += ids.length;
+        return Arrays.copyOf(matches, count);
+    }
+
+    /**
+     * Products priced within [minPrice, maxPrice], cheapest first; equal prices in ID order
+     */
+    Product[] matchPriceRange(double minPrice, double maxPrice, int[] comparisons) {
+        Product[] matches = filter(null, false, minPrice, maxPrice, comparisons);
+        Arrays.sort(matches, CatalogSnapshot.CHEAPEST_FIRST);
+        return matches;
+    }
+
+    /**
+     * Products passing a combined category, availability and price filter, in ID order
+     * @param category Category to match, or null for any category
+     */
+    Product[] filter(String category, boolean availableOnly, double minPrice, double maxPrice, int[] comparisons) {
+        Product[] matches = new Product[ids.length];
+        int count = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (prices[i] >= minPrice && prices[i] <= maxPrice
+                    && (category == null || (categories[i] != null && categories[i].equalsIgnoreCase(category)))
+                    && (!availableOnly || stock[i] > 0)) {
+                matches[count++] = row(i);
+            }
+        }
+        comparisons[0] += ids.length;
+        return Arrays.copyOf(matches, count);
+    }
+}
@@ -0,0 +1,392 @@
+package com.example.search;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * CatalogImporter - streaming, parallel import of CSV and JSON lines product feeds
+ * The feed is read on the calling thread in chunks of records; chunks are parsed on
+ * a worker pool while reading continues, and parsed products are handed to the sink
+ * on the calling thread in feed order. At most a few chunks per worker are in flight,
+ * so memory stays bounded however large the feed is
+ * Invalid rows are counted and reported with their line number; the import goes on.
+ * A quoted CSV value may span lines, but a record longer than MAX_RECORD_LINES lines
+ * or MAX_RECORD_CHARS characters is taken to be a stray quote: its first line is
+ * reported as invalid and reading resumes on the line after it
+ */
+public class CatalogImporter {
+
+    /** Records per chunk handed to a worker */
+    public static final int DEFAULT_CHUNK_SIZE = 8192;
+    /** Rejected rows kept in the report with their reason */
+    public static final int DEFAULT_MAX_REPORTED_ERRORS = 100;
+    /** Most lines one CSV record may span before its opening quote is taken as stray */
+    public static final int MAX_RECORD_LINES = 64;
+    /** Most characters one CSV record may hold before its opening quote is taken as stray */
+    public static final int MAX_RECORD_CHARS = 1 << 16;
+    // Chunks in flight per worker thread
+    private static final int CHUNKS_PER_WORKER = 2;
+    private static final String UNTERMINATED = "Unterminated quoted value: no closing quote within "
+                                               + MAX_RECORD_LINES + " lines or " + MAX_RECORD_CHARS + " characters";
+
+    /**
+     * Supported feed formats
+     */
+    public enum Format {
+        /** Comma-separated values with a header record */
+        CSV,
+        /** One flat JSON object per line */
+        JSON_LINES
+    }
+
+    /**
+     * Receives imported products in feed order, always on the importing thread
+     */
+    public interface ProductSink {
+        void accept(Product product);
+    }
+
+    private final Format format;
+    private final int threads;
+    private final int chunkSize;
+    private final int maxReportedErrors;
+
+    /**
+     * Constructor - one worker per available processor and default chunk size
+     */
+    public CatalogImporter(Format format) {
+        this(format, Runtime.getRuntime().availableProcessors(), DEFAULT_CHUNK_SIZE, DEFAULT_MAX_REPORTED_ERRORS);
+    }
+
+    /**
+     * @param format Feed format
+     * @param threads Parser threads
+     * @param chunkSize Records per parsing chunk
+     * @param maxReportedErrors Rejected rows kept in the report
+     */
+    public CatalogImporter(Format format, int threads, int chunkSize, int maxReportedErrors) {
+        if (threads < 1 || chunkSize < 1 || maxReportedErrors < 0) {
+            throw new IllegalArgumentException("Invalid importer settings: threads=" + threads
+                                               + ", chunkSize=" + chunkSize
+                                               + ", maxReportedErrors=" + maxReportedErrors);
+        }
+        this.format = format;
+        this.threads = threads;
+        this.chunkSize = chunkSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    /**
+     * Import a UTF-8 feed file
+     */
+    public ImportReport importFile(Path file, ProductSink sink) throws IOException {
+        Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        try {
+            return importFrom(reader, sink);
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Import a feed from a reader; the reader is not closed
+     * @throws IOException If reading fails, or a CSV feed has no valid header
+     */
+    public ImportReport importFrom(Reader reader, ProductSink sink) throws IOException {
+        long startTime = System.nanoTime();
+        BufferedReader lines = reader instanceof BufferedReader
+                ? (BufferedReader) reader : new BufferedReader(reader, 1 << 16);
+        RecordReader records = new RecordReader(lines, format == Format.CSV);
+
+        ProductRowParser parser;
+        if (format == Format.CSV) {
+            String header = records.next();
+            if (header == null) {
+                return new ImportReport(0, 0, 0, new ArrayList<ImportReport.RowError>(), System.nanoTime() - startTime);
+            }
+            if (records.isUnterminated()) {
+                throw new IOException("Unterminated quoted value in CSV header");
+            }
+            try {
+                parser = ProductRowParser.csv(header);
+            } catch (IllegalArgumentException e) {
+                throw new IOException(e.getMessage());
+            }
+        } else {
+            parser = ProductRowParser.jsonLines();
+        }
+
+        Totals totals = new Totals();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        ArrayDeque<Future<ParsedChunk>> inFlight = new ArrayDeque<Future<ParsedChunk>>();
+        try {
+            Chunk chunk;
+            while ((chunk = readChunk(records)) != null) {
+                if (inFlight.size() >= threads * CHUNKS_PER_WORKER) {
+                    deliver(await(inFlight.poll()), sink, totals);
+                }
+                final Chunk work = chunk;
+                final ProductRowParser chunkParser = parser;
+                inFlight.add(pool.submit(new Callable<ParsedChunk>() {
+                    @Override
+                    public ParsedChunk call() {
+                        return work.parse(chunkParser);
+                    }
+                }));
+            }
+            while (!inFlight.isEmpty()) {
+                deliver(await(inFlight.poll()), sink, totals);
+            }
+        } finally {
+            for (Future<ParsedChunk> pending : inFlight) {
+                pending.cancel(true);
+            }
+            pool.shutdownNow();
+        }
+        return new ImportReport(totals.rowsRead, totals.rowsImported, totals.errorCount, totals.errors,
+                                System.nanoTime() - startTime);
+    }
+
+    /**
+     * Read up to chunkSize records, or null at the end of the feed
+     */
+    private Chunk readChunk(RecordReader records) throws IOException {
+        Chunk chunk = null;
+        String record;
+        while ((chunk == null || chunk.size() < chunkSize) && (record = records.next()) != null) {
+            if (record.trim().isEmpty()) {
+                continue;
+            }
+            if (chunk == null) {
+                chunk = new Chunk(chunkSize);
+            }
+            chunk.add(record, records.recordLine(), records.isUnterminated() ? UNTERMINATED : null);
+        }
+        return chunk;
+    }
+
+    private void deliver(ParsedChunk parsed, ProductSink sink, Totals totals) {
+        totals.rowsRead += parsed.rowsRead;
+        for (int i = 0; i < parsed.productCount; i++) {
+            sink.accept(parsed.products[i]);
+        }
+        totals.rowsImported += parsed.productCount;
+        totals.errorCount += parsed.errors.size();
+        for (ImportReport.RowError error : parsed.errors) {
+            if (totals.errors.size() >= maxReportedErrors) {
+                break;
+            }
+            totals.errors.add(error);
+        }
+    }
+
+    private static ParsedChunk await(Future<ParsedChunk> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Parser failed", e.getCause());
+        }
+    }
+
+    /**
+     * Collects imported products into an array
+     */
+    public static class ProductList implements ProductSink {
+        private final List<Product> products = new ArrayList<Product>();
+
+        @Override
+        public void accept(Product product) {
+            products.add(product);
+        }
+
+        public int size() {
+            return products.size();
+        }
+
+        public Product[] toArray() {
+            return products.toArray(new Product[products.size()]);
+        }
+    }
+
+    /**
+     * Running totals of an import
+     */
+    private static class Totals {
+        long rowsRead;
+        long rowsImported;
+        long errorCount;
+        final List<ImportReport.RowError> errors = new ArrayList<ImportReport.RowError>();
+    }
+
+    /**
+     * Records of one chunk with the line each starts on
+     */
+    private static class Chunk {
+        private final String[] records;
+        private final long[] lineNumbers;
+        // Error found while reading the record, or null if it still has to be parsed
+        private final String[] readErrors;
+        private int size;
+
+        Chunk(int capacity) {
+            this.records = new String[capacity];
+            this.lineNumbers = new long[capacity];
+            this.readErrors = new String[capacity];
+        }
+
+        void add(String record, long lineNumber, String readError) {
+            records[size] = record;
+            lineNumbers[size] = lineNumber;
+            readErrors[size] = readError;
+            size++;
+        }
+
+        int size() {
+            return size;
+        }
+
+        ParsedChunk parse(ProductRowParser parser) {
+            Product[] products = new Product[size];
+            int count = 0;
+            List<ImportReport.RowError> errors = new ArrayList<ImportReport.RowError>();
+            for (int i = 0; i < size; i++) {
+                if (readErrors[i] != null) {
+                    errors.add(new ImportReport.RowError(lineNumbers[i], readErrors[i]));
+                    continue;
+                }
+                try {
+                    products[count] = parser.parse(records[i]);
+                    count++;
+                } catch (RuntimeException e) {
+                    // One malformed row must not fail the chunk, whatever the parser throws
+                    errors.add(new ImportReport.RowError(lineNumbers[i],
+                                                         e.getMessage() != null ? e.getMessage() : e.toString()));
+                }
+            }
+            return new ParsedChunk(size, products, count, errors);
+        }
+    }
+
+    /**
+     * Products and errors parsed from one chunk
+     */
+    private static class ParsedChunk {
+        final int rowsRead;
+        final Product[] products;
+        final int productCount;
+        final List<ImportReport.RowError> errors;
+
+        ParsedChunk(int rowsRead, Product[] products, int productCount, List<ImportReport.RowError> errors) {
+            this.rowsRead = rowsRead;
+            this.products = products;
+            this.productCount = productCount;
+            this.errors = errors;
+        }
+    }
+
+    /**
+     * Splits the feed into records; CSV records continue across lines inside quotes
+     * A record that outgrows the caps is returned as its first line only, flagged as
+     * unterminated, and the lines read past it are replayed as the following records
+     */
+    private static class RecordReader {
+        private final BufferedReader lines;
+        private final boolean csv;
+        // Lines already read past an unterminated record, to be read again
+        private final ArrayDeque<String> replay = new ArrayDeque<String>();
+        private long lineNumber;
+        private long recordLine;
+        private boolean unterminated;
+
+        RecordReader(BufferedReader lines, boolean csv) {
+            this.lines = lines;
+            this.csv = csv;
+        }
+
+        /**
+         * Next record, or null at the end of the feed
+         */
+        String next() throws IOException {
+            unterminated = false;
+            String first = readLine();
+            if (first == null) {
+                return null;
+            }
+            lineNumber++;
+            recordLine = lineNumber;
+            if (!csv || !hasOpenQuote(first, false)) {
+                return first;
+            }
+
+            // A quoted value spans lines: keep reading until its closing quote
+            List<String> continued = new ArrayList<String>();
+            StringBuilder record = new StringBuilder(first);
+            boolean open = true;
+            String line;
+            while (open && continued.size() + 1 < MAX_RECORD_LINES && record.length() <= MAX_RECORD_CHARS
+                    && (line = readLine()) != null) {
+                continued.add(line);
+                record.append('\n').append(line);
+                open = hasOpenQuote(line, true);
+            }
+            if (!open && record.length() <= MAX_RECORD_CHARS) {
+                lineNumber += continued.size();
+                return record.toString();
+            }
+
+            // No closing quote in reach: give up on the first line only
+            for (int i = continued.size() - 1; i >= 0; i--) {
+                replay.push(continued.get(i));
+            }
+            unterminated = true;
+            return first;
+        }
+
+        /**
+         * Whether the last record had an opening quote with no closing quote within the caps
+         * The record returned is then just its first line
+         */
+        boolean isUnterminated() {
+            return unterminated;
+        }
+
+        private String readLine() throws IOException {
+            return replay.isEmpty() ? lines.readLine() : replay.pop();
+        }
+
+        /**
+         * 1-based line on which the last record started
+         */
+        long recordLine() {
+            return recordLine;
+        }
+
+        /**
+         * Whether a quote is still open at the end of the line
+         */
+        private static boolean hasOpenQuote(String line, boolean openAtStart) {
+            boolean open = openAtStart;
+            for (int i = 0; i < line.length(); i++) {
+                if (line.charAt(i) == '"') {
+                    open = !open;
+                }
+            }
+            return open;
+        }
+    }
+}
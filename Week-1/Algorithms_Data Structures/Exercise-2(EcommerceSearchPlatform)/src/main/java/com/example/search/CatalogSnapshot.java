@@ -0,0 +1,201 @@
+package com.example.search;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * CatalogSnapshot - one immutable, versioned state of a ProductCatalog
+ * A snapshot is an indexed base service plus a small ID-sorted delta holding the
+ * products added or updated since the base was built, and a bitmap of the base
+ * slots whose products were removed or replaced (tombstones). Searches consult both
+ * and drop tombstoned base rows, so a reader holding a snapshot keeps seeing exactly
+ * that version while writers publish newer ones
+ * Catalog order is the live base rows in base order followed by the delta in ID
+ * order; name, category and filter results come back in catalog order, and price
+ * range results cheapest first with equal prices in catalog order
+ * Every returned Product is a new object, so changing it never changes the snapshot
+ */
+public class CatalogSnapshot {
+
+    // Price only, so sorting stably keeps equal prices in their existing order
+    static final Comparator<Product> CHEAPEST_FIRST = new Comparator<Product>() {
+        @Override
+        public int compare(Product p1, Product p2) {
+            return p1.compareByPrice(p2);
+        }
+    };
+
+    private final long version;
+    private final ProductSearchService base;
+    private final CatalogDelta delta;
+    private final ProductBitmap tombstones;
+    private final int size;
+
+    CatalogSnapshot(long version, ProductSearchService base, CatalogDelta delta, ProductBitmap tombstones) {
+        this.version = version;
+        this.base = base;
+        this.delta = delta;
+        this.tombstones = tombstones;
+        this.size = base.size() - tombstones.cardinality() + delta.size();
+    }
+
+    /**
+     * Version number, incremented by every applied batch
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Number of live products in this snapshot
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Find a product by ID; the delta is checked before the base
+     * Time Complexity: O(1) with indexes, O(log n) otherwise
+     */
+    public SearchResult findById(int productId) {
+        long startTime = System.nanoTime();
+        int[] comparisons = new int[1];
+        int index = delta.indexOf(productId, comparisons);
+        if (index >= 0) {
+            return SearchResult.single(delta.row(index), comparisons[0], System.nanoTime() - startTime);
+        }
+        int slot = base.slotOf(productId, comparisons);
+        Product product = slot >= 0 && !tombstones.contains(slot) ? base.store().row(slot) : null;
+        return SearchResult.single(product, comparisons[0], System.nanoTime() - startTime);
+    }
+
+    /**
+     * Search by product name (case-insensitive substring)
+     */
+    public SearchResult searchByName(String searchTerm) {
+        long startTime = System.nanoTime();
+        SearchResult fromBase = base.indexedSearchByName(searchTerm);
+        int[] comparisons = {fromBase.getComparisonCount()};
+        return merge(liveRows(fromBase), delta.matchName(searchTerm, comparisons), comparisons, startTime);
+    }
+
+    /**
+     * Search by category (case-insensitive)
+     */
+    public SearchResult searchByCategory(String category) {
+        long startTime = System.nanoTime();
+        SearchResult fromBase = base.indexedSearchByCategory(category);
+        int[] comparisons = {fromBase.getComparisonCount()};
+        return merge(liveRows(fromBase), delta.matchCategory(category, comparisons), comparisons, startTime);
+    }
+
+    /**
+     * Search by price range [minPrice, maxPrice], cheapest first
+     */
+    public SearchResult searchByPriceRange(double minPrice, double maxPrice) {
+        long startTime = System.nanoTime();
+        SearchResult fromBase = base.indexedSearchByPriceRange(minPrice, maxPrice);
+        Product[] baseMatches = liveRows(fromBase);
+        if (!base.hasPriceIndex()) {
+            // The scan fallback returns base order; the price index returns cheapest first
+            Arrays.sort(baseMatches, CHEAPEST_FIRST);
+        }
+        int[] comparisons = {fromBase.getComparisonCount()};
+        Product[] deltaMatches = delta.matchPriceRange(minPrice, maxPrice, comparisons);
+
+        Product[] matches = new Product[baseMatches.length + deltaMatches.length];
+        int i = 0;
+        int j = 0;
+        for (int k = 0; k < matches.length; k++) {
+            if (j == deltaMatches.length
+                    || (i < baseMatches.length && CHEAPEST_FIRST.compare(baseMatches[i], deltaMatches[j]) <= 0)) {
+                matches[k] = baseMatches[i++];
+            } else {
+                matches[k] = deltaMatches[j++];
+            }
+        }
+        return new SearchResult(matches, comparisons[0], System.nanoTime() - startTime);
+    }
+
+    /**
+     * Combined category, availability and price filter
+     * @param category Category to match, or null for any category
+     */
+    public SearchResult filter(String category, boolean availableOnly, double minPrice, double maxPrice) {
+        long startTime = System.nanoTime();
+        SearchResult fromBase = base.indexedFilter(category, availableOnly, minPrice, maxPrice);
+        int[] comparisons = {fromBase.getComparisonCount()};
+        return merge(liveRows(fromBase), delta.filter(category, availableOnly, minPrice, maxPrice, comparisons),
+                     comparisons, startTime);
+    }
+
+    /**
+     * All live products in catalog order: base rows in base order, then the delta in ID order
+     */
+    public Product[] getProducts() {
+        Product[] rows = new Product[size];
+        int count = 0;
+        ProductStore baseStore = base.store();
+        for (int slot = 0; slot < baseStore.size(); slot++) {
+            if (!tombstones.contains(slot)) {
+                rows[count++] = baseStore.row(slot);
+            }
+        }
+        for (int i = 0; i < delta.size(); i++) {
+            rows[count++] = delta.row(i);
+        }
+        return rows;
+    }
+
+    /**
+     * Number of pending changes (delta products plus tombstones) since the base was built
+     */
+    public int pendingChanges() {
+        return delta.size() + tombstones.cardinality();
+    }
+
+    ProductSearchService base() {
+        return base;
+    }
+
+    CatalogDelta delta() {
+        return delta;
+    }
+
+    /**
+     * Base slots whose products were removed or replaced
+     */
+    ProductBitmap tombstones() {
+        return tombstones;
+    }
+
+    /**
+     * Base matches minus tombstoned rows, in the order the base returned them
+     */
+    private Product[] liveRows(SearchResult fromBase) {
+        Product[] matches = fromBase.matchesArray();
+        if (tombstones.cardinality() == 0) {
+            return matches;
+        }
+        Product[] live = new Product[matches.length];
+        int count = 0;
+        int[] ignored = new int[1];
+        for (Product product : matches) {
+            if (!tombstones.contains(base.slotOf(product.getProductId(), ignored))) {
+                live[count++] = product;
+            }
+        }
+        return count == live.length ? live : Arrays.copyOf(live, count);
+    }
+
+    /**
+     * Append the delta matches to the live base matches
+     */
+    private static SearchResult merge(Product[] baseMatches, Product[] deltaMatches, int[] comparisons,
+                                      long startTime) {
+        Product[] matches = new Product[baseMatches.length + deltaMatches.length];
+        System.arraycopy(baseMatches, 0, matches, 0, baseMatches.length);
+        System.arraycopy(deltaMatches, 0, matches, baseMatches.length, deltaMatches.length);
+        return new SearchResult(matches, comparisons[0], System.nanoTime() - startTime);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.search;
+
+/**
+ * CategoryBitmapIndex - one compressed bitmap per dictionary-encoded category
+ * Categories are interned into small int codes by ProductStore, so a category
+ * query compares against the dictionary (a handful of entries) instead of every product
+ * Also keeps an availability bitmap so category AND in-stock filters combine word by word
+ */
+public class CategoryBitmapIndex {
+
+    private final ProductStore store;
+    private final ProductBitmap[] categoryBitmaps;
+    private final ProductBitmap availableBitmap;
+
+    /**
+     * Build the index over a product store
+     * @param store Columnar products; bitmaps hold slots of this store
+     */
+    public CategoryBitmapIndex(ProductStore store) {
+        this.store = store;
+        ProductBitmap.Builder[] builders = new ProductBitmap.Builder[store.categoryCount()];
+        for (int code = 0; code < builders.length; code++) {
+            builders[code] = new ProductBitmap.Builder();
+        }
+        ProductBitmap.Builder available = new ProductBitmap.Builder();
+
+        for (int slot = 0; slot < store.size(); slot++) {
+            builders[store.categoryCodeAt(slot)].add(slot);
+            if (store.isAvailable(slot)) {
+                available.add(slot);
+            }
+        }
+
+        this.categoryBitmaps = new ProductBitmap[builders.length];
+        for (int code = 0; code < builders.length; code++) {
+            categoryBitmaps[code] = builders[code].build();
+        }
+        this.availableBitmap = available.build();
+    }
+
+    /**
+     * Bitmap of products in a category (case-insensitive, like Product.isInCategory)
+     * Differently-cased spellings of the same category are merged
+     * @param category Category to look up
+     * @return Matching slots, empty if the category is unknown
+     */
+    public ProductBitmap lookup(String category) {
+        boolean[] matches = store.matchingCategoryCodes(category);
+        ProductBitmap result = ProductBitmap.empty();
+        for (int code = 0; code < matches.length; code++) {
+            if (matches[code]) {
+                result = result.cardinality() == 0 ? categoryBitmaps[code] : result.or(categoryBitmaps[code]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Bitmap of products with exactly the category string of a dictionary code
+     */
+    ProductBitmap bitmapFor(int code) {
+        return categoryBitmaps[code];
+    }
+
+    /**
+     * Bitmap of products that were in stock when the index was built
+     */
+    public ProductBitmap available() {
+        return availableBitmap;
+    }
+
+    /**
+     * Number of distinct category strings
+     */
+    public int categoryCount() {
+        return categoryBitmaps.length;
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * FacetCounts - match counts per category, price bucket and rating band for one query
+ * Buckets are given by ascending lower bounds: bucket i holds values in
+ * [bounds[i], bounds[i + 1]) and the last bucket is open-ended; values below the
+ * first bound are not counted
+ */
+public class FacetCounts {
+
+    private static final double[] DEFAULT_PRICE_BOUNDS = {0, 50, 100, 250, 500, 1000, 2000};
+    private static final double[] DEFAULT_RATING_BOUNDS = {0, 1, 2, 3, 4};
+
+    // Bucket lists up to this size are searched linearly
+    private static final int LINEAR_BUCKET_LIMIT = 16;
+
+    private final Map<String, Integer> categoryCounts;
+    private final double[] priceBounds;
+    private final int[] priceCounts;
+    private final double[] ratingBounds;
+    private final int[] ratingCounts;
+
+    /**
+     * @param categoryCounts Count per category, most frequent first; zero counts omitted
+     */
+    public FacetCounts(Map<String, Integer> categoryCounts, double[] priceBounds, int[] priceCounts,
+                       double[] ratingBounds, int[] ratingCounts) {
+        this.categoryCounts = Collections.unmodifiableMap(categoryCounts);
+        this.priceBounds = priceBounds.clone();
+        this.priceCounts = priceCounts.clone();
+        this.ratingBounds = ratingBounds.clone();
+        this.ratingCounts = ratingCounts.clone();
+    }
+
+    /**
+     * Copy of the default price bucket lower bounds
+     */
+    public static double[] defaultPriceBounds() {
+        return DEFAULT_PRICE_BOUNDS.clone();
+    }
+
+    /**
+     * Copy of the default rating band lower bounds (whole stars)
+     */
+    public static double[] defaultRatingBounds() {
+        return DEFAULT_RATING_BOUNDS.clone();
+    }
+
+    /**
+     * Build from counts indexed by category dictionary code
+     */
+    static FacetCounts fromCodes(ProductStore store, int[] countsByCode, double[] priceBounds, int[] priceCounts,
+                                 double[] ratingBounds, int[] ratingCounts) {
+        List<Integer> codes = new ArrayList<Integer>();
+        for (int code = 0; code < countsByCode.length; code++) {
+            if (countsByCode[code] > 0) {
+                codes.add(code);
+            }
+        }
+        final int[] counts = countsByCode;
+        Collections.sort(codes, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                int result = Integer.compare(counts[b], counts[a]);
+                return result != 0 ? result : Integer.compare(a, b);
+            }
+        });
+        Map<String, Integer> byCategory = new LinkedHashMap<String, Integer>();
+        for (Integer code : codes) {
+            byCategory.put(store.categoryFor(code), counts[code]);
+        }
+        return new FacetCounts(byCategory, priceBounds, priceCounts, ratingBounds, ratingCounts);
+    }
+
+    /**
+     * Bucket holding a value: the last bound not above it, or -1 (NaN, or below the first bound)
+     */
+    static int bucketOf(double[] bounds, double value) {
+        if (bounds.length <= LINEAR_BUCKET_LIMIT) {
+            // Counting the bounds not above the value has no data-dependent branches,
+            // which beats a binary search on random values over a few buckets
+            int notAbove = 0;
+            for (double bound : bounds) {
+                notAbove += bound <= value ? 1 : 0;
+            }
+            return notAbove - 1;
+        }
+        int low = 0;
+        int high = bounds.length - 1;
+        int bucket = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (bounds[mid] <= value) {
+                bucket = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return bucket;
+    }
+
+    /**
+     * Check that bucket bounds are finite and strictly ascending
+     */
+    static void checkBounds(double[] bounds, String facet) {
+        if (bounds.length == 0) {
+            throw new IllegalArgumentException("No " + facet + " buckets");
+        }
+        for (int i = 0; i < bounds.length; i++) {
+            if (Double.isNaN(bounds[i]) || Double.isInfinite(bounds[i]) || i > 0 && bounds[i] <= bounds[i - 1]) {
+                throw new IllegalArgumentException(facet + " bounds must be finite and ascending: " + bounds[i]);
+            }
+        }
+    }
+
+    /**
+     * Matches per category, most frequent first
+     */
+    public Map<String, Integer> getCategoryCounts() {
+        return categoryCounts;
+    }
+
+    public int getPriceBucketCount() {
+        return priceCounts.length;
+    }
+
+    public int getPriceCount(int bucket) {
+        return priceCounts[bucket];
+    }
+
+    public String getPriceLabel(int bucket) {
+        return label(priceBounds, bucket, "$");
+    }
+
+    public int getRatingBandCount() {
+        return ratingCounts.length;
+    }
+
+    public int getRatingCount(int band) {
+        return ratingCounts[band];
+    }
+
+    public String getRatingLabel(int band) {
+        return label(ratingBounds, band, "");
+    }
+
+    private static String label(double[] bounds, int bucket, String unit) {
+        String from = unit + format(bounds[bucket]);
+        return bucket + 1 < bounds.length ? from + "-" + unit + format(bounds[bucket + 1]) : from + "+";
+    }
+
+    private static String format(double value) {
+        return value == Math.rint(value) ? String.valueOf((long) value) : String.valueOf(value);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Categories: ").append(categoryCounts).append("\n");
+        sb.append("Price:");
+        for (int i = 0; i < priceCounts.length; i++) {
+            sb.append(" ").append(getPriceLabel(i)).append("=").append(priceCounts[i]);
+        }
+        sb.append("\nRating:");
+        for (int i = 0; i < ratingCounts.length; i++) {
+            sb.append(" ").append(getRatingLabel(i)).append("=").append(ratingCounts[i]);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.search;
+
+/**
+ * FacetedResult - query matches with their facet counts, all from one execution
+ */
+public class FacetedResult extends QueryResult {
+
+    private final FacetCounts facets;
+
+    public FacetedResult(Product[] products, QueryPlan plan, FacetCounts facets) {
+        super(products, plan);
+        this.facets = facets;
+    }
+
+    public FacetCounts getFacets() {
+        return facets;
+    }
+}
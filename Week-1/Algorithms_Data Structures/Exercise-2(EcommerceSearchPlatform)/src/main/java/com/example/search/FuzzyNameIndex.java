@@ -0,0 +1,403 @@
+package com.example.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * FuzzyNameIndex - typo-tolerant word search over product names
+ * The distinct lowercased words (runs of letters and digits) of all names form a
+ * vocabulary stored as an array trie with a posting list of slots per word. A query
+ * word walks the trie carrying one edit-distance row per depth, which acts as a
+ * Levenshtein automaton: a branch is abandoned as soon as every prefix alignment
+ * exceeds the allowed distance, so only a thin slice of the vocabulary is visited
+ * Distances are optimal string alignment: insertions, deletions, substitutions
+ * and transpositions of adjacent characters each cost 1
+ */
+public class FuzzyNameIndex {
+
+    /** Largest supported edit distance */
+    public static final int MAX_DISTANCE = 2;
+
+    private static final int NO_WORD = -1;
+    private static final long[] NO_MATCHES = new long[0];
+
+    // Array trie in breadth-first order; node 0 is the root and the children of node k are
+    // the nodes childStart[k] to childStart[k + 1] - 1, so a sibling scan reads adjacent memory
+    private final char[] labels;
+    private final int[] childStart;
+    private final int[] wordAt;
+    private final int maxWordLength;
+    private final int[][] postings;
+
+    /**
+     * Build the index over a product store
+     * @param store Columnar products; posting lists hold slots of this store
+     */
+    public FuzzyNameIndex(ProductStore store) {
+        Map<String, PostingList> lists = new HashMap<String, PostingList>();
+        StringBuilder word = new StringBuilder();
+        for (int slot = 0; slot < store.size(); slot++) {
+            int length = store.nameLength(slot);
+            for (int i = 0; i <= length; i++) {
+                char c = i < length ? store.nameCharAt(slot, i) : ' ';
+                if (Character.isLetterOrDigit(c)) {
+                    word.append(c);
+                } else if (word.length() > 0) {
+                    String key = word.toString();
+                    PostingList list = lists.get(key);
+                    if (list == null) {
+                        list = new PostingList();
+                        lists.put(key, list);
+                    }
+                    list.addOnce(slot);
+                    word.setLength(0);
+                }
+            }
+        }
+
+        String[] vocabulary = lists.keySet().toArray(new String[lists.size()]);
+        Arrays.sort(vocabulary);
+        this.postings = new int[vocabulary.length][];
+
+        // Sorted insertion: each word shares a prefix with the previous one and
+        // appends its remaining characters as the last children along that path
+        int capacity = 1;
+        int longest = 0;
+        for (String w : vocabulary) {
+            capacity += w.length();
+            longest = Math.max(longest, w.length());
+        }
+        char[] nodeLabels = new char[capacity];
+        int[] nodeFirstChild = new int[capacity];
+        int[] nodeNextSibling = new int[capacity];
+        int[] nodeWord = new int[capacity];
+        int[] lastChild = new int[capacity];
+        Arrays.fill(nodeFirstChild, -1);
+        Arrays.fill(nodeNextSibling, -1);
+        Arrays.fill(nodeWord, NO_WORD);
+        Arrays.fill(lastChild, -1);
+
+        int nodeCount = 1;
+        int[] path = new int[longest + 1];
+        String previous = "";
+        for (int w = 0; w < vocabulary.length; w++) {
+            String current = vocabulary[w];
+            int shared = 0;
+            while (shared < previous.length() && shared < current.length()
+                    && previous.charAt(shared) == current.charAt(shared)) {
+                shared++;
+            }
+            for (int depth = shared; depth < current.length(); depth++) {
+                int parent = path[depth];
+                int node = nodeCount++;
+                nodeLabels[node] = current.charAt(depth);
+                if (lastChild[parent] < 0) {
+                    nodeFirstChild[parent] = node;
+                } else {
+                    nodeNextSibling[lastChild[parent]] = node;
+                }
+                lastChild[parent] = node;
+                path[depth + 1] = node;
+            }
+            nodeWord[path[current.length()]] = w;
+            postings[w] = lists.get(current).toArray();
+            previous = current;
+        }
+
+        // Renumber breadth-first: the queue order is the new node order
+        int[] queue = new int[nodeCount];
+        this.labels = new char[nodeCount];
+        this.childStart = new int[nodeCount + 1];
+        this.wordAt = new int[nodeCount];
+        int tail = 1;
+        for (int head = 0; head < nodeCount; head++) {
+            int node = queue[head];
+            labels[head] = nodeLabels[node];
+            wordAt[head] = nodeWord[node];
+            childStart[head] = tail;
+            for (int child = nodeFirstChild[node]; child >= 0; child = nodeNextSibling[child]) {
+                queue[tail++] = child;
+            }
+        }
+        childStart[nodeCount] = tail;
+        this.maxWordLength = longest;
+    }
+
+    /**
+     * Find products whose name has a word within the allowed distance of every query word
+     * @param searchTerm One or more words
+     * @param maxDistance Edit distance allowed per query word, 0 to MAX_DISTANCE; capped
+     *                    by allowedDistance so short words are not matched by anything
+     * @param visited If not null, visited[0] receives the number of trie nodes examined
+     * @return Matches ranked by total distance, then slot, each packed as (distance << 32) | slot
+     */
+    public long[] search(String searchTerm, int maxDistance, int[] visited) {
+        checkDistance(maxDistance);
+        String[] queryWords = words(ProductStore.normalizeName(searchTerm));
+        if (queryWords.length == 0) {
+            return NO_MATCHES;
+        }
+
+        // Ascending slots with their best distance summed over the query words so far;
+        // slots missing a word drop out
+        int[] slots = null;
+        int[] totals = null;
+        int nodes = 0;
+        for (String queryWord : queryWords) {
+            Walk walk = new Walk(queryWord, Math.min(maxDistance, allowedDistance(queryWord.length())));
+            walk.run();
+            nodes += walk.visited;
+
+            long[] hits = bestDistances(walk);
+            if (slots == null) {
+                slots = new int[hits.length];
+                totals = new int[hits.length];
+                for (int i = 0; i < hits.length; i++) {
+                    slots[i] = (int) (hits[i] >>> 32);
+                    totals[i] = (int) hits[i];
+                }
+                continue;
+            }
+
+            int[] joinedSlots = new int[Math.min(slots.length, hits.length)];
+            int[] joinedTotals = new int[joinedSlots.length];
+            int count = 0;
+            int j = 0;
+            for (int i = 0; i < slots.length && j < hits.length; i++) {
+                while (j < hits.length && (int) (hits[j] >>> 32) < slots[i]) {
+                    j++;
+                }
+                if (j < hits.length && (int) (hits[j] >>> 32) == slots[i]) {
+                    joinedSlots[count] = slots[i];
+                    joinedTotals[count] = totals[i] + (int) hits[j];
+                    count++;
+                }
+            }
+            slots = Arrays.copyOf(joinedSlots, count);
+            totals = Arrays.copyOf(joinedTotals, count);
+        }
+
+        if (visited != null) {
+            visited[0] = nodes;
+        }
+        long[] ranked = new long[slots.length];
+        for (int i = 0; i < slots.length; i++) {
+            ranked[i] = ((long) totals[i] << 32) | slots[i];
+        }
+        Arrays.sort(ranked);
+        return ranked;
+    }
+
+    /**
+     * Slots holding any word a walk matched, each with the smallest distance among
+     * its matched words, packed as (slot << 32) | distance in ascending slot order
+     */
+    private long[] bestDistances(Walk walk) {
+        int total = 0;
+        for (int i = 0; i < walk.matchCount; i++) {
+            total += postings[walk.matchWords[i]].length;
+        }
+        long[] hits = new long[total];
+        int h = 0;
+        for (int i = 0; i < walk.matchCount; i++) {
+            long distance = walk.matchDistances[i];
+            for (int slot : postings[walk.matchWords[i]]) {
+                hits[h++] = ((long) slot << 32) | distance;
+            }
+        }
+        // Sorting puts each slot's smallest distance first; keep only that one
+        Arrays.sort(hits);
+        int count = 0;
+        for (int i = 0; i < hits.length; i++) {
+            if (count == 0 || (hits[i] >>> 32) != (hits[count - 1] >>> 32)) {
+                hits[count++] = hits[i];
+            }
+        }
+        return count == hits.length ? hits : Arrays.copyOf(hits, count);
+    }
+
+    /**
+     * Number of distinct words in the vocabulary
+     */
+    public int vocabularySize() {
+        return postings.length;
+    }
+
+    /**
+     * Distance actually allowed for a query word: exact below 3 characters,
+     * at most 1 below 6, at most 2 from there on
+     */
+    public static int allowedDistance(int wordLength) {
+        return wordLength < 3 ? 0 : wordLength < 6 ? 1 : 2;
+    }
+
+    /**
+     * Split lowercased text into words (runs of letters and digits)
+     */
+    public static String[] words(String text) {
+        List<String> words = new ArrayList<String>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean inWord = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (inWord && start < 0) {
+                start = i;
+            } else if (!inWord && start >= 0) {
+                words.add(text.substring(start, i));
+                start = -1;
+            }
+        }
+        return words.toArray(new String[words.size()]);
+    }
+
+    /**
+     * Optimal string alignment distance, or limit + 1 once it is known to exceed limit
+     */
+    public static int distance(String a, String b, int limit) {
+        if (Math.abs(a.length() - b.length()) > limit) {
+            return limit + 1;
+        }
+        int[] beforePrevious = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, beforePrevious[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > limit) {
+                return limit + 1;
+            }
+            int[] recycled = beforePrevious;
+            beforePrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[b.length()], limit + 1);
+    }
+
+    static void checkDistance(int maxDistance) {
+        if (maxDistance < 0 || maxDistance > MAX_DISTANCE) {
+            throw new IllegalArgumentException("Edit distance must be between 0 and " + MAX_DISTANCE
+                                               + ": " + maxDistance);
+        }
+    }
+
+    /**
+     * Depth-first trie walk for one query word; rows[d] is the distance row after d characters
+     */
+    private class Walk {
+        private final String query;
+        private final int limit;
+        private final int[][] rows;
+        private final char[] pathLabels;
+        int visited;
+        int[] matchWords = new int[16];
+        int[] matchDistances = new int[16];
+        int matchCount;
+
+        Walk(String query, int limit) {
+            this.query = query;
+            this.limit = limit;
+            int depth = Math.min(maxWordLength, query.length() + limit);
+            this.rows = new int[depth + 1][query.length() + 1];
+            this.pathLabels = new char[depth + 1];
+            // Cells off the diagonal band are never written; any value above limit stands for them
+            for (int[] row : rows) {
+                Arrays.fill(row, limit + 1);
+            }
+            for (int j = 0; j <= Math.min(limit, query.length()); j++) {
+                rows[0][j] = j;
+            }
+        }
+
+        void run() {
+            for (int child = childStart[0]; child < childStart[1]; child++) {
+                visit(child, 1);
+            }
+        }
+
+        private void visit(int node, int depth) {
+            visited++;
+            char c = labels[node];
+            pathLabels[depth] = c;
+            int[] previous = rows[depth - 1];
+            int[] current = rows[depth];
+            // Only cells within limit of the diagonal can hold a distance up to limit
+            int from = Math.max(1, depth - limit);
+            int to = Math.min(query.length(), depth + limit);
+            int rowMin = limit + 1;
+            if (depth <= limit) {
+                current[0] = depth;
+                rowMin = depth;
+            }
+            for (int j = from; j <= to; j++) {
+                int cost = query.charAt(j - 1) == c ? 0 : 1;
+                int value = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                if (depth > 1 && j > 1 && query.charAt(j - 1) == pathLabels[depth - 1]
+                        && query.charAt(j - 2) == c) {
+                    value = Math.min(value, rows[depth - 2][j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+
+            int distance = current[query.length()];
+            if (wordAt[node] != NO_WORD && distance <= limit) {
+                addMatch(wordAt[node], distance);
+            }
+            // Every alignment already costs more than allowed, or no longer word can get back within it
+            if (rowMin > limit || depth == rows.length - 1) {
+                return;
+            }
+            for (int child = childStart[node]; child < childStart[node + 1]; child++) {
+                visit(child, depth + 1);
+            }
+        }
+
+        private void addMatch(int word, int distance) {
+            if (matchCount == matchWords.length) {
+                matchWords = Arrays.copyOf(matchWords, matchCount * 2);
+                matchDistances = Arrays.copyOf(matchDistances, matchCount * 2);
+            }
+            matchWords[matchCount] = word;
+            matchDistances[matchCount] = distance;
+            matchCount++;
+        }
+    }
+
+    /**
+     * Growable list of ascending slots
+     */
+    private static class PostingList {
+        private int[] slots = new int[4];
+        private int size;
+
+        void addOnce(int slot) {
+            // Slots arrive in ascending order, so a repeat is always the last entry
+            if (size > 0 && slots[size - 1] == slot) {
+                return;
+            }
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            slots[size++] = slot;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(slots, size);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.search;
+
+import java.util.Arrays;
+
+/**
+ * HitBuffer - reusable buffer of matching slots for the collectBy* searches
+ * The slot array only grows, so once it has reached the largest result size a
+ * buffer can be cleared and refilled for every query without allocating
+ * Not thread-safe; keep one buffer per thread
+ */
+public class HitBuffer implements ProductVisitor {
+
+    private ProductStore store;
+    private int[] slots;
+    private int size;
+
+    /**
+     * Constructor - starts with room for 64 hits
+     */
+    public HitBuffer() {
+        this(64);
+    }
+
+    /**
+     * @param initialCapacity Hits the buffer holds before it first grows
+     */
+    public HitBuffer(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Capacity must not be negative: " + initialCapacity);
+        }
+        this.slots = new int[initialCapacity];
+    }
+
+    /**
+     * Empty the buffer before it is filled from a store
+     */
+    void reset(ProductStore source) {
+        this.store = source;
+        this.size = 0;
+    }
+
+    @Override
+    public boolean visit(int slot, Product product) {
+        if (size == slots.length) {
+            slots = Arrays.copyOf(slots, Math.max(16, size * 2));
+        }
+        slots[size++] = slot;
+        return true;
+    }
+
+    /**
+     * Number of hits of the last search
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Catalog slot of the i-th hit
+     */
+    public int slotAt(int index) {
+        checkIndex(index);
+        return slots[index];
+    }
+
+    /**
+     * Product of the i-th hit, built from the catalog on each call
+     */
+    public Product productAt(int index) {
+        checkIndex(index);
+        return store.row(slots[index]);
+    }
+
+    /**
+     * Current capacity; stays constant once the buffer has grown large enough
+     */
+    public int capacity() {
+        return slots.length;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Hit " + index + " of " + size);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.search;
+
+/**
+ * IdLookupResult - outcome of a batch lookup by product ID
+ * Products are aligned with the requested IDs, so products[i] answers ids[i] and is
+ * null when that ID is not in the catalog; the missing IDs are also kept once each,
+ * in ascending order, so callers can report or retry them without scanning the batch
+ */
+public class IdLookupResult {
+
+    private final Product[] products;
+    private final int[] missingIds;
+    private final int comparisonCount;
+    private final long elapsedNanos;
+
+    public IdLookupResult(Product[] products, int[] missingIds, int comparisonCount, long elapsedNanos) {
+        this.products = products;
+        this.missingIds = missingIds;
+        this.comparisonCount = comparisonCount;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Copy of the products in request order, null for missing IDs
+     */
+    public Product[] getProducts() {
+        return products.clone();
+    }
+
+    /**
+     * Product for the i-th requested ID, or null if it is missing
+     */
+    public Product get(int index) {
+        return products[index];
+    }
+
+    /**
+     * Number of requested IDs
+     */
+    public int size() {
+        return products.length;
+    }
+
+    /**
+     * Number of requested IDs that were found, duplicates counted each time
+     */
+    public int getFoundCount() {
+        int found = 0;
+        for (Product product : products) {
+            if (product != null) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Distinct requested IDs not in the catalog, ascending
+     */
+    public int[] getMissingIds() {
+        return missingIds.clone();
+    }
+
+    public boolean hasMissing() {
+        return missingIds.length > 0;
+    }
+
+    public int getComparisonCount() {
+        return comparisonCount;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("IdLookupResult[requested=%d, found=%d, missing=%d, comparisons=%d, time=%.2f μs]",
+                             products.length, getFoundCount(), missingIds.length, comparisonCount,
+                             elapsedNanos / 1000.0);
+    }
+}
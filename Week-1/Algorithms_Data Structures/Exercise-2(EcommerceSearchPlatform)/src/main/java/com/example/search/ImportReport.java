@@ -0,0 +1,97 @@
+package com.example.search;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * ImportReport - outcome of one catalog import
+ * Every rejected row is counted, but only the first few are kept with their
+ * line number and reason so a feed full of errors cannot exhaust memory
+ */
+public class ImportReport {
+
+    private final long rowsRead;
+    private final long rowsImported;
+    private final long errorCount;
+    private final List<RowError> errors;
+    private final long elapsedNanos;
+
+    public ImportReport(long rowsRead, long rowsImported, long errorCount, List<RowError> errors, long elapsedNanos) {
+        this.rowsRead = rowsRead;
+        this.rowsImported = rowsImported;
+        this.errorCount = errorCount;
+        this.errors = Collections.unmodifiableList(errors);
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Data rows read from the feed (header and blank lines excluded)
+     */
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    public long getRowsImported() {
+        return rowsImported;
+    }
+
+    /**
+     * Total number of rejected rows, including those not kept in getErrors()
+     */
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    /**
+     * The first rejected rows, in feed order
+     */
+    public List<RowError> getErrors() {
+        return errors;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Rows read per second of wall-clock time
+     */
+    public double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : rowsRead * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ImportReport[read=%d, imported=%d, errors=%d, time=%.1f ms, %.0f rows/s]",
+                             rowsRead, rowsImported, errorCount, elapsedNanos / 1e6, getRowsPerSecond());
+    }
+
+    /**
+     * A rejected row
+     */
+    public static class RowError {
+        private final long lineNumber;
+        private final String message;
+
+        public RowError(long lineNumber, String message) {
+            this.lineNumber = lineNumber;
+            this.message = message;
+        }
+
+        /**
+         * 1-based line on which the record starts
+         */
+        public long getLineNumber() {
+            return lineNumber;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return "line " + lineNumber + ": " + message;
+        }
+    }
+}
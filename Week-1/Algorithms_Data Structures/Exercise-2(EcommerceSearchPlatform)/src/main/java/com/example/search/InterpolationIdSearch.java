@@ -0,0 +1,165 @@
+package com.example.search;
+
+/**
+ * InterpolationIdSearch - distribution-aware searches over the ID-sorted column
+ * Interpolation search guesses the position of an ID from its value, which takes
+ * O(log log n) probes when IDs are close to uniform (e.g. a fixed start and step).
+ * Each search gets a small interpolation budget and finishes with binary search,
+ * so skewed IDs cost at most O(log n) extra probes
+ * Exponential (galloping) search serves batches of ascending IDs: each lookup
+ * starts from the previous match, costing O(log d) for a gap of d positions
+ * A sample of the sorted IDs taken at construction decides whether the IDs are
+ * uniform enough for interpolation to pay off
+ */
+public class InterpolationIdSearch {
+
+    // Evenly spaced positions checked against the linear model
+    private static final int SAMPLE_SIZE = 64;
+    // Largest sampled position error, as a fraction of n, still considered uniform
+    private static final double UNIFORMITY_TOLERANCE = 0.05;
+
+    private final int[] sortedIds;
+    private final int interpolationBudget;
+    private final double maxSampledError;
+
+    /**
+     * @param sortedIds IDs in ascending order; not copied, must not be modified
+     */
+    public InterpolationIdSearch(int[] sortedIds) {
+        this.sortedIds = sortedIds;
+        int n = sortedIds.length;
+        // About 2 log2 log2 n interpolation probes before giving up on the model
+        int logN = 32 - Integer.numberOfLeadingZeros(Math.max(n, 1));
+        this.interpolationBudget = 4 + 2 * (32 - Integer.numberOfLeadingZeros(logN));
+        this.maxSampledError = sampleError();
+    }
+
+    /**
+     * Whether sampled IDs follow a straight line closely enough for interpolation
+     */
+    public boolean isUniform() {
+        return maxSampledError <= UNIFORMITY_TOLERANCE;
+    }
+
+    /**
+     * Largest sampled distance between an ID's position and the position predicted
+     * from its value, as a fraction of the catalog size
+     */
+    public double getMaxSampledError() {
+        return maxSampledError;
+    }
+
+    /**
+     * Interpolation search with a guarded fallback to binary search
+     * @param steps If not null, steps[0] receives the number of probes
+     * @return Position in the ID-sorted order, or -1 if the ID is not present
+     */
+    public int interpolationFind(int productId, int[] steps) {
+        int low = 0;
+        int high = sortedIds.length - 1;
+        int probes = 0;
+
+        while (low <= high && probes < interpolationBudget) {
+            int lowId = sortedIds[low];
+            int highId = sortedIds[high];
+            if (productId < lowId || productId > highId) {
+                return finish(-1, probes, steps);
+            }
+            probes++;
+            int position = highId == lowId
+                    ? low
+                    : low + (int) (((long) productId - lowId) * (high - low) / ((long) highId - lowId));
+            int id = sortedIds[position];
+            if (id == productId) {
+                return finish(position, probes, steps);
+            } else if (id < productId) {
+                low = position + 1;
+            } else {
+                high = position - 1;
+            }
+        }
+
+        // Model did not converge within its budget; finish with binary search
+        while (low <= high) {
+            probes++;
+            int mid = (low + high) >>> 1;
+            int id = sortedIds[mid];
+            if (id == productId) {
+                return finish(mid, probes, steps);
+            } else if (id < productId) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return finish(-1, probes, steps);
+    }
+
+    /**
+     * Exponential search for the first position at or after from whose ID is >= productId
+     * @param steps Probe counter to add to, or null
+     * @return Lower-bound position, sortedIds.length if every ID is smaller
+     */
+    public int gallop(int productId, int from, int[] steps) {
+        int n = sortedIds.length;
+        int probes = 0;
+        int bound = 1;
+        while (from + bound < n && sortedIds[from + bound - 1] < productId) {
+            probes++;
+            bound <<= 1;
+        }
+        int low = from + (bound >>> 1);
+        int high = Math.min(from + bound, n);
+        if (bound == 1) {
+            low = from;
+        }
+        // Binary search for the lower bound in [low, high)
+        while (low < high) {
+            probes++;
+            int mid = (low + high) >>> 1;
+            if (sortedIds[mid] < productId) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        if (steps != null) {
+            steps[0] += probes;
+        }
+        return low;
+    }
+
+    public int size() {
+        return sortedIds.length;
+    }
+
+    private static int finish(int position, int probes, int[] steps) {
+        if (steps != null) {
+            steps[0] = probes;
+        }
+        return position;
+    }
+
+    /**
+     * Compare evenly spaced sorted IDs with the straight line from the first to the last ID
+     */
+    private double sampleError() {
+        int n = sortedIds.length;
+        if (n < 2) {
+            return 0.0;
+        }
+        double first = sortedIds[0];
+        double span = (double) sortedIds[n - 1] - first;
+        if (span == 0) {
+            return 0.0;
+        }
+        int samples = Math.min(SAMPLE_SIZE, n);
+        double maxError = 0.0;
+        for (int i = 0; i < samples; i++) {
+            int position = (int) ((long) i * (n - 1) / Math.max(samples - 1, 1));
+            double predicted = (sortedIds[position] - first) / span * (n - 1);
+            maxError = Math.max(maxError, Math.abs(predicted - position) / n);
+        }
+        return maxError;
+    }
+}
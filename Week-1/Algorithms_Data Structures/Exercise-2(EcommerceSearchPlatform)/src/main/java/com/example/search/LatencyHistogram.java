@@ -0,0 +1,272 @@
+package com.example.search;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * LatencyHistogram - lock-free log-linear histogram of call latencies
+ * Values below 32 ns get their own bucket; above that each power of two is split
+ * into 32 sub-buckets, so a reported value is within about 3% of the recorded one
+ * (the HdrHistogram layout with two significant binary digits of five bits)
+ * Alongside each latency the call's comparison count and result size are summed
+ * Counters are split over a fixed number of stripes. A recording thread claims a free
+ * stripe near a hash of its ID the first time it records, and as the only writer
+ * updates it with ordered stores instead of atomic adds (four atomic adds cost about
+ * 40 ns, over the 20 ns budget of a call). A stripe whose thread has died is taken over
+ * by the next thread that needs one, so memory stays bounded by the stripe count however
+ * many threads come and go; threads that find no stripe share one more, updated with
+ * atomic adds. Snapshots add up the stripes
+ */
+public class LatencyHistogram {
+
+    // Sub-buckets per power of two = 2^SUB_BUCKET_BITS
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // Largest tracked latency is 2^MAX_EXPONENT ns (about 18 minutes); longer calls are clamped
+    private static final int MAX_EXPONENT = 40;
+    private static final long MAX_VALUE = (1L << MAX_EXPONENT) - 1;
+    private static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    // Per-stripe totals stored after the buckets
+    private static final int SUM_NANOS = BUCKETS;
+    private static final int SUM_COMPARISONS = BUCKETS + 1;
+    private static final int SUM_RESULTS = BUCKETS + 2;
+    private static final int STRIPE_LENGTH = BUCKETS + 3;
+
+    // Owned stripes (a power of two), followed by the shared stripe
+    private static final int STRIPES = 16;
+    private static final int SHARED = STRIPES;
+    // Stripes a thread looks at from its hash before it records into the shared stripe
+    private static final int PROBES = 4;
+    // A thread without a stripe looks for a dead owner's stripe on about one call in this many
+    private static final int TAKEOVER_INTERVAL = 64;
+
+    // Allocated on first use; null stripes have recorded nothing
+    private final AtomicReferenceArray<Stripe> stripes = new AtomicReferenceArray<Stripe>(STRIPES + 1);
+    // Totals at the last reset; snapshots report the counts since then
+    private volatile long[] baseline = new long[STRIPE_LENGTH];
+
+    /**
+     * Record one call
+     * @param nanos Elapsed time; negative values count as 0
+     * @param comparisons Comparisons or probes the call performed
+     * @param results Number of products returned
+     */
+    public void record(long nanos, long comparisons, long results) {
+        long value = nanos < 0 ? 0 : Math.min(nanos, MAX_VALUE);
+        Thread thread = Thread.currentThread();
+        // Thread IDs are sequential; the Fibonacci hash spreads them over the stripes
+        int home = (int) ((thread.getId() * 0x9E3779B97F4A7C15L) >>> 32);
+        for (int probe = 0; probe < PROBES; probe++) {
+            Stripe stripe = stripes.get((home + probe) & (STRIPES - 1));
+            if (stripe != null && stripe.owner == thread) {
+                stripe.add(value, comparisons, results);
+                return;
+            }
+        }
+        recordUnowned(thread, home, value, comparisons, results);
+    }
+
+    /**
+     * Claim a stripe for the calling thread and record into it, or record into the
+     * shared stripe when every probed stripe belongs to a live thread
+     */
+    private void recordUnowned(Thread thread, int home, long value, long comparisons, long results) {
+        boolean takeOver = ThreadLocalRandom.current().nextInt(TAKEOVER_INTERVAL) == 0;
+        for (int probe = 0; probe < PROBES; probe++) {
+            int index = (home + probe) & (STRIPES - 1);
+            Stripe stripe = stripes.get(index);
+            // A dead owner's last stores happen-before isAlive() returns false, so its counts carry over
+            if (stripe == null || (takeOver && !stripe.owner.isAlive())) {
+                Stripe claimed = new Stripe(thread, stripe == null ? new AtomicLongArray(STRIPE_LENGTH) : stripe.counts);
+                if (stripes.compareAndSet(index, stripe, claimed)) {
+                    claimed.add(value, comparisons, results);
+                    return;
+                }
+            }
+        }
+        Stripe shared = stripes.get(SHARED);
+        if (shared == null) {
+            stripes.compareAndSet(SHARED, null, new Stripe(null, new AtomicLongArray(STRIPE_LENGTH)));
+            shared = stripes.get(SHARED);
+        }
+        // Any number of threads record here, so the adds must be atomic
+        AtomicLongArray counts = shared.counts;
+        counts.getAndIncrement(bucketOf(value));
+        counts.getAndAdd(SUM_NANOS, value);
+        counts.getAndAdd(SUM_COMPARISONS, comparisons);
+        counts.getAndAdd(SUM_RESULTS, results);
+    }
+
+    /**
+     * Point-in-time copy of the counters
+     * Calls recorded while the copy is taken may be partly included
+     */
+    public Snapshot snapshot() {
+        long[] totals = totals();
+        long[] base = baseline;
+        for (int i = 0; i < STRIPE_LENGTH; i++) {
+            totals[i] -= base[i];
+        }
+        return new Snapshot(Arrays.copyOf(totals, BUCKETS),
+                            totals[SUM_NANOS], totals[SUM_COMPARISONS], totals[SUM_RESULTS]);
+    }
+
+    /**
+     * Start counting from zero; the recording threads are not disturbed
+     */
+    public void reset() {
+        baseline = totals();
+    }
+
+    private long[] totals() {
+        long[] totals = new long[STRIPE_LENGTH];
+        for (int index = 0; index <= STRIPES; index++) {
+            Stripe stripe = stripes.get(index);
+            if (stripe == null) {
+                continue;
+            }
+            for (int i = 0; i < STRIPE_LENGTH; i++) {
+                totals[i] += stripe.counts.get(i);
+            }
+        }
+        return totals;
+    }
+
+    /**
+     * Counters written by one owning thread; a new Stripe with the same counts hands
+     * them to another thread
+     */
+    private static class Stripe {
+        final Thread owner;
+        final AtomicLongArray counts;
+
+        Stripe(Thread owner, AtomicLongArray counts) {
+            this.owner = owner;
+            this.counts = counts;
+        }
+
+        /**
+         * Add one call; only the owner calls this, so a read followed by an ordered
+         * store loses no update, and snapshots never see a torn value
+         */
+        void add(long value, long comparisons, long results) {
+            int bucket = bucketOf(value);
+            counts.lazySet(bucket, counts.get(bucket) + 1);
+            counts.lazySet(SUM_NANOS, counts.get(SUM_NANOS) + value);
+            counts.lazySet(SUM_COMPARISONS, counts.get(SUM_COMPARISONS) + comparisons);
+            counts.lazySet(SUM_RESULTS, counts.get(SUM_RESULTS) + results);
+        }
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return ((shift + 1) << SUB_BUCKET_BITS) + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    /**
+     * Largest value that falls into a bucket
+     */
+    static long highestValueIn(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = (bucket >>> SUB_BUCKET_BITS) - 1;
+        long subBucket = (bucket & (SUB_BUCKETS - 1)) + SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    /**
+     * Immutable view of a histogram at one moment
+     */
+    public static class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long totalNanos;
+        private final long totalComparisons;
+        private final long totalResults;
+
+        Snapshot(long[] counts, long totalNanos, long totalComparisons, long totalResults) {
+            this.counts = counts;
+            long total = 0;
+            for (long c : counts) {
+                total += c;
+            }
+            this.count = total;
+            this.totalNanos = totalNanos;
+            this.totalComparisons = totalComparisons;
+            this.totalResults = totalResults;
+        }
+
+        /**
+         * Number of recorded calls
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * Latency at a percentile, e.g. 99.9; reported as the top of its bucket
+         * @param percentile 0 to 100
+         * @return Nanoseconds, or 0 when nothing was recorded
+         */
+        public long getPercentileNanos(double percentile) {
+            if (!(percentile >= 0 && percentile <= 100)) {
+                throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+            }
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return highestValueIn(i);
+                }
+            }
+            return highestValueIn(counts.length - 1);
+        }
+
+        /**
+         * Slowest call, to bucket precision
+         */
+        public long getMaxNanos() {
+            return getPercentileNanos(100);
+        }
+
+        public double getMeanNanos() {
+            return count == 0 ? 0.0 : (double) totalNanos / count;
+        }
+
+        public double getMeanComparisons() {
+            return count == 0 ? 0.0 : (double) totalComparisons / count;
+        }
+
+        public double getMeanResults() {
+            return count == 0 ? 0.0 : (double) totalResults / count;
+        }
+
+        public long getTotalComparisons() {
+            return totalComparisons;
+        }
+
+        public long getTotalResults() {
+            return totalResults;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("count=%d, mean=%.2f μs, p50=%.2f μs, p99=%.2f μs, p99.9=%.2f μs, max=%.2f μs, "
+                                 + "comparisons/call=%.1f, results/call=%.1f",
+                                 count, getMeanNanos() / 1000.0, getPercentileNanos(50) / 1000.0,
+                                 getPercentileNanos(99) / 1000.0, getPercentileNanos(99.9) / 1000.0,
+                                 getMaxNanos() / 1000.0, getMeanComparisons(), getMeanResults());
+        }
+    }
+}
@@ -0,0 +1,541 @@
+package com.example.search;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * MappedCatalog - read-only product catalog backed by a memory-mapped binary file
+ * Opening maps the file without reading it: only the header and the category
+ * dictionary are decoded, so startup takes milliseconds regardless of size, and
+ * the OS page cache shares the pages between processes that map the same file.
+ * Product objects are built on demand from the fixed-width columns and string heap.
+ * ProductSearchService(MappedCatalog, boolean) searches the file directly: scans read
+ * the mapped columns and the stored lowercased names, and the stored ID order is used
+ * as is, so nothing is copied, sorted or materialized
+ *
+ * File layout (big-endian):
+ *   header      magic, format version, product count, category count,
+ *               dictionary / columns / heap offsets, heap size
+ *   dictionary  category strings, one per category code
+ *   columns     ids, stock, category codes, ID-sorted slots, sorted IDs (int[n] each),
+ *               prices, ratings (double[n]), name, lowercased name and description
+ *               heap offsets (long[n])
+ *   heap        strings as [int length][UTF-8 bytes], length -1 for null; lowercased
+ *               names as [int length][ASCII bytes] when ASCII and [int ~length][UTF-16
+ *               chars] otherwise, lowercased as ProductStore.normalizeName does; entries
+ *               never cross a HEAP_SEGMENT boundary so the heap can be mapped in segments
+ *
+ * Time Complexity: open O(categories), findById O(log n), product O(string length)
+ */
+public class MappedCatalog implements Closeable {
+
+    static final int MAGIC = 0x50434154; // "PCAT"
+    static final int FORMAT_VERSION = 2;
+    static final int HEADER_SIZE = 48;
+    // The heap is mapped in segments of this size; a single mapping is limited to 2 GB
+    static final long HEAP_SEGMENT = 1L << 30;
+    // Five int columns and five long or double columns
+    static final long COLUMNS_BYTES_PER_PRODUCT = 5 * 4L + 5 * 8L;
+
+    private final FileChannel channel;
+    private final int size;
+    private final String[] categoryDictionary;
+    private final IntBuffer ids;
+    private final IntBuffer stock;
+    private final IntBuffer categoryCodes;
+    private final IntBuffer idOrder;
+    private final IntBuffer sortedIds;
+    private final DoubleBuffer prices;
+    private final DoubleBuffer ratings;
+    private final LongBuffer nameOffsets;
+    private final LongBuffer lowerNameOffsets;
+    private final LongBuffer descriptionOffsets;
+    private final ByteBuffer[] heapSegments;
+
+    private MappedCatalog(FileChannel channel) throws IOException {
+        this.channel = channel;
+        if (channel.size() < HEADER_SIZE) {
+            throw new IOException("Not a product catalog file");
+        }
+        ByteBuffer header = map(0, HEADER_SIZE);
+        if (header.getInt(0) != MAGIC) {
+            throw new IOException("Not a product catalog file");
+        }
+        if (header.getInt(4) != FORMAT_VERSION) {
+            throw new IOException("Unsupported catalog format version " + header.getInt(4));
+        }
+        this.size = header.getInt(8);
+        int categoryCount = header.getInt(12);
+        long dictionaryOffset = header.getLong(16);
+        long columnsOffset = header.getLong(24);
+        long heapOffset = header.getLong(32);
+        long heapSize = header.getLong(40);
+
+        ByteBuffer dictionary = map(dictionaryOffset, columnsOffset - dictionaryOffset);
+        this.categoryDictionary = new String[categoryCount];
+        for (int code = 0; code < categoryCount; code++) {
+            categoryDictionary[code] = readString(dictionary);
+        }
+
+        long intColumn = 4L * size;
+        long longColumn = 8L * size;
+        long position = columnsOffset;
+        this.ids = map(position, intColumn).asIntBuffer();
+        this.stock = map(position += intColumn, intColumn).asIntBuffer();
+        this.categoryCodes = map(position += intColumn, intColumn).asIntBuffer();
+        this.idOrder = map(position += intColumn, intColumn).asIntBuffer();
+        this.sortedIds = map(position += intColumn, intColumn).asIntBuffer();
+        this.prices = map(position += intColumn, longColumn).asDoubleBuffer();
+        this.ratings = map(position += longColumn, longColumn).asDoubleBuffer();
+        this.nameOffsets = map(position += longColumn, longColumn).asLongBuffer();
+        this.lowerNameOffsets = map(position += longColumn, longColumn).asLongBuffer();
+        this.descriptionOffsets = map(position += longColumn, longColumn).asLongBuffer();
+
+        this.heapSegments = new ByteBuffer[(int) ((heapSize + HEAP_SEGMENT - 1) / HEAP_SEGMENT)];
+        for (int i = 0; i < heapSegments.length; i++) {
+            long start = i * HEAP_SEGMENT;
+            heapSegments[i] = map(heapOffset + start, Math.min(HEAP_SEGMENT, heapSize - start));
+        }
+    }
+
+    /**
+     * Map a catalog file written by write()
+     * @throws IOException If the file cannot be read or is not a catalog file
+     */
+    public static MappedCatalog open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            return new MappedCatalog(channel);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        } catch (RuntimeException e) {
+            channel.close();
+            throw new IOException("Corrupt catalog file: " + file, e);
+        }
+    }
+
+    /**
+     * Write products as a catalog file, with the ID sort order precomputed
+     */
+    public static void write(Product[] products, Path file) throws IOException {
+        ProductStore store = new ProductStore(products);
+        int n = store.size();
+
+        byte[][] categories = new byte[store.categoryCount()][];
+        long dictionarySize = 0;
+        for (int code = 0; code < categories.length; code++) {
+            String category = store.categoryFor(code);
+            categories[code] = category == null ? null : category.getBytes(StandardCharsets.UTF_8);
+            dictionarySize += 4 + (category == null ? 0 : categories[code].length);
+        }
+        long dictionaryOffset = HEADER_SIZE;
+        long columnsOffset = align8(dictionaryOffset + dictionarySize);
+        long heapOffset = columnsOffset + COLUMNS_BYTES_PER_PRODUCT * n;
+
+        // First pass: heap offsets, so the columns can be written before the heap
+        long[] nameOffsets = new long[n];
+        long[] lowerNameOffsets = new long[n];
+        long[] descriptionOffsets = new long[n];
+        long heapSize = 0;
+        for (int slot = 0; slot < n; slot++) {
+            String name = store.nameAt(slot);
+            String lowerName = store.lowerNameAt(slot);
+            String description = store.descriptionAt(slot);
+            nameOffsets[slot] = heapSize = placeString(heapSize, name);
+            heapSize += 4 + utf8Length(name);
+            lowerNameOffsets[slot] = heapSize = placeBytes(heapSize, lowerNameBytes(lowerName));
+            heapSize += 4 + lowerNameBytes(lowerName);
+            descriptionOffsets[slot] = heapSize = placeString(heapSize, description);
+            heapSize += 4 + utf8Length(description);
+        }
+
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(file), 1 << 16));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(n);
+            out.writeInt(categories.length);
+            out.writeLong(dictionaryOffset);
+            out.writeLong(columnsOffset);
+            out.writeLong(heapOffset);
+            out.writeLong(heapSize);
+
+            for (byte[] category : categories) {
+                writeBytes(out, category);
+            }
+            pad(out, columnsOffset - dictionaryOffset - dictionarySize);
+
+            for (int slot = 0; slot < n; slot++) {
+                out.writeInt(store.idAt(slot));
+            }
+            for (int slot = 0; slot < n; slot++) {
+                out.writeInt(store.stockAt(slot));
+            }
+            for (int slot = 0; slot < n; slot++) {
+                out.writeInt(store.categoryCodeAt(slot));
+            }
+            for (int position = 0; position < n; position++) {
+                out.writeInt(store.slotInIdOrder(position));
+            }
+            for (int position = 0; position < n; position++) {
+                out.writeInt(store.sortedIdAt(position));
+            }
+            for (int slot = 0; slot < n; slot++) {
+                out.writeDouble(store.priceAt(slot));
+            }
+            for (int slot = 0; slot < n; slot++) {
+                out.writeDouble(store.ratingAt(slot));
+            }
+            for (long offset : nameOffsets) {
+                out.writeLong(offset);
+            }
+            for (long offset : lowerNameOffsets) {
+                out.writeLong(offset);
+            }
+            for (long offset : descriptionOffsets) {
+                out.writeLong(offset);
+            }
+
+            long written = 0;
+            for (int slot = 0; slot < n; slot++) {
+                pad(out, nameOffsets[slot] - written);
+                written = nameOffsets[slot] + writeString(out, store.nameAt(slot));
+                pad(out, lowerNameOffsets[slot] - written);
+                written = lowerNameOffsets[slot] + writeLowerName(out, store.lowerNameAt(slot));
+                pad(out, descriptionOffsets[slot] - written);
+                written = descriptionOffsets[slot] + writeString(out, store.descriptionAt(slot));
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Number of products in the catalog
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Build the product stored at a slot
+     */
+    public Product product(int slot) {
+        return new Product(ids.get(slot), heapString(nameOffsets.get(slot)),
+                           categoryDictionary[categoryCodes.get(slot)], prices.get(slot),
+                           heapString(descriptionOffsets.get(slot)), stock.get(slot), ratings.get(slot));
+    }
+
+    /**
+     * Find a product by ID with binary search over the precomputed sorted IDs
+     * @return The product, or null if not found
+     */
+    public Product findById(int productId) {
+        int left = 0;
+        int right = size - 1;
+        while (left <= right) {
+            int mid = (left + right) >>> 1;
+            int midProductId = sortedIds.get(mid);
+            if (midProductId == productId) {
+                return product(idOrder.get(mid));
+            } else if (midProductId < productId) {
+                left = mid + 1;
+            } else {
+                right = mid - 1;
+            }
+        }
+        return null;
+    }
+
+    public int idAt(int slot) {
+        return ids.get(slot);
+    }
+
+    public double priceAt(int slot) {
+        return prices.get(slot);
+    }
+
+    public int stockAt(int slot) {
+        return stock.get(slot);
+    }
+
+    public double ratingAt(int slot) {
+        return ratings.get(slot);
+    }
+
+    public String categoryAt(int slot) {
+        return categoryDictionary[categoryCodes.get(slot)];
+    }
+
+    public String nameAt(int slot) {
+        return heapString(nameOffsets.get(slot));
+    }
+
+    public String descriptionAt(int slot) {
+        return heapString(descriptionOffsets.get(slot));
+    }
+
+    int categoryCodeAt(int slot) {
+        return categoryCodes.get(slot);
+    }
+
+    int sortedIdAt(int position) {
+        return sortedIds.get(position);
+    }
+
+    int slotInIdOrder(int position) {
+        return idOrder.get(position);
+    }
+
+    // Lowercased names, read in place for ProductStore's name scans
+
+    int lowerNameLength(int slot) {
+        long offset = lowerNameOffsets.get(slot);
+        int header = heapSegments[segment(offset)].getInt(segmentPosition(offset));
+        return header >= 0 ? header : ~header;
+    }
+
+    char lowerNameCharAt(int slot, int index) {
+        long offset = lowerNameOffsets.get(slot);
+        ByteBuffer segment = heapSegments[segment(offset)];
+        int position = segmentPosition(offset);
+        if (segment.getInt(position) >= 0) {
+            return (char) segment.get(position + 4 + index);
+        }
+        return segment.getChar(position + 4 + 2 * index);
+    }
+
+    String lowerNameAt(int slot) {
+        long offset = lowerNameOffsets.get(slot);
+        ByteBuffer segment = heapSegments[segment(offset)];
+        int position = segmentPosition(offset);
+        int header = segment.getInt(position);
+        if (header >= 0) {
+            byte[] bytes = new byte[header];
+            ByteBuffer view = segment.duplicate();
+            view.position(position + 4);
+            view.get(bytes);
+            return new String(bytes, StandardCharsets.US_ASCII);
+        }
+        char[] chars = new char[~header];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = segment.getChar(position + 4 + 2 * i);
+        }
+        return new String(chars);
+    }
+
+    boolean lowerNameMatches(int slot, NameMatcher matcher) {
+        long offset = lowerNameOffsets.get(slot);
+        ByteBuffer segment = heapSegments[segment(offset)];
+        int position = segmentPosition(offset);
+        int header = segment.getInt(position);
+        if (header >= 0) {
+            return matcher.matches(segment, position + 4, position + 4 + header);
+        }
+        return matcher.matchesChars(segment, position + 4, ~header);
+    }
+
+    /**
+     * Materialize every product; ProductSearchService(MappedCatalog, boolean) does not need this
+     */
+    public Product[] toProducts() {
+        Product[] products = new Product[size];
+        for (int slot = 0; slot < size; slot++) {
+            products[slot] = product(slot);
+        }
+        return products;
+    }
+
+    /**
+     * Close the file; the mapping itself is released when it is garbage collected
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // Heap copies of the columns for the indexes ProductStore's callers build; each
+    // reads a duplicate so the shared buffers' positions never move
+
+    int[] idColumn() {
+        return copy(ids);
+    }
+
+    int[] idOrderColumn() {
+        return copy(idOrder);
+    }
+
+    int[] sortedIdColumn() {
+        return copy(sortedIds);
+    }
+
+    double[] priceColumn() {
+        return copy(prices);
+    }
+
+    String[] categoryDictionary() {
+        return categoryDictionary.clone();
+    }
+
+    private static int[] copy(IntBuffer column) {
+        int[] values = new int[column.capacity()];
+        column.duplicate().get(values);
+        return values;
+    }
+
+    private static double[] copy(DoubleBuffer column) {
+        double[] values = new double[column.capacity()];
+        column.duplicate().get(values);
+        return values;
+    }
+
+    private ByteBuffer map(long position, long length) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+    }
+
+    private static int segment(long offset) {
+        return (int) (offset / HEAP_SEGMENT);
+    }
+
+    private static int segmentPosition(long offset) {
+        return (int) (offset % HEAP_SEGMENT);
+    }
+
+    private String heapString(long offset) {
+        ByteBuffer segment = heapSegments[segment(offset)];
+        int position = segmentPosition(offset);
+        int length = segment.getInt(position);
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        // Duplicate so concurrent readers never share a buffer position
+        ByteBuffer view = segment.duplicate();
+        view.position(position + 4);
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Offset at which a string is stored: moved to the next segment if it would cross one
+     */
+    private static long placeString(long offset, String value) {
+        return placeBytes(offset, utf8Length(value));
+    }
+
+    /**
+     * Offset at which a string of the given UTF-8 length is stored
+     */
+    static long placeBytes(long offset, long length) {
+        long end = offset + 4 + length;
+        if (offset / HEAP_SEGMENT != (end - 1) / HEAP_SEGMENT) {
+            return (offset / HEAP_SEGMENT + 1) * HEAP_SEGMENT;
+        }
+        return offset;
+    }
+
+    /**
+     * Write a string in heap format and return the bytes written
+     */
+    private static long writeString(DataOutputStream out, String value) throws IOException {
+        return writeBytes(out, value == null ? null : value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Heap bytes of a lowercased name after its length: one per char when ASCII, two otherwise
+     */
+    static long lowerNameBytes(String lowerName) {
+        for (int i = 0; i < lowerName.length(); i++) {
+            if (lowerName.charAt(i) >= 0x80) {
+                return 2L * lowerName.length();
+            }
+        }
+        return lowerName.length();
+    }
+
+    /**
+     * Write a lowercased name in heap format and return the bytes written
+     */
+    private static long writeLowerName(DataOutputStream out, String lowerName) throws IOException {
+        long bytes = lowerNameBytes(lowerName);
+        if (bytes == lowerName.length()) {
+            out.writeInt(lowerName.length());
+            out.writeBytes(lowerName);
+        } else {
+            out.writeInt(~lowerName.length());
+            out.writeChars(lowerName);
+        }
+        return 4 + bytes;
+    }
+
+    private static long writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        if (bytes == null) {
+            out.writeInt(-1);
+            return 4;
+        }
+        out.writeInt(bytes.length);
+        out.write(bytes);
+        return 4L + bytes.length;
+    }
+
+    /**
+     * UTF-8 length of a string without encoding it; 0 for null
+     */
+    private static long utf8Length(String value) {
+        if (value == null) {
+            return 0;
+        }
+        long length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                // Unpaired surrogates are encoded as '?'
+                length += 1;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private static void pad(DataOutputStream out, long count) throws IOException {
+        for (long i = 0; i < count; i++) {
+            out.write(0);
+        }
+    }
+
+    static long align8(long offset) {
+        return (offset + 7) & ~7L;
+    }
+}
@@ -0,0 +1,323 @@
+package com.example.search;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * NameAutocompleter - search-as-you-type completions of product names
+ * Lowercased names are stored in a radix trie: chains of single-child nodes are
+ * merged into one edge whose label lives in a shared char array, and the nodes are
+ * numbered breadth-first so each node's children are adjacent. Every node also
+ * keeps the best rank found anywhere below it, so the top N completions of a prefix
+ * are found best-first without looking at the rest of the subtree
+ * Immutable after construction; any number of threads can query one instance
+ */
+public class NameAutocompleter {
+
+    private static final Product[] NO_PRODUCTS = new Product[0];
+    private static final int[] NO_SLOTS = new int[0];
+
+    private final ProductStore store;
+
+    // Radix trie in breadth-first order; node 0 is the root with an empty label.
+    // Children of node k are childStart[k] to childStart[k + 1] - 1, sorted by first label character
+    private final char[] labelHeap;
+    private final int[] labelStart;
+    private final int[] labelLength;
+    private final int[] childStart;
+    // Names ending exactly at node k are entries entryFrom[k] to entryTo[k] - 1, best rank first
+    private final int[] entryFrom;
+    private final int[] entryTo;
+    private final int[] bestRank;
+
+    // Entries in name order; rank 0 is the best product under the ranking order
+    private final int[] entrySlots;
+    private final int[] entryRanks;
+
+    /**
+     * Build completions over products, best rated first
+     */
+    public NameAutocompleter(Product[] products) {
+        this(new ProductStore(products), ProductComparators.BY_RATING);
+    }
+
+    /**
+     * Build completions over products
+     * @param products Products to complete
+     * @param order Ranking of completions, best first, e.g. ProductComparators.BY_RATING
+     */
+    public NameAutocompleter(Product[] products, Comparator<Product> order) {
+        this(new ProductStore(products), order);
+    }
+
+    /**
+     * Build completions over a columnar store
+     */
+    NameAutocompleter(final ProductStore store, final Comparator<Product> order) {
+        this.store = store;
+        int n = store.size();
+
+        // Rank every slot under the ranking order; rows are built once for the sort
+        final Product[] rows = store.allRows();
+        Integer[] byRank = new Integer[n];
+        for (int slot = 0; slot < n; slot++) {
+            byRank[slot] = slot;
+        }
+        Arrays.sort(byRank, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer s1, Integer s2) {
+                return order.compare(rows[s1], rows[s2]);
+            }
+        });
+        final int[] rankOf = new int[n];
+        for (int rank = 0; rank < n; rank++) {
+            rankOf[byRank[rank]] = rank;
+        }
+
+        // Entries sorted by name, equal names by rank, so each trie node's entries are contiguous
+        final String[] names = new String[n];
+        Integer[] byName = new Integer[n];
+        for (int slot = 0; slot < n; slot++) {
+            names[slot] = store.lowerNameAt(slot);
+            byName[slot] = slot;
+        }
+        Arrays.sort(byName, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer s1, Integer s2) {
+                int result = names[s1].compareTo(names[s2]);
+                return result != 0 ? result : Integer.compare(rankOf[s1], rankOf[s2]);
+            }
+        });
+        this.entrySlots = new int[n];
+        this.entryRanks = new int[n];
+        String[] sortedNames = new String[n];
+        for (int i = 0; i < n; i++) {
+            entrySlots[i] = byName[i];
+            entryRanks[i] = rankOf[byName[i]];
+            sortedNames[i] = names[byName[i]];
+        }
+
+        // Breadth-first build: queue position is the node number. Each queued node covers
+        // the entries [from, to) whose names share its path, which is depth characters long
+        int capacity = 2 * n + 1;
+        int[] from = new int[capacity];
+        int[] to = new int[capacity];
+        int[] depth = new int[capacity];
+        int[] starts = new int[capacity];
+        int[] lengths = new int[capacity];
+        StringBuilder heap = new StringBuilder();
+        int[] children = new int[capacity + 1];
+        int[] entryEnds = new int[capacity];
+        to[0] = n;
+        int tail = 1;
+        int nodeCount = 0;
+        for (int node = 0; node < tail; node++) {
+            nodeCount = node + 1;
+            int d = depth[node];
+            int i = from[node];
+            while (i < to[node] && sortedNames[i].length() == d) {
+                i++;
+            }
+            entryEnds[node] = i;
+            children[node] = tail;
+            while (i < to[node]) {
+                char c = sortedNames[i].charAt(d);
+                int end = i + 1;
+                while (end < to[node] && sortedNames[end].charAt(d) == c) {
+                    end++;
+                }
+                // Names are sorted, so the group's common prefix is that of its first and last name
+                String first = sortedNames[i];
+                String last = sortedNames[end - 1];
+                int common = d + 1;
+                int limit = Math.min(first.length(), last.length());
+                while (common < limit && first.charAt(common) == last.charAt(common)) {
+                    common++;
+                }
+                from[tail] = i;
+                to[tail] = end;
+                depth[tail] = common;
+                starts[tail] = heap.length();
+                lengths[tail] = common - d;
+                heap.append(first, d, common);
+                tail++;
+                i = end;
+            }
+        }
+        children[nodeCount] = tail;
+
+        this.labelHeap = heap.toString().toCharArray();
+        this.labelStart = Arrays.copyOf(starts, nodeCount);
+        this.labelLength = Arrays.copyOf(lengths, nodeCount);
+        this.childStart = Arrays.copyOf(children, nodeCount + 1);
+        this.entryFrom = Arrays.copyOf(from, nodeCount);
+        this.entryTo = Arrays.copyOf(entryEnds, nodeCount);
+        this.bestRank = new int[nodeCount];
+        // Children are numbered after their parent, so a reverse sweep sees them first
+        for (int node = nodeCount - 1; node >= 0; node--) {
+            int best = entryTo[node] > entryFrom[node] ? entryRanks[entryFrom[node]] : Integer.MAX_VALUE;
+            for (int child = childStart[node]; child < childStart[node + 1]; child++) {
+                best = Math.min(best, bestRank[child]);
+            }
+            bestRank[node] = best;
+        }
+    }
+
+    /**
+     * Top completions of a prefix
+     * @param prefix Typed text, matched case-insensitively against the start of names
+     * @param limit Maximum number of completions
+     * @return Products whose name starts with the prefix, best ranked first
+     */
+    public Product[] complete(String prefix, int limit) {
+        int[] slots = completeSlots(prefix, limit, null);
+        return slots.length == 0 ? NO_PRODUCTS : store.rows(slots);
+    }
+
+    /**
+     * Number of trie nodes, a measure of the structure's size
+     */
+    public int nodeCount() {
+        return bestRank.length;
+    }
+
+    /**
+     * Top completions of a prefix as store slots
+     * @param visited If not null, visited[0] receives the number of trie nodes examined
+     */
+    int[] completeSlots(String prefix, int limit, int[] visited) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit must not be negative: " + limit);
+        }
+        String key = ProductStore.normalizeName(prefix);
+        int[] examined = new int[1];
+        int node = descend(key, examined);
+        if (node < 0 || limit == 0) {
+            if (visited != null) {
+                visited[0] = examined[0];
+            }
+            return NO_SLOTS;
+        }
+
+        // Best-first walk: the heap holds nodes keyed by the best rank below them and
+        // single entries keyed by their own rank, packed as (rank << 32) | (id << 1 | isEntry)
+        long[] heap = new long[16];
+        int size = 0;
+        heap[size++] = pack(bestRank[node], node, false);
+        int[] slots = new int[Math.min(limit, 16)];
+        int count = 0;
+        while (size > 0 && count < limit) {
+            long top = heap[0];
+            heap[0] = heap[--size];
+            siftDown(heap, size);
+            int id = (int) (top & 0xFFFFFFFFL) >>> 1;
+            if ((top & 1) != 0) {
+                if (count == slots.length) {
+                    slots = Arrays.copyOf(slots, Math.min(limit, count * 2));
+                }
+                slots[count++] = entrySlots[id];
+                continue;
+            }
+
+            examined[0]++;
+            int needed = entryTo[id] - entryFrom[id] + childStart[id + 1] - childStart[id];
+            if (size + needed > heap.length) {
+                heap = Arrays.copyOf(heap, Math.max(heap.length * 2, size + needed));
+            }
+            for (int entry = entryFrom[id]; entry < entryTo[id]; entry++) {
+                heap[size] = pack(entryRanks[entry], entry, true);
+                siftUp(heap, size++);
+            }
+            for (int child = childStart[id]; child < childStart[id + 1]; child++) {
+                heap[size] = pack(bestRank[child], child, false);
+                siftUp(heap, size++);
+            }
+        }
+        if (visited != null) {
+            visited[0] = examined[0];
+        }
+        return count == slots.length ? slots : Arrays.copyOf(slots, count);
+    }
+
+    /**
+     * Node whose subtree holds exactly the names starting with key, or -1
+     */
+    private int descend(String key, int[] examined) {
+        int node = 0;
+        int matched = 0;
+        while (matched < key.length()) {
+            examined[0]++;
+            // Children are sorted by their first label character
+            char c = key.charAt(matched);
+            int low = childStart[node];
+            int high = childStart[node + 1] - 1;
+            int child = -1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char first = labelHeap[labelStart[mid]];
+                if (first < c) {
+                    low = mid + 1;
+                } else if (first > c) {
+                    high = mid - 1;
+                } else {
+                    child = mid;
+                    break;
+                }
+            }
+            if (child < 0) {
+                return -1;
+            }
+            int start = labelStart[child];
+            int length = Math.min(labelLength[child], key.length() - matched);
+            for (int i = 1; i < length; i++) {
+                if (labelHeap[start + i] != key.charAt(matched + i)) {
+                    return -1;
+                }
+            }
+            // The key may end inside the label; every name below still starts with it
+            matched += length;
+            node = child;
+        }
+        return node;
+    }
+
+    private static long pack(int rank, int id, boolean entry) {
+        return ((long) rank << 32) | ((long) id << 1) | (entry ? 1 : 0);
+    }
+
+    private static void siftUp(long[] heap, int index) {
+        long value = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent] <= value) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = value;
+    }
+
+    private static void siftDown(long[] heap, int size) {
+        if (size == 0) {
+            return;
+        }
+        long value = heap[0];
+        int index = 0;
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (heap[child] >= value) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = value;
+    }
+}
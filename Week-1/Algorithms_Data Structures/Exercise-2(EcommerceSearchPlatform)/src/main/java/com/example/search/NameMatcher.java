@@ -0,0 +1,248 @@
+package com.example.search;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * NameMatcher - substring matcher compiled once per search term
+ * The term is lowercased once, like the names in ProductStore, so matching is an
+ * exact comparison against the pre-normalized name heap. Terms of at least
+ * HORSPOOL_MIN_LENGTH characters use Boyer-Moore-Horspool: the last character of the
+ * window picks how far the window may slide, skipping most positions of a name.
+ * Shorter terms slide one position at a time, because each Horspool step waits on a
+ * table lookup and small shifts do not pay for that
+ * ASCII terms also carry a byte form for the ASCII name heap, where every name
+ * character is one byte; a non-ASCII term can never match that heap. The ByteBuffer
+ * forms search the lowercased names of a MappedCatalog file in place
+ * Immutable; one matcher can be shared by the threads of a parallel scan, and held
+ * by a caller to run the same name search repeatedly without allocating
+ */
+public final class NameMatcher {
+
+    // Shift table size; the table is indexed by the low byte of a character
+    private static final int TABLE_SIZE = 256;
+    // Shortest term searched with Horspool shifts
+    private static final int HORSPOOL_MIN_LENGTH = 4;
+
+    private final char[] pattern;
+    private final byte[] asciiPattern;
+    private final int[] shift;
+    private final boolean blank;
+
+    private NameMatcher(String lowerTerm, boolean blank) {
+        this.blank = blank;
+        this.pattern = lowerTerm.toCharArray();
+        byte[] bytes = new byte[pattern.length];
+        boolean ascii = true;
+        for (int i = 0; i < pattern.length; i++) {
+            ascii &= pattern[i] < 0x80;
+            bytes[i] = (byte) pattern[i];
+        }
+        this.asciiPattern = ascii ? bytes : null;
+
+        // Horspool shifts: distance from the last occurrence of a character (excluding
+        // the final position) to the end of the pattern. Characters sharing a low byte
+        // share a slot, and the smallest shift among them is kept, which stays safe
+        this.shift = new int[TABLE_SIZE];
+        Arrays.fill(shift, Math.max(1, pattern.length));
+        for (int i = 0; i < pattern.length - 1; i++) {
+            shift[pattern[i] & 0xFF] = pattern.length - 1 - i;
+        }
+    }
+
+    /**
+     * Compile a matcher for a search term; the term is lowercased as ProductStore.normalizeName does
+     */
+    public static NameMatcher compile(String searchTerm) {
+        return new NameMatcher(ProductStore.normalizeName(searchTerm),
+                               searchTerm == null || searchTerm.trim().isEmpty());
+    }
+
+    /**
+     * Whether the search term was null or blank; name searches match nothing for it
+     */
+    public boolean isBlank() {
+        return blank;
+    }
+
+    /**
+     * Length of the lowercased term
+     */
+    public int length() {
+        return pattern.length;
+    }
+
+    /**
+     * Find the term in an ASCII heap range [from, to)
+     */
+    boolean matches(byte[] heap, int from, int to) {
+        return indexOf(heap, from, to) >= 0;
+    }
+
+    /**
+     * Position of the first occurrence of the term in an ASCII heap range [from, to), or -1
+     */
+    int indexOf(byte[] heap, int from, int to) {
+        byte[] p = asciiPattern;
+        if (p == null) {
+            return -1;
+        }
+        int m = p.length;
+        if (m == 0) {
+            return from <= to ? from : -1;
+        }
+        int last = m - 1;
+        byte end = p[last];
+        if (m < HORSPOOL_MIN_LENGTH) {
+            byte first = p[0];
+            for (int start = from; start <= to - m; start++) {
+                if (heap[start] == first && heap[start + last] == end
+                        && (m < 3 || heap[start + 1] == p[1])) {
+                    return start;
+                }
+            }
+            return -1;
+        }
+        int[] skip = shift;
+        for (int i = from + last; i < to; i += skip[heap[i] & 0xFF]) {
+            if (heap[i] != end) {
+                continue;
+            }
+            int start = i - last;
+            int j = 0;
+            while (j < last && heap[start + j] == p[j]) {
+                j++;
+            }
+            if (j == last) {
+                return start;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Find the term in a char heap range [from, to)
+     */
+    boolean matches(char[] heap, int from, int to) {
+        return indexOf(heap, from, to) >= 0;
+    }
+
+    /**
+     * Position of the first occurrence of the term in a char heap range [from, to), or -1
+     */
+    int indexOf(char[] heap, int from, int to) {
+        char[] p = pattern;
+        int m = p.length;
+        if (m == 0) {
+            return from <= to ? from : -1;
+        }
+        int last = m - 1;
+        char end = p[last];
+        if (m < HORSPOOL_MIN_LENGTH) {
+            char first = p[0];
+            for (int start = from; start <= to - m; start++) {
+                if (heap[start] == first && heap[start + last] == end
+                        && (m < 3 || heap[start + 1] == p[1])) {
+                    return start;
+                }
+            }
+            return -1;
+        }
+        int[] skip = shift;
+        for (int i = from + last; i < to; i += skip[heap[i] & 0xFF]) {
+            if (heap[i] != end) {
+                continue;
+            }
+            int start = i - last;
+            int j = 0;
+            while (j < last && heap[start + j] == p[j]) {
+                j++;
+            }
+            if (j == last) {
+                return start;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Find the term in ASCII bytes [from, to) of a buffer
+     */
+    boolean matches(ByteBuffer heap, int from, int to) {
+        byte[] p = asciiPattern;
+        if (p == null) {
+            return false;
+        }
+        int m = p.length;
+        if (m == 0) {
+            return from <= to;
+        }
+        int last = m - 1;
+        byte end = p[last];
+        if (m < HORSPOOL_MIN_LENGTH) {
+            byte first = p[0];
+            for (int start = from; start <= to - m; start++) {
+                if (heap.get(start) == first && heap.get(start + last) == end
+                        && (m < 3 || heap.get(start + 1) == p[1])) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        int[] skip = shift;
+        for (int i = from + last; i < to; ) {
+            byte b = heap.get(i);
+            if (b == end) {
+                int start = i - last;
+                int j = 0;
+                while (j < last && heap.get(start + j) == p[j]) {
+                    j++;
+                }
+                if (j == last) {
+                    return true;
+                }
+            }
+            i += skip[b & 0xFF];
+        }
+        return false;
+    }
+
+    /**
+     * Find the term in length big-endian UTF-16 chars of a buffer, starting at byte from
+     */
+    boolean matchesChars(ByteBuffer heap, int from, int length) {
+        char[] p = pattern;
+        int m = p.length;
+        if (m == 0) {
+            return length >= 0;
+        }
+        int last = m - 1;
+        char end = p[last];
+        if (m < HORSPOOL_MIN_LENGTH) {
+            char first = p[0];
+            for (int start = 0; start <= length - m; start++) {
+                if (heap.getChar(from + 2 * start) == first && heap.getChar(from + 2 * (start + last)) == end
+                        && (m < 3 || heap.getChar(from + 2 * (start + 1)) == p[1])) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        int[] skip = shift;
+        for (int i = last; i < length; ) {
+            char c = heap.getChar(from + 2 * i);
+            if (c == end) {
+                int start = i - last;
+                int j = 0;
+                while (j < last && heap.getChar(from + 2 * (start + j)) == p[j]) {
+                    j++;
+                }
+                if (j == last) {
+                    return true;
+                }
+            }
+            i += skip[c & 0xFF];
+        }
+        return false;
+    }
+}
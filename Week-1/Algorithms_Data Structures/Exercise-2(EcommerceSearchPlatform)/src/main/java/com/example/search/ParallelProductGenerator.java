@@ -0,0 +1,486 @@
+package com.example.search;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * ParallelProductGenerator - deterministic multi-threaded generation of large test catalogs
+ * Product IDs 1..count are cut into blocks of BLOCK_SIZE rows, and every block draws
+ * from its own SplittableRandom seeded from the catalog seed and the block number.
+ * A row's values therefore depend only on the seed and its ID, never on which thread
+ * generates it or in what order, so any thread count produces identical output
+ * Rows have the same shape and value ranges as ProductDataGenerator.generateRandomProducts,
+ * but are drawn from different streams, so the two catalogs differ for the same seed
+ * Output goes to a Product[], to ProductColumns (no per-row objects), or straight to a
+ * MappedCatalog file, which is written block by block and never held in memory
+ */
+public class ParallelProductGenerator {
+
+    /** Rows drawn from one random stream */
+    public static final int BLOCK_SIZE = 1 << 16;
+    // SplittableRandom's gamma; spreads block numbers before mixing them into a seed
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private static final byte[][] NAME_BYTES = utf8(ProductDataGenerator.PRODUCT_NAMES);
+    // Lowercased sample names as a catalog file stores them: ASCII bytes, or UTF-16 chars
+    // when wide; a row's lowercased name adds a space and its ID, which lowercasing keeps
+    private static final String[] LOWER_NAMES = lowerCase(ProductDataGenerator.PRODUCT_NAMES);
+    private static final boolean[] LOWER_NAME_WIDE = wide(LOWER_NAMES);
+    private static final byte[][] CATEGORY_BYTES = utf8(ProductDataGenerator.CATEGORIES);
+    private static final byte[][] DESCRIPTION_BYTES = utf8(ProductDataGenerator.DESCRIPTIONS);
+
+    private final long seed;
+    private final int threads;
+
+    /**
+     * Constructor - one thread per available processor
+     * @param seed Seed of the catalog; the same seed always gives the same catalog
+     */
+    public ParallelProductGenerator(long seed) {
+        this(seed, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param seed Seed of the catalog; the same seed always gives the same catalog
+     * @param threads Generator threads; does not affect the output
+     */
+    public ParallelProductGenerator(long seed, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Threads must be at least 1: " + threads);
+        }
+        this.seed = seed;
+        this.threads = threads;
+    }
+
+    /**
+     * Generate products with IDs 1..count
+     */
+    public Product[] generateProducts(final int count) {
+        checkCount(count);
+        final Product[] products = new Product[count];
+        forEachBlock(count, new BlockWork() {
+            @Override
+            public void run(int block) {
+                ProductColumns rows = new ProductColumns(blockLength(block, count));
+                generateBlock(block, rows);
+                int first = block * BLOCK_SIZE;
+                for (int i = 0; i < rows.size(); i++) {
+                    products[first + i] = rows.product(i);
+                }
+            }
+        });
+        return products;
+    }
+
+    /**
+     * Generate products with IDs 1..count as primitive columns
+     */
+    public ProductColumns generateColumns(final int count) {
+        checkCount(count);
+        final ProductColumns columns = new ProductColumns(count);
+        forEachBlock(count, new BlockWork() {
+            @Override
+            public void run(int block) {
+                ProductColumns rows = new ProductColumns(blockLength(block, count));
+                generateBlock(block, rows);
+                copy(rows, columns, block * BLOCK_SIZE);
+            }
+        });
+        return columns;
+    }
+
+    /**
+     * Generate products with IDs 1..count directly into a catalog file for MappedCatalog.open
+     * Blocks are generated twice: once to size their part of the string heap, then again
+     * to write their rows at fixed file positions, so memory stays at a few blocks per thread
+     * @param count Number of products
+     * @param file File to create or overwrite
+     */
+    public void writeCatalog(final int count, Path file) throws IOException {
+        checkCount(count);
+        final int blocks = blockCount(count);
+
+        // Pass 1: unpadded heap bytes of each block
+        final long[] heapSizes = new long[blocks];
+        forEachBlock(count, new BlockWork() {
+            @Override
+            public void run(int block) {
+                ProductColumns rows = new ProductColumns(blockLength(block, count));
+                generateBlock(block, rows);
+                heapSizes[block] = heapBytes(rows);
+            }
+        });
+
+        // Heap start of each block; a block that straddles a heap segment boundary is laid
+        // out row by row, since strings are moved past the boundary as MappedCatalog.write does
+        final long[] heapStarts = new long[blocks + 1];
+        for (int block = 0; block < blocks; block++) {
+            long start = heapStarts[block];
+            long end = start + heapSizes[block];
+            if (start / MappedCatalog.HEAP_SEGMENT != (end - 1) / MappedCatalog.HEAP_SEGMENT) {
+                ProductColumns rows = new ProductColumns(blockLength(block, count));
+                generateBlock(block, rows);
+                end = layOut(rows, start, null, null, null);
+            }
+            heapStarts[block + 1] = end;
+        }
+
+        long dictionarySize = 0;
+        for (byte[] category : CATEGORY_BYTES) {
+            dictionarySize += 4 + category.length;
+        }
+        long dictionaryOffset = MappedCatalog.HEADER_SIZE;
+        final long columnsOffset = MappedCatalog.align8(dictionaryOffset + dictionarySize);
+        final long heapOffset = columnsOffset + MappedCatalog.COLUMNS_BYTES_PER_PRODUCT * count;
+
+        final FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            ByteBuffer head = ByteBuffer.allocate((int) columnsOffset);
+            head.putInt(MappedCatalog.MAGIC);
+            head.putInt(MappedCatalog.FORMAT_VERSION);
+            head.putInt(count);
+            head.putInt(CATEGORY_BYTES.length);
+            head.putLong(dictionaryOffset);
+            head.putLong(columnsOffset);
+            head.putLong(heapOffset);
+            head.putLong(heapStarts[blocks]);
+            for (byte[] category : CATEGORY_BYTES) {
+                head.putInt(category.length);
+                head.put(category);
+            }
+            head.clear();
+            writeFully(channel, head, 0);
+
+            // Pass 2: each block writes its slice of every column and its part of the heap
+            try {
+                forEachBlock(count, new BlockWork() {
+                    @Override
+                    public void run(int block) throws IOException {
+                        ProductColumns rows = new ProductColumns(blockLength(block, count));
+                        generateBlock(block, rows);
+                        writeBlock(channel, block, rows, count, columnsOffset, heapOffset,
+                                   heapStarts[block], heapStarts[block + 1]);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Fill rows with the products of a block; rows must hold blockLength(block) rows
+     */
+    private void generateBlock(int block, ProductColumns rows) {
+        SplittableRandom random = new SplittableRandom(blockSeed(seed, block));
+        int firstId = block * BLOCK_SIZE + 1;
+        for (int i = 0; i < rows.size(); i++) {
+            rows.ids[i] = firstId + i;
+            rows.nameCodes[i] = (byte) random.nextInt(NAME_BYTES.length);
+            rows.categoryCodes[i] = (byte) random.nextInt(CATEGORY_BYTES.length);
+            rows.prices[i] = 50.0 + (random.nextDouble() * 2950.0); // Price between $50-$3000
+            rows.descriptionCodes[i] = (byte) random.nextInt(DESCRIPTION_BYTES.length);
+            rows.stock[i] = random.nextInt(100) + 1; // Stock between 1-100
+            rows.ratings[i] = 1.0 + (random.nextDouble() * 4.0); // Rating between 1.0-5.0
+        }
+    }
+
+    /**
+     * Write one block's column slices and its heap range [heapStart, heapEnd) at their file positions
+     */
+    private static void writeBlock(FileChannel channel, int block, ProductColumns rows, int count,
+                                   long columnsOffset, long heapOffset, long heapStart, long heapEnd)
+            throws IOException {
+        int m = rows.size();
+        int firstSlot = block * BLOCK_SIZE;
+        long[] nameOffsets = new long[m];
+        long[] lowerNameOffsets = new long[m];
+        long[] descriptionOffsets = new long[m];
+        layOut(rows, heapStart, nameOffsets, lowerNameOffsets, descriptionOffsets);
+
+        // IDs ascend with the slot, so the ID-sorted slots are the identity and the sorted IDs are the IDs
+        int[] categoryCodes = new int[m];
+        int[] idOrder = new int[m];
+        for (int i = 0; i < m; i++) {
+            categoryCodes[i] = rows.categoryCodes[i];
+            idOrder[i] = firstSlot + i;
+        }
+        long intColumn = 4L * count;
+        long longColumn = 8L * count;
+        long position = columnsOffset;
+        ByteBuffer ints = ByteBuffer.allocate(4 * m);
+        writeInts(channel, ints, rows.ids, position + 4L * firstSlot);
+        writeInts(channel, ints, rows.stock, (position += intColumn) + 4L * firstSlot);
+        writeInts(channel, ints, categoryCodes, (position += intColumn) + 4L * firstSlot);
+        writeInts(channel, ints, idOrder, (position += intColumn) + 4L * firstSlot);
+        writeInts(channel, ints, rows.ids, (position += intColumn) + 4L * firstSlot);
+        ByteBuffer longs = ByteBuffer.allocate(8 * m);
+        longs.asDoubleBuffer().put(rows.prices);
+        writeFully(channel, longs, (position += intColumn) + 8L * firstSlot);
+        longs.clear();
+        longs.asDoubleBuffer().put(rows.ratings);
+        writeFully(channel, longs, (position += longColumn) + 8L * firstSlot);
+        longs.clear();
+        longs.asLongBuffer().put(nameOffsets);
+        writeFully(channel, longs, (position += longColumn) + 8L * firstSlot);
+        longs.clear();
+        longs.asLongBuffer().put(lowerNameOffsets);
+        writeFully(channel, longs, (position += longColumn) + 8L * firstSlot);
+        longs.clear();
+        longs.asLongBuffer().put(descriptionOffsets);
+        writeFully(channel, longs, (position += longColumn) + 8L * firstSlot);
+
+        // Heap: [int length][UTF-8 bytes] per string and the lowercased names in
+        // MappedCatalog's format, zero padding where an entry was moved
+        ByteBuffer heap = ByteBuffer.allocate((int) (heapEnd - heapStart));
+        for (int i = 0; i < m; i++) {
+            heap.position((int) (nameOffsets[i] - heapStart));
+            byte[] name = NAME_BYTES[rows.nameCodes[i]];
+            heap.putInt(name.length + 1 + decimalLength(rows.ids[i]));
+            heap.put(name);
+            heap.put((byte) ' ');
+            putDecimal(heap, rows.ids[i]);
+            heap.position((int) (lowerNameOffsets[i] - heapStart));
+            putLowerName(heap, rows.nameCodes[i], rows.ids[i]);
+            heap.position((int) (descriptionOffsets[i] - heapStart));
+            byte[] description = DESCRIPTION_BYTES[rows.descriptionCodes[i]];
+            heap.putInt(description.length);
+            heap.put(description);
+        }
+        heap.clear();
+        writeFully(channel, heap, heapOffset + heapStart);
+    }
+
+    private static void writeInts(FileChannel channel, ByteBuffer buffer, int[] values, long position)
+            throws IOException {
+        buffer.clear();
+        buffer.asIntBuffer().put(values);
+        writeFully(channel, buffer, position);
+    }
+
+    /**
+     * Place a block's strings in heap order from offset, as MappedCatalog.write does
+     * @param nameOffsets If not null, receives each row's name offset
+     * @param lowerNameOffsets If not null, receives each row's lowercased name offset
+     * @param descriptionOffsets If not null, receives each row's description offset
+     * @return Heap offset after the block's last string
+     */
+    private static long layOut(ProductColumns rows, long offset, long[] nameOffsets,
+                               long[] lowerNameOffsets, long[] descriptionOffsets) {
+        long heapSize = offset;
+        for (int i = 0; i < rows.size(); i++) {
+            int nameLength = NAME_BYTES[rows.nameCodes[i]].length + 1 + decimalLength(rows.ids[i]);
+            heapSize = MappedCatalog.placeBytes(heapSize, nameLength);
+            if (nameOffsets != null) {
+                nameOffsets[i] = heapSize;
+            }
+            heapSize += 4 + nameLength;
+            int lowerNameLength = lowerNameBytes(rows, i);
+            heapSize = MappedCatalog.placeBytes(heapSize, lowerNameLength);
+            if (lowerNameOffsets != null) {
+                lowerNameOffsets[i] = heapSize;
+            }
+            heapSize += 4 + lowerNameLength;
+            int descriptionLength = DESCRIPTION_BYTES[rows.descriptionCodes[i]].length;
+            heapSize = MappedCatalog.placeBytes(heapSize, descriptionLength);
+            if (descriptionOffsets != null) {
+                descriptionOffsets[i] = heapSize;
+            }
+            heapSize += 4 + descriptionLength;
+        }
+        return heapSize;
+    }
+
+    /**
+     * Heap bytes of a block's strings without segment padding
+     */
+    private static long heapBytes(ProductColumns rows) {
+        long bytes = 0;
+        for (int i = 0; i < rows.size(); i++) {
+            bytes += 4 + NAME_BYTES[rows.nameCodes[i]].length + 1 + decimalLength(rows.ids[i]);
+            bytes += 4 + lowerNameBytes(rows, i);
+            bytes += 4 + DESCRIPTION_BYTES[rows.descriptionCodes[i]].length;
+        }
+        return bytes;
+    }
+
+    /**
+     * Heap bytes of a row's lowercased name after its length
+     */
+    private static int lowerNameBytes(ProductColumns rows, int i) {
+        int units = LOWER_NAMES[rows.nameCodes[i]].length() + 1 + decimalLength(rows.ids[i]);
+        return LOWER_NAME_WIDE[rows.nameCodes[i]] ? 2 * units : units;
+    }
+
+    /**
+     * Put a row's lowercased name in MappedCatalog's heap format
+     */
+    private static void putLowerName(ByteBuffer heap, int nameCode, int id) {
+        String lowerName = LOWER_NAMES[nameCode];
+        int units = lowerName.length() + 1 + decimalLength(id);
+        if (LOWER_NAME_WIDE[nameCode]) {
+            heap.putInt(~units);
+            String chars = lowerName + " " + id;
+            for (int i = 0; i < chars.length(); i++) {
+                heap.putChar(chars.charAt(i));
+            }
+            return;
+        }
+        heap.putInt(units);
+        for (int i = 0; i < lowerName.length(); i++) {
+            heap.put((byte) lowerName.charAt(i));
+        }
+        heap.put((byte) ' ');
+        putDecimal(heap, id);
+    }
+
+    private static void copy(ProductColumns rows, ProductColumns columns, int first) {
+        int m = rows.size();
+        System.arraycopy(rows.ids, 0, columns.ids, first, m);
+        System.arraycopy(rows.nameCodes, 0, columns.nameCodes, first, m);
+        System.arraycopy(rows.categoryCodes, 0, columns.categoryCodes, first, m);
+        System.arraycopy(rows.descriptionCodes, 0, columns.descriptionCodes, first, m);
+        System.arraycopy(rows.prices, 0, columns.prices, first, m);
+        System.arraycopy(rows.stock, 0, columns.stock, first, m);
+        System.arraycopy(rows.ratings, 0, columns.ratings, first, m);
+    }
+
+    /**
+     * Seed of a block's stream: the block number mixed into the catalog seed
+     * (Stafford's variant 13 of the MurmurHash3 finalizer, as SplittableRandom uses)
+     */
+    static long blockSeed(long seed, int block) {
+        long z = seed + (block + 1) * GOLDEN_GAMMA;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static int blockCount(int count) {
+        return (int) ((count + (long) BLOCK_SIZE - 1) / BLOCK_SIZE);
+    }
+
+    private static int blockLength(int block, int count) {
+        return (int) Math.min(BLOCK_SIZE, count - (long) block * BLOCK_SIZE);
+    }
+
+    private static void checkCount(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Count must not be negative: " + count);
+        }
+    }
+
+    private static int decimalLength(int value) {
+        int length = 1;
+        while (value >= 10) {
+            value /= 10;
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * Put a non-negative int as ASCII digits
+     */
+    private static void putDecimal(ByteBuffer buffer, int value) {
+        int end = buffer.position() + decimalLength(value);
+        for (int i = end - 1; i >= buffer.position(); i--) {
+            buffer.put(i, (byte) ('0' + value % 10));
+            value /= 10;
+        }
+        buffer.position(end);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static String[] lowerCase(String[] values) {
+        String[] lowered = new String[values.length];
+        for (int i = 0; i < values.length; i++) {
+            lowered[i] = ProductStore.normalizeName(values[i]);
+        }
+        return lowered;
+    }
+
+    private static boolean[] wide(String[] lowerNames) {
+        boolean[] wide = new boolean[lowerNames.length];
+        for (int i = 0; i < lowerNames.length; i++) {
+            wide[i] = MappedCatalog.lowerNameBytes(lowerNames[i]) != lowerNames[i].length();
+        }
+        return wide;
+    }
+
+    private static byte[][] utf8(String[] values) {
+        byte[][] bytes = new byte[values.length][];
+        for (int i = 0; i < values.length; i++) {
+            bytes[i] = values[i].getBytes(StandardCharsets.UTF_8);
+        }
+        return bytes;
+    }
+
+    /**
+     * Work done for one block; blocks run concurrently in any order
+     */
+    private interface BlockWork {
+        void run(int block) throws IOException;
+    }
+
+    /**
+     * Run work for every block of a catalog on a pool of the configured size
+     */
+    private void forEachBlock(int count, BlockWork work) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            pool.invoke(new BlockRange(work, 0, blockCount(count)));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Runs [from, to) blocks, splitting while more than one block remains
+     */
+    private static class BlockRange extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final BlockWork work;
+        private final int from;
+        private final int to;
+
+        BlockRange(BlockWork work, int from, int to) {
+            this.work = work;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 1) {
+                if (from < to) {
+                    try {
+                        work.run(from);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new BlockRange(work, from, mid), new BlockRange(work, mid, to));
+        }
+    }
+}
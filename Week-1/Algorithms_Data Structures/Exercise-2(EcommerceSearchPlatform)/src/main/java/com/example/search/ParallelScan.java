@@ -0,0 +1,93 @@
+package com.example.search;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * ParallelScan - fork/join predicate scan over the slots of a product store
+ * The slot range is split in halves until chunks reach the target size; each
+ * chunk collects its matching slots and the halves are concatenated on join,
+ * so results keep ascending slot order exactly like a sequential scan
+ */
+public class ParallelScan {
+
+    // Smallest chunk worth handing to another worker
+    private static final int MIN_CHUNK_SIZE = 8192;
+    // Chunks per worker, so uneven chunks still balance across the pool
+    private static final int CHUNKS_PER_WORKER = 4;
+
+    /**
+     * Predicate over a store slot
+     */
+    public interface SlotPredicate {
+        boolean test(int slot);
+    }
+
+    private ParallelScan() {
+    }
+
+    /**
+     * Collect the slots in [0, size) accepted by the predicate
+     * @param predicate Predicate to evaluate; must be safe to call from several threads
+     * @param size Number of slots to scan
+     * @param pool Pool running the scan
+     * @return Matching slots in ascending order
+     */
+    public static int[] collect(SlotPredicate predicate, int size, ForkJoinPool pool) {
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, size / (pool.getParallelism() * CHUNKS_PER_WORKER));
+        return pool.invoke(new ScanTask(predicate, 0, size, chunkSize));
+    }
+
+    /**
+     * Scans [from, to), splitting while the range is larger than one chunk
+     */
+    private static class ScanTask extends RecursiveTask<int[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final SlotPredicate predicate;
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+
+        ScanTask(SlotPredicate predicate, int from, int to, int chunkSize) {
+            this.predicate = predicate;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (to - from <= chunkSize) {
+                return scanChunk();
+            }
+
+            int mid = (from + to) >>> 1;
+            ScanTask left = new ScanTask(predicate, from, mid, chunkSize);
+            ScanTask right = new ScanTask(predicate, mid, to, chunkSize);
+            left.fork();
+            int[] rightSlots = right.compute();
+            int[] leftSlots = left.join();
+
+            int[] slots = new int[leftSlots.length + rightSlots.length];
+            System.arraycopy(leftSlots, 0, slots, 0, leftSlots.length);
+            System.arraycopy(rightSlots, 0, slots, leftSlots.length, rightSlots.length);
+            return slots;
+        }
+
+        private int[] scanChunk() {
+            int[] hits = new int[Math.min(to - from, 64)];
+            int count = 0;
+            for (int slot = from; slot < to; slot++) {
+                if (predicate.test(slot)) {
+                    if (count == hits.length) {
+                        hits = Arrays.copyOf(hits, Math.min(to - from, count * 2));
+                    }
+                    hits[count++] = slot;
+                }
+            }
+            return count == hits.length ? hits : Arrays.copyOf(hits, count);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.search;
+
+import java.util.Arrays;
+
+/**
+ * PriceIndex - sorted price column with a permutation back into the product array
+ * Range queries binary-search both bounds and copy out only the matching slice
+ * Time Complexity: O(log n + k) per range query, O(n log n) build
+ */
+public class PriceIndex {
+
+    private final double[] sortedPrices;
+    private final int[] order;
+    // Prices at positions >= searchableCount are NaN and never match a range
+    private final int searchableCount;
+
+    /**
+     * Build the index over a price column
+     * @param prices Product prices by slot; the permutation holds these slots
+     */
+    public PriceIndex(double[] prices) {
+        int n = prices.length;
+        int[] slots = new int[n];
+        for (int slot = 0; slot < n; slot++) {
+            slots[slot] = slot;
+        }
+
+        // Stable sort so equal prices keep their original product order
+        mergeSort(slots, new int[n], 0, n, prices);
+
+        this.order = slots;
+        this.sortedPrices = new double[n];
+        int searchable = 0;
+        for (int i = 0; i < n; i++) {
+            sortedPrices[i] = prices[slots[i]];
+            if (!Double.isNaN(sortedPrices[i])) {
+                searchable = i + 1;
+            }
+        }
+        this.searchableCount = searchable;
+    }
+
+    /**
+     * Sort slots[from, to) by price without boxing
+     */
+    private static void mergeSort(int[] slots, int[] buffer, int from, int to, double[] prices) {
+        if (to - from < 2) {
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        mergeSort(slots, buffer, from, mid, prices);
+        mergeSort(slots, buffer, mid, to, prices);
+        if (Double.compare(prices[slots[mid - 1]], prices[slots[mid]]) <= 0) {
+            return;
+        }
+
+        System.arraycopy(slots, from, buffer, from, to - from);
+        int i = from;
+        int j = mid;
+        for (int k = from; k < to; k++) {
+            if (j >= to || (i < mid && Double.compare(prices[buffer[i]], prices[buffer[j]]) <= 0)) {
+                slots[k] = buffer[i++];
+            } else {
+                slots[k] = buffer[j++];
+            }
+        }
+    }
+
+    /**
+     * First position whose price is >= minPrice
+     */
+    private int lowerBound(double minPrice, int[] steps) {
+        int low = 0;
+        int high = searchableCount;
+        while (low < high) {
+            steps[0]++;
+            int mid = (low + high) >>> 1;
+            if (sortedPrices[mid] < minPrice) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * First position whose price is > maxPrice
+     */
+    private int upperBound(double maxPrice, int[] steps) {
+        int low = 0;
+        int high = searchableCount;
+        while (low < high) {
+            steps[0]++;
+            int mid = (low + high) >>> 1;
+            if (sortedPrices[mid] <= maxPrice) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Find the products priced within [minPrice, maxPrice]
+     * @return Slots of matching products in ascending price order
+     */
+    public int[] range(double minPrice, double maxPrice) {
+        return range(minPrice, maxPrice, new int[1]);
+    }
+
+    /**
+     * Find the products priced within [minPrice, maxPrice]
+     * @param steps Single-element counter receiving the number of binary search steps
+     * @return Slots of matching products in ascending price order
+     */
+    public int[] range(double minPrice, double maxPrice, int[] steps) {
+        steps[0] = 0;
+        if (!(minPrice <= maxPrice)) {
+            return new int[0];
+        }
+        int from = lowerBound(minPrice, steps);
+        int to = upperBound(maxPrice, steps);
+        return from < to ? Arrays.copyOfRange(order, from, to) : new int[0];
+    }
+
+    /**
+     * Stream the products priced within [minPrice, maxPrice] to a visitor, without copying
+     * their slots, in the order range returns them; the visitor is given a null product
+     * @param steps Single-element counter receiving the number of binary search steps
+     * @param visitor Receives matching slots; returning false stops the walk
+     */
+    public void visitRange(double minPrice, double maxPrice, int[] steps, ProductVisitor visitor) {
+        steps[0] = 0;
+        if (!(minPrice <= maxPrice)) {
+            return;
+        }
+        int from = lowerBound(minPrice, steps);
+        int to = upperBound(maxPrice, steps);
+        for (int i = from; i < to; i++) {
+            if (!visitor.visit(order[i], null)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Number of products priced within [minPrice, maxPrice], without copying them
+     */
+    public int count(double minPrice, double maxPrice) {
+        if (!(minPrice <= maxPrice)) {
+            return 0;
+        }
+        int[] steps = new int[1];
+        return Math.max(0, upperBound(maxPrice, steps) - lowerBound(minPrice, steps));
+    }
+
+    /**
+     * Bitmap of the products priced within [minPrice, maxPrice]
+     */
+    public ProductBitmap rangeBitmap(double minPrice, double maxPrice) {
+        int[] slots = range(minPrice, maxPrice);
+        Arrays.sort(slots);
+        return ProductBitmap.fromSortedSlots(slots);
+    }
+
+    /**
+     * Number of indexed prices
+     */
+    public int size() {
+        return order.length;
+    }
+}
@@ -7,6 +7,8 @@ package com.example.search;
 public class Product {
     private int productId;
     private String productName;
+    // Lowercased productName, computed on first use and cleared when the name changes
+    private String lowerName;
     private String category;
     private double price;
     private String description;
@@ -89,6 +91,7 @@ public class Product {
     
     public void setProductName(String productName) {
         this.productName = productName;
+        this.lowerName = null;
     }
     
     public void setCategory(String category) {
@@ -113,9 +116,23 @@ public class Product {
     
     /**
      * Check if product name contains search term (case-insensitive)
+     * The term is lowercased with ProductStore.normalizeName, so a null term counts as empty
      */
     public boolean containsInName(String searchTerm) {
-        return productName.toLowerCase().contains(searchTerm.toLowerCase());
+        return nameContainsLower(ProductStore.normalizeName(searchTerm));
+    }
+    
+    /**
+     * Check if the lowercased name contains a term already lowercased with ProductStore.normalizeName
+     * The lowercased name is kept between calls, so a caller lowering the term once converts nothing
+     */
+    boolean nameContainsLower(String lowerTerm) {
+        String lower = lowerName;
+        if (lower == null) {
+            lower = ProductStore.normalizeName(productName);
+            lowerName = lower;
+        }
+        return lower.contains(lowerTerm);
     }
     
     /**
@@ -226,6 +243,7 @@ public class Product {
     public void updateProduct(String name, String category, double price, 
                             String description, int stock, double rating) {
         this.productName = name;
+        this.lowerName = null;
         this.category = category;
         this.price = price;
         this.description = description;
@@ -0,0 +1,385 @@
+package com.example.search;
+
+import java.util.Arrays;
+
+/**
+ * ProductBitmap - immutable compressed set of product array slots
+ * Slots are split into chunks of 65,536; a sparse chunk is stored as a sorted
+ * char[] and a dense chunk as a long[] bitmap, so AND/OR run word by word
+ * on dense data without paying 8KB per chunk for sparse data
+ */
+public class ProductBitmap {
+
+    private static final int CHUNK_BITS = 16;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int WORDS_PER_CHUNK = CHUNK_SIZE / 64;
+    // Above this many entries a sorted array is larger than the bitmap
+    private static final int ARRAY_LIMIT = 4096;
+
+    private static final ProductBitmap EMPTY = new ProductBitmap(new int[0], new Object[0], 0);
+
+    private final int[] chunkKeys;
+    // Each container is either a char[] (sorted low bits) or a long[] (bitmap words)
+    private final Object[] containers;
+    private final int cardinality;
+
+    private ProductBitmap(int[] chunkKeys, Object[] containers, int cardinality) {
+        this.chunkKeys = chunkKeys;
+        this.containers = containers;
+        this.cardinality = cardinality;
+    }
+
+    /**
+     * Empty bitmap
+     */
+    public static ProductBitmap empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Bitmap holding every slot in [0, size)
+     */
+    public static ProductBitmap range(int size) {
+        Builder builder = new Builder();
+        for (int slot = 0; slot < size; slot++) {
+            builder.add(slot);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Bitmap holding the given slots, which must be ascending
+     */
+    public static ProductBitmap fromSortedSlots(int[] slots) {
+        Builder builder = new Builder();
+        for (int slot : slots) {
+            builder.add(slot);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Number of slots in the bitmap
+     */
+    public int cardinality() {
+        return cardinality;
+    }
+
+    /**
+     * Check whether a slot is present
+     */
+    public boolean contains(int slot) {
+        int chunk = Arrays.binarySearch(chunkKeys, slot >>> CHUNK_BITS);
+        if (chunk < 0) {
+            return false;
+        }
+        char low = (char) slot;
+        Object container = containers[chunk];
+        if (container instanceof long[]) {
+            long[] words = (long[]) container;
+            return (words[low >>> 6] & (1L << low)) != 0;
+        }
+        return Arrays.binarySearch((char[]) container, low) >= 0;
+    }
+
+    /**
+     * Ascending array of all slots in the bitmap
+     */
+    public int[] toSlots() {
+        int[] slots = new int[cardinality];
+        int count = 0;
+        for (int c = 0; c < chunkKeys.length; c++) {
+            int high = chunkKeys[c] << CHUNK_BITS;
+            Object container = containers[c];
+            if (container instanceof long[]) {
+                long[] words = (long[]) container;
+                for (int w = 0; w < words.length; w++) {
+                    long word = words[w];
+                    while (word != 0) {
+                        slots[count++] = high | (w << 6) | Long.numberOfTrailingZeros(word);
+                        word &= word - 1;
+                    }
+                }
+            } else {
+                for (char low : (char[]) container) {
+                    slots[count++] = high | low;
+                }
+            }
+        }
+        return slots;
+    }
+
+    /**
+     * Stream the slots to a visitor in ascending order, with a null product
+     * @param visitor Receives each slot; returning false stops the walk
+     */
+    public void visit(ProductVisitor visitor) {
+        for (int c = 0; c < chunkKeys.length; c++) {
+            int high = chunkKeys[c] << CHUNK_BITS;
+            Object container = containers[c];
+            if (container instanceof long[]) {
+                long[] words = (long[]) container;
+                for (int w = 0; w < words.length; w++) {
+                    long word = words[w];
+                    while (word != 0) {
+                        if (!visitor.visit(high | (w << 6) | Long.numberOfTrailingZeros(word), null)) {
+                            return;
+                        }
+                        word &= word - 1;
+                    }
+                }
+            } else {
+                for (char low : (char[]) container) {
+                    if (!visitor.visit(high | low, null)) {
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Intersection of this bitmap and another
+     */
+    public ProductBitmap and(ProductBitmap other) {
+        int[] keys = new int[Math.min(chunkKeys.length, other.chunkKeys.length)];
+        Object[] result = new Object[keys.length];
+        int chunks = 0;
+        int total = 0;
+
+        int i = 0;
+        int j = 0;
+        while (i < chunkKeys.length && j < other.chunkKeys.length) {
+            if (chunkKeys[i] < other.chunkKeys[j]) {
+                i++;
+            } else if (chunkKeys[i] > other.chunkKeys[j]) {
+                j++;
+            } else {
+                Object container = andContainers(containers[i], other.containers[j]);
+                int count = containerCardinality(container);
+                if (count > 0) {
+                    keys[chunks] = chunkKeys[i];
+                    result[chunks++] = container;
+                    total += count;
+                }
+                i++;
+                j++;
+            }
+        }
+        return new ProductBitmap(Arrays.copyOf(keys, chunks), Arrays.copyOf(result, chunks), total);
+    }
+
+    /**
+     * Union of this bitmap and another
+     */
+    public ProductBitmap or(ProductBitmap other) {
+        int[] keys = new int[chunkKeys.length + other.chunkKeys.length];
+        Object[] result = new Object[keys.length];
+        int chunks = 0;
+        int total = 0;
+
+        int i = 0;
+        int j = 0;
+        while (i < chunkKeys.length || j < other.chunkKeys.length) {
+            Object container;
+            int key;
+            if (j >= other.chunkKeys.length || (i < chunkKeys.length && chunkKeys[i] < other.chunkKeys[j])) {
+                key = chunkKeys[i];
+                container = containers[i++];
+            } else if (i >= chunkKeys.length || chunkKeys[i] > other.chunkKeys[j]) {
+                key = other.chunkKeys[j];
+                container = other.containers[j++];
+            } else {
+                key = chunkKeys[i];
+                container = compact(orWords(toWords(containers[i++]), other.containers[j++]));
+            }
+            keys[chunks] = key;
+            result[chunks++] = container;
+            total += containerCardinality(container);
+        }
+        return new ProductBitmap(Arrays.copyOf(keys, chunks), Arrays.copyOf(result, chunks), total);
+    }
+
+    private static Object andContainers(Object a, Object b) {
+        if (a instanceof long[] && b instanceof long[]) {
+            long[] left = (long[]) a;
+            long[] right = (long[]) b;
+            long[] words = new long[WORDS_PER_CHUNK];
+            for (int w = 0; w < WORDS_PER_CHUNK; w++) {
+                words[w] = left[w] & right[w];
+            }
+            return compact(words);
+        }
+        if (a instanceof long[]) {
+            return filterArray((char[]) b, (long[]) a);
+        }
+        if (b instanceof long[]) {
+            return filterArray((char[]) a, (long[]) b);
+        }
+
+        char[] left = (char[]) a;
+        char[] right = (char[]) b;
+        char[] out = new char[Math.min(left.length, right.length)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < left.length && j < right.length) {
+            if (left[i] < right[j]) {
+                i++;
+            } else if (left[i] > right[j]) {
+                j++;
+            } else {
+                out[count++] = left[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, count);
+    }
+
+    /**
+     * Keep the array entries whose bit is set in the bitmap container
+     */
+    private static char[] filterArray(char[] values, long[] words) {
+        char[] out = new char[values.length];
+        int count = 0;
+        for (char low : values) {
+            if ((words[low >>> 6] & (1L << low)) != 0) {
+                out[count++] = low;
+            }
+        }
+        return Arrays.copyOf(out, count);
+    }
+
+    private static long[] toWords(Object container) {
+        if (container instanceof long[]) {
+            return Arrays.copyOf((long[]) container, WORDS_PER_CHUNK);
+        }
+        long[] words = new long[WORDS_PER_CHUNK];
+        for (char low : (char[]) container) {
+            words[low >>> 6] |= 1L << low;
+        }
+        return words;
+    }
+
+    private static long[] orWords(long[] words, Object container) {
+        if (container instanceof long[]) {
+            long[] other = (long[]) container;
+            for (int w = 0; w < WORDS_PER_CHUNK; w++) {
+                words[w] |= other[w];
+            }
+        } else {
+            for (char low : (char[]) container) {
+                words[low >>> 6] |= 1L << low;
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Convert a bitmap container back to an array when it has become sparse
+     */
+    private static Object compact(long[] words) {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        if (count > ARRAY_LIMIT) {
+            return words;
+        }
+        char[] values = new char[count];
+        int n = 0;
+        for (int w = 0; w < words.length; w++) {
+            long word = words[w];
+            while (word != 0) {
+                values[n++] = (char) ((w << 6) | Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+        return values;
+    }
+
+    private static int containerCardinality(Object container) {
+        if (container instanceof char[]) {
+            return ((char[]) container).length;
+        }
+        int count = 0;
+        for (long word : (long[]) container) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Builder accepting slots in ascending order
+     */
+    public static class Builder {
+        private int[] keys = new int[4];
+        private Object[] built = new Object[4];
+        private int chunks;
+        private int total;
+
+        private int currentKey = -1;
+        private char[] currentValues = new char[ARRAY_LIMIT];
+        private long[] currentWords;
+        private int currentCount;
+        private int lastSlot = -1;
+
+        /**
+         * Add a slot; slots must be added in strictly ascending order
+         */
+        public Builder add(int slot) {
+            if (slot <= lastSlot) {
+                throw new IllegalArgumentException("Slots must be added in ascending order: " + slot);
+            }
+            lastSlot = slot;
+
+            int key = slot >>> CHUNK_BITS;
+            if (key != currentKey) {
+                flush();
+                currentKey = key;
+            }
+
+            char low = (char) slot;
+            if (currentWords != null) {
+                currentWords[low >>> 6] |= 1L << low;
+            } else if (currentCount < ARRAY_LIMIT) {
+                currentValues[currentCount] = low;
+            } else {
+                currentWords = new long[WORDS_PER_CHUNK];
+                for (int i = 0; i < currentCount; i++) {
+                    currentWords[currentValues[i] >>> 6] |= 1L << currentValues[i];
+                }
+                currentWords[low >>> 6] |= 1L << low;
+            }
+            currentCount++;
+            return this;
+        }
+
+        private void flush() {
+            if (currentCount == 0) {
+                return;
+            }
+            if (chunks == keys.length) {
+                keys = Arrays.copyOf(keys, chunks * 2);
+                built = Arrays.copyOf(built, chunks * 2);
+            }
+            keys[chunks] = currentKey;
+            built[chunks++] = currentWords != null ? currentWords : Arrays.copyOf(currentValues, currentCount);
+            total += currentCount;
+            currentWords = null;
+            currentCount = 0;
+        }
+
+        /**
+         * Finish building; the builder should not be reused afterwards
+         */
+        public ProductBitmap build() {
+            flush();
+            if (chunks == 0) {
+                return EMPTY;
+            }
+            return new ProductBitmap(Arrays.copyOf(keys, chunks), Arrays.copyOf(built, chunks), total);
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package com.example.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * ProductCatalog - mutable product catalog with snapshot-isolated readers
+ * Writers apply batches of add, update and remove operations; each batch is
+ * validated and turned into a new immutable CatalogSnapshot that is published
+ * with a single volatile write, so a search never sees a half-applied batch.
+ * Changes go to a small ID-sorted delta of primitive columns that each batch
+ * extends with one merge pass, and replaced base rows are marked in a tombstone
+ * bitmap; once the delta outgrows the compaction threshold it is folded into a
+ * freshly indexed base, keeping the full O(n log n) rebuild rare
+ * The initial products keep the order they were given in, and compaction keeps
+ * the catalog order of CatalogSnapshot.getProducts
+ * Compaction runs synchronously inside apply, under the writer lock: the batch that
+ * triggers it, and every writer waiting behind it, stalls for the O(n log n) rebuild,
+ * while readers keep searching the previous snapshot undisturbed
+ * Products are copied when added to a batch and searches return new objects, so
+ * changes to the caller's objects (e.g. Product.updateProduct) only take effect
+ * through update() and never alter a published snapshot
+ */
+public class ProductCatalog {
+
+    // Smallest delta that triggers a compaction
+    private static final int MIN_COMPACTION_THRESHOLD = 256;
+
+    private final boolean buildIndexes;
+    private volatile CatalogSnapshot current;
+
+    /**
+     * Constructor - builds an indexed catalog
+     */
+    public ProductCatalog(Product[] products) {
+        this(products, true);
+    }
+
+    /**
+     * Constructor
+     * @param products Initial products; IDs must be unique
+     * @param buildIndexes Whether the base snapshots carry search indexes
+     */
+    public ProductCatalog(Product[] products, boolean buildIndexes) {
+        this.buildIndexes = buildIndexes;
+        // The base store copies the values into its columns and keeps no Product objects
+        int[] ids = new int[products.length];
+        for (int i = 0; i < products.length; i++) {
+            if (products[i] == null) {
+                throw new IllegalArgumentException("Product must not be null");
+            }
+            ids[i] = products[i].getProductId();
+        }
+        Arrays.sort(ids);
+        for (int i = 1; i < ids.length; i++) {
+            if (ids[i] == ids[i - 1]) {
+                throw new IllegalArgumentException("Duplicate product ID: " + ids[i]);
+            }
+        }
+        this.current = new CatalogSnapshot(0, newService(products), CatalogDelta.EMPTY, ProductBitmap.empty());
+    }
+
+    /**
+     * Current snapshot; hold on to it for a consistent view across several searches
+     */
+    public CatalogSnapshot snapshot() {
+        return current;
+    }
+
+    public long getVersion() {
+        return current.getVersion();
+    }
+
+    public int size() {
+        return current.size();
+    }
+
+    /**
+     * Add a new product
+     * @return Version of the published snapshot
+     */
+    public long add(Product product) {
+        return apply(new Batch().add(product));
+    }
+
+    /**
+     * Replace the product with the same ID
+     * @return Version of the published snapshot
+     */
+    public long update(Product product) {
+        return apply(new Batch().update(product));
+    }
+
+    /**
+     * Remove a product by ID
+     * @return Version of the published snapshot
+     */
+    public long remove(int productId) {
+        return apply(new Batch().remove(productId));
+    }
+
+    /**
+     * Apply all operations of a batch atomically
+     * If any operation is invalid nothing is published and the exception for the
+     * first invalid operation in batch order is thrown
+     * @return Version of the published snapshot
+     */
+    public synchronized long apply(Batch batch) {
+        CatalogSnapshot snapshot = current;
+        List<Operation> operations = batch.operations;
+        int count = operations.size();
+
+        // Group the operations by ID, keeping batch order within an ID, without boxing
+        long[] keys = new long[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = ((long) operations.get(i).productId << 32) | i;
+        }
+        Arrays.sort(keys);
+
+        int[] changedIds = new int[count];
+        Product[] changed = new Product[count];
+        int changes = 0;
+        int[] newTombstones = new int[count];
+        int tombstoneCount = 0;
+        int firstInvalid = count;
+        String error = null;
+        int[] ignored = new int[1];
+
+        for (int start = 0, end; start < count; start = end) {
+            int id = (int) (keys[start] >> 32);
+            end = start + 1;
+            while (end < count && (int) (keys[end] >> 32) == id) {
+                end++;
+            }
+
+            int baseSlot = snapshot.base().slotOf(id, ignored);
+            boolean liveInBase = baseSlot >= 0 && !snapshot.tombstones().contains(baseSlot);
+            boolean exists = liveInBase || snapshot.delta().indexOf(id, ignored) >= 0;
+            Product last = null;
+            for (int k = start; k < end; k++) {
+                int index = (int) keys[k];
+                Operation operation = operations.get(index);
+                if (operation.kind == Operation.ADD && exists) {
+                    if (index < firstInvalid) {
+                        firstInvalid = index;
+                        error = "Product already exists: " + id;
+                    }
+                    break;
+                }
+                if (operation.kind != Operation.ADD && !exists) {
+                    if (index < firstInvalid) {
+                        firstInvalid = index;
+                        error = "No product with ID " + id;
+                    }
+                    break;
+                }
+                exists = operation.kind != Operation.REMOVE;
+                last = operation.product;
+            }
+
+            changedIds[changes] = id;
+            changed[changes++] = exists ? last : null;
+            if (liveInBase) {
+                newTombstones[tombstoneCount++] = baseSlot;
+            }
+        }
+        if (error != null) {
+            throw new IllegalArgumentException(error);
+        }
+
+        CatalogDelta delta = snapshot.delta().merge(changedIds, changed, changes);
+        ProductBitmap tombstones = snapshot.tombstones();
+        if (tombstoneCount > 0) {
+            int[] slots = Arrays.copyOf(newTombstones, tombstoneCount);
+            Arrays.sort(slots);
+            tombstones = tombstones.or(ProductBitmap.fromSortedSlots(slots));
+        }
+
+        long version = snapshot.getVersion() + 1;
+        CatalogSnapshot next;
+        if (delta.size() + tombstones.cardinality() > compactionThreshold(snapshot.base().size())) {
+            next = compact(snapshot.base(), delta, tombstones, version);
+        } else {
+            next = new CatalogSnapshot(version, snapshot.base(), delta, tombstones);
+        }
+        current = next;
+        return version;
+    }
+
+    /**
+     * Delta size at which it is folded into the base: balances the per-batch
+     * O(delta) merge against the O(n log n) compaction
+     */
+    static int compactionThreshold(int baseSize) {
+        return Math.max(MIN_COMPACTION_THRESHOLD, 4 * (int) Math.sqrt(baseSize));
+    }
+
+    /**
+     * Build a new indexed base from the live base rows and the delta, in catalog order
+     * Base rows are built from the base store's columns, so only values published
+     * through batches reach the new base
+     */
+    private CatalogSnapshot compact(ProductSearchService base, CatalogDelta delta,
+                                    ProductBitmap tombstones, long version) {
+        ProductStore baseStore = base.store();
+        Product[] rows = new Product[baseStore.size() - tombstones.cardinality() + delta.size()];
+        int count = 0;
+        for (int slot = 0; slot < baseStore.size(); slot++) {
+            if (!tombstones.contains(slot)) {
+                rows[count++] = baseStore.row(slot);
+            }
+        }
+        for (int i = 0; i < delta.size(); i++) {
+            rows[count++] = delta.row(i);
+        }
+        return new CatalogSnapshot(version, newService(rows), CatalogDelta.EMPTY, ProductBitmap.empty());
+    }
+
+    private ProductSearchService newService(Product[] products) {
+        return new ProductSearchService(products, buildIndexes);
+    }
+
+    /**
+     * Ordered list of catalog changes applied together by ProductCatalog.apply
+     * Not thread-safe; build a batch on one thread, then apply it
+     */
+    public static class Batch {
+        private final List<Operation> operations = new ArrayList<Operation>();
+
+        public Batch add(Product product) {
+            Product copy = copyOf(product);
+            operations.add(new Operation(Operation.ADD, copy.getProductId(), copy));
+            return this;
+        }
+
+        public Batch update(Product product) {
+            Product copy = copyOf(product);
+            operations.add(new Operation(Operation.UPDATE, copy.getProductId(), copy));
+            return this;
+        }
+
+        public Batch remove(int productId) {
+            operations.add(new Operation(Operation.REMOVE, productId, null));
+            return this;
+        }
+
+        public int size() {
+            return operations.size();
+        }
+
+        private static Product copyOf(Product product) {
+            if (product == null) {
+                throw new IllegalArgumentException("Product must not be null");
+            }
+            return product.copy();
+        }
+    }
+
+    /**
+     * A single add, update or remove
+     */
+    private static class Operation {
+        static final int ADD = 0;
+        static final int UPDATE = 1;
+        static final int REMOVE = 2;
+
+        final int kind;
+        final int productId;
+        final Product product;
+
+        Operation(int kind, int productId, Product product) {
+            this.kind = kind;
+            this.productId = productId;
+            this.product = product;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.search;
+
+/**
+ * ProductColumns - generated catalog held as primitive columns instead of Product objects
+ * Names, categories and descriptions are stored as codes into ProductDataGenerator's
+ * sample dictionaries, so a row costs 27 bytes and no object; 100M rows fit in under
+ * 3 GB. Product objects and strings are built on demand, as in MappedCatalog
+ * Filled by ParallelProductGenerator; read-only afterwards
+ */
+public class ProductColumns {
+
+    final int[] ids;
+    final byte[] nameCodes;
+    final byte[] categoryCodes;
+    final byte[] descriptionCodes;
+    final double[] prices;
+    final int[] stock;
+    final double[] ratings;
+
+    ProductColumns(int size) {
+        this.ids = new int[size];
+        this.nameCodes = new byte[size];
+        this.categoryCodes = new byte[size];
+        this.descriptionCodes = new byte[size];
+        this.prices = new double[size];
+        this.stock = new int[size];
+        this.ratings = new double[size];
+    }
+
+    /**
+     * Number of products in the columns
+     */
+    public int size() {
+        return ids.length;
+    }
+
+    public int idAt(int slot) {
+        return ids[slot];
+    }
+
+    /**
+     * Product name, built as its sample name followed by the product ID
+     */
+    public String nameAt(int slot) {
+        return ProductDataGenerator.PRODUCT_NAMES[nameCodes[slot]] + " " + ids[slot];
+    }
+
+    public String categoryAt(int slot) {
+        return ProductDataGenerator.CATEGORIES[categoryCodes[slot]];
+    }
+
+    public String descriptionAt(int slot) {
+        return ProductDataGenerator.DESCRIPTIONS[descriptionCodes[slot]];
+    }
+
+    public double priceAt(int slot) {
+        return prices[slot];
+    }
+
+    public int stockAt(int slot) {
+        return stock[slot];
+    }
+
+    public double ratingAt(int slot) {
+        return ratings[slot];
+    }
+
+    /**
+     * Build the product stored at a slot
+     */
+    public Product product(int slot) {
+        return new Product(ids[slot], nameAt(slot), categoryAt(slot), prices[slot],
+                           descriptionAt(slot), stock[slot], ratings[slot]);
+    }
+
+    /**
+     * Materialize every product, e.g. to build a ProductSearchService
+     */
+    public Product[] toProducts() {
+        Product[] products = new Product[ids.length];
+        for (int slot = 0; slot < products.length; slot++) {
+            products[slot] = product(slot);
+        }
+        return products;
+    }
+}
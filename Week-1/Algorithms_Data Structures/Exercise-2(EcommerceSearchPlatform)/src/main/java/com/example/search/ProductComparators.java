@@ -0,0 +1,57 @@
+package com.example.search;
+
+import java.util.Comparator;
+
+/**
+ * ProductComparators - orderings for ranked search results
+ * Each wraps the matching Product.compareBy* method and breaks ties by product ID,
+ * so a ranking is total and consecutive result pages never overlap or skip products
+ */
+public final class ProductComparators {
+
+    /**
+     * Highest rating first
+     */
+    public static final Comparator<Product> BY_RATING = new Comparator<Product>() {
+        @Override
+        public int compare(Product p1, Product p2) {
+            int result = p1.compareByRating(p2);
+            return result != 0 ? result : p1.compareById(p2);
+        }
+    };
+
+    /**
+     * Cheapest first
+     */
+    public static final Comparator<Product> BY_PRICE = new Comparator<Product>() {
+        @Override
+        public int compare(Product p1, Product p2) {
+            int result = p1.compareByPrice(p2);
+            return result != 0 ? result : p1.compareById(p2);
+        }
+    };
+
+    /**
+     * Alphabetical by name, ignoring case
+     */
+    public static final Comparator<Product> BY_NAME = new Comparator<Product>() {
+        @Override
+        public int compare(Product p1, Product p2) {
+            int result = p1.compareByName(p2);
+            return result != 0 ? result : p1.compareById(p2);
+        }
+    };
+
+    /**
+     * Lowest product ID first
+     */
+    public static final Comparator<Product> BY_ID = new Comparator<Product>() {
+        @Override
+        public int compare(Product p1, Product p2) {
+            return p1.compareById(p2);
+        }
+    };
+
+    private ProductComparators() {
+    }
+}
@@ -11,7 +11,7 @@ public class ProductDataGenerator {
     private Random random;
     
     // Sample data arrays for realistic product generation
-    private static final String[] PRODUCT_NAMES = {
+    static final String[] PRODUCT_NAMES = {
         "iPhone 15 Pro", "Samsung Galaxy S24", "MacBook Pro", "Dell XPS 13",
         "iPad Air", "Microsoft Surface", "AirPods Pro", "Sony WH-1000XM5",
         "Nintendo Switch", "PlayStation 5", "Xbox Series X", "Steam Deck",
@@ -20,12 +20,12 @@ public class ProductDataGenerator {
         "Kindle Oasis", "iPad Pro", "Surface Book", "ThinkPad X1 Carbon"
     };
     
-    private static final String[] CATEGORIES = {
+    static final String[] CATEGORIES = {
         "Electronics", "Computers", "Audio", "Gaming", "Photography",
         "Wearables", "Tablets", "Smartphones", "Laptops", "Accessories"
     };
     
-    private static final String[] DESCRIPTIONS = {
+    static final String[] DESCRIPTIONS = {
         "Latest technology with premium features",
         "High-performance device for professionals",
         "Affordable option with great value",
@@ -40,6 +40,14 @@ public class ProductDataGenerator {
         this.random = new Random();
     }
     
+    /**
+     * Constructor with a fixed seed, so benchmarks and tests get the same catalogs on every run
+     * @param seed Seed for the random generator
+     */
+    public ProductDataGenerator(long seed) {
+        this.random = new Random(seed);
+    }
+    
     /**
      * Generate a sample dataset with predefined products
      * @return Array of sample products
@@ -0,0 +1,141 @@
+package com.example.search;
+
+/**
+ * ProductIdIndex - open-addressing hash index from product ID to array slot
+ * Keys and slots are stored side by side in a single int[] table, so a lookup
+ * never boxes an Integer and usually touches just one cache line
+ * Time Complexity: O(1) average lookup, O(n) build
+ */
+public class ProductIdIndex {
+
+    private static final int EMPTY_SLOT = -1;
+    private static final int MIN_CAPACITY = 2;
+    // Largest power of two whose two ints per bucket still fit in one array
+    private static final int MAX_CAPACITY = 1 << 29;
+
+    // table[2 * bucket] = product ID, table[2 * bucket + 1] = array slot (or EMPTY_SLOT)
+    private final int[] table;
+    private final int mask;
+    private final int size;
+
+    /**
+     * Build the index over an ID column
+     * Duplicate IDs keep their first occurrence, matching linear search
+     * @param ids Product IDs by slot
+     * @throws IllegalArgumentException If there are more than 2^28 IDs, whose table would not fit one array
+     */
+    public ProductIdIndex(int[] ids) {
+        int capacity = tableCapacity(ids.length);
+        this.table = new int[capacity * 2];
+        this.mask = capacity - 1;
+
+        for (int bucket = 0; bucket < capacity; bucket++) {
+            table[2 * bucket + 1] = EMPTY_SLOT;
+        }
+
+        int inserted = 0;
+        for (int slot = 0; slot < ids.length; slot++) {
+            if (insert(ids[slot], slot)) {
+                inserted++;
+            }
+        }
+        this.size = inserted;
+    }
+
+    /**
+     * Smallest power of two keeping the load factor at or below 0.5
+     */
+    private static int tableCapacity(int entries) {
+        // As a long: 2 * entries overflows an int above 2^30 entries
+        long needed = 2L * entries;
+        if (needed > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Too many IDs for a ProductIdIndex: " + entries
+                                               + " (at most " + MAX_CAPACITY / 2 + ")");
+        }
+        int capacity = MIN_CAPACITY;
+        while (capacity < needed) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /**
+     * Scramble the ID so sequential IDs spread across the table (murmur3 finalizer)
+     */
+    private static int hash(int key) {
+        int h = key;
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    /**
+     * Insert a key unless it is already present
+     * @return true if the key was added
+     */
+    private boolean insert(int productId, int slot) {
+        int bucket = hash(productId) & mask;
+        while (table[2 * bucket + 1] != EMPTY_SLOT) {
+            if (table[2 * bucket] == productId) {
+                return false;
+            }
+            bucket = (bucket + 1) & mask;
+        }
+        table[2 * bucket] = productId;
+        table[2 * bucket + 1] = slot;
+        return true;
+    }
+
+    /**
+     * Find the array slot holding a product ID
+     * @param productId The ID to look up
+     * @return Slot in the indexed array, or -1 if the ID is not present
+     */
+    public int find(int productId) {
+        int bucket = hash(productId) & mask;
+        while (true) {
+            int slot = table[2 * bucket + 1];
+            if (slot == EMPTY_SLOT || table[2 * bucket] == productId) {
+                return slot;
+            }
+            bucket = (bucket + 1) & mask;
+        }
+    }
+
+    /**
+     * Find the array slot holding a product ID and count the buckets inspected
+     * Used to report comparison counts alongside linear and binary search
+     * @param probes probes[0] is increased by the number of buckets inspected
+     * @return Slot in the indexed array, or -1 if the ID is not present
+     */
+    public int find(int productId, int[] probes) {
+        int bucket = hash(productId) & mask;
+        int inspected = 1;
+        while (true) {
+            int slot = table[2 * bucket + 1];
+            if (slot == EMPTY_SLOT || table[2 * bucket] == productId) {
+                probes[0] += inspected;
+                return slot;
+            }
+            bucket = (bucket + 1) & mask;
+            inspected++;
+        }
+    }
+
+    /**
+     * Number of distinct IDs in the index
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Number of buckets in the hash table
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+}
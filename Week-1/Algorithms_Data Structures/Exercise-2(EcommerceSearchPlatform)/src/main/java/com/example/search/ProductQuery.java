@@ -0,0 +1,191 @@
+package com.example.search;
+
+/**
+ * ProductQuery - immutable description of a composite product search
+ * Combines an optional name term, category, price range, availability flag and
+ * minimum rating; unset predicates match every product
+ * Built with ProductQuery.builder() and run by QueryExecutor
+ */
+public class ProductQuery {
+
+    private final String nameTerm;
+    // nameTerm lowercased once, for matches
+    private final String lowerNameTerm;
+    private final String category;
+    private final double minPrice;
+    private final double maxPrice;
+    private final boolean priceFiltered;
+    private final boolean availableOnly;
+    private final double minRating;
+    private final boolean ratingFiltered;
+
+    private ProductQuery(Builder builder) {
+        this.nameTerm = builder.nameTerm;
+        this.lowerNameTerm = nameTerm == null ? null : ProductStore.normalizeName(nameTerm);
+        this.category = builder.category;
+        this.minPrice = builder.minPrice;
+        this.maxPrice = builder.maxPrice;
+        this.priceFiltered = builder.priceFiltered;
+        this.availableOnly = builder.availableOnly;
+        this.minRating = builder.minRating;
+        this.ratingFiltered = builder.ratingFiltered;
+    }
+
+    /**
+     * Start building a query
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    // Getters
+    public String getNameTerm() {
+        return nameTerm;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public double getMinPrice() {
+        return minPrice;
+    }
+
+    public double getMaxPrice() {
+        return maxPrice;
+    }
+
+    public boolean isAvailableOnly() {
+        return availableOnly;
+    }
+
+    public double getMinRating() {
+        return minRating;
+    }
+
+    public boolean hasNameTerm() {
+        return nameTerm != null;
+    }
+
+    public boolean hasCategory() {
+        return category != null;
+    }
+
+    public boolean hasPriceRange() {
+        return priceFiltered;
+    }
+
+    public boolean hasMinRating() {
+        return ratingFiltered;
+    }
+
+    /**
+     * Check whether a product satisfies every predicate of the query
+     */
+    public boolean matches(Product product) {
+        return (lowerNameTerm == null || product.nameContainsLower(lowerNameTerm))
+            && (category == null || product.isInCategory(category))
+            && (!priceFiltered || product.isPriceInRange(minPrice, maxPrice))
+            && (!availableOnly || product.isAvailable())
+            && (!ratingFiltered || product.getRating() >= minRating);
+    }
+
+    /**
+     * String representation listing the active predicates
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("ProductQuery[");
+        String separator = "";
+        if (nameTerm != null) {
+            sb.append("name~'").append(nameTerm).append("'");
+            separator = ", ";
+        }
+        if (category != null) {
+            sb.append(separator).append("category='").append(category).append("'");
+            separator = ", ";
+        }
+        if (priceFiltered) {
+            sb.append(separator).append(String.format("price=$%.2f-$%.2f", minPrice, maxPrice));
+            separator = ", ";
+        }
+        if (availableOnly) {
+            sb.append(separator).append("in stock");
+            separator = ", ";
+        }
+        if (ratingFiltered) {
+            sb.append(separator).append(String.format("rating>=%.1f", minRating));
+        }
+        return sb.append("]").toString();
+    }
+
+    /**
+     * Builder for ProductQuery
+     */
+    public static class Builder {
+        private String nameTerm;
+        private String category;
+        private double minPrice = Double.NEGATIVE_INFINITY;
+        private double maxPrice = Double.POSITIVE_INFINITY;
+        private boolean priceFiltered;
+        private boolean availableOnly;
+        private double minRating;
+        private boolean ratingFiltered;
+
+        private Builder() {
+        }
+
+        /**
+         * Match products whose name contains the term (case-insensitive)
+         * A null or blank term leaves the name unfiltered
+         */
+        public Builder nameContains(String searchTerm) {
+            this.nameTerm = isBlank(searchTerm) ? null : searchTerm;
+            return this;
+        }
+
+        /**
+         * Match products in the category (case-insensitive)
+         * A null or blank category leaves the category unfiltered
+         */
+        public Builder category(String categoryName) {
+            this.category = isBlank(categoryName) ? null : categoryName;
+            return this;
+        }
+
+        /**
+         * Match products priced within [minPrice, maxPrice]
+         */
+        public Builder priceBetween(double minPrice, double maxPrice) {
+            this.minPrice = minPrice;
+            this.maxPrice = maxPrice;
+            this.priceFiltered = true;
+            return this;
+        }
+
+        /**
+         * Match only products that are in stock
+         */
+        public Builder availableOnly() {
+            this.availableOnly = true;
+            return this;
+        }
+
+        /**
+         * Match products rated at least minRating
+         */
+        public Builder minRating(double minRating) {
+            this.minRating = minRating;
+            this.ratingFiltered = true;
+            return this;
+        }
+
+        public ProductQuery build() {
+            return new ProductQuery(this);
+        }
+
+        private static boolean isBlank(String text) {
+            return text == null || text.trim().isEmpty();
+        }
+    }
+}
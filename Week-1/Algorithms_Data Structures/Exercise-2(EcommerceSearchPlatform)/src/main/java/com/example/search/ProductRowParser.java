@@ -0,0 +1,356 @@
+package com.example.search;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * ProductRowParser - turns one feed record into a Product
+ * Parsers are stateless after construction and safe to share between threads;
+ * an invalid record throws IllegalArgumentException describing the problem
+ * Field names (case-insensitive): productId (id), productName (name), category,
+ * price, description, stockQuantity (stock), rating; the first three are required
+ */
+abstract class ProductRowParser {
+
+    private static final int ID = 0;
+    private static final int NAME = 1;
+    private static final int CATEGORY = 2;
+    private static final int PRICE = 3;
+    private static final int DESCRIPTION = 4;
+    private static final int STOCK = 5;
+    private static final int RATING = 6;
+    private static final int FIELD_COUNT = 7;
+
+    private static final Map<String, Integer> FIELDS = new HashMap<String, Integer>();
+
+    static {
+        FIELDS.put("productid", ID);
+        FIELDS.put("id", ID);
+        FIELDS.put("productname", NAME);
+        FIELDS.put("name", NAME);
+        FIELDS.put("category", CATEGORY);
+        FIELDS.put("price", PRICE);
+        FIELDS.put("description", DESCRIPTION);
+        FIELDS.put("stockquantity", STOCK);
+        FIELDS.put("stock", STOCK);
+        FIELDS.put("rating", RATING);
+    }
+
+    /**
+     * Parse one record
+     * @throws IllegalArgumentException If the record is malformed or a value is invalid
+     */
+    abstract Product parse(String record);
+
+    /**
+     * Parser for CSV records (RFC 4180 quoting) with the given header record
+     */
+    static ProductRowParser csv(String header) {
+        return new CsvParser(header);
+    }
+
+    /**
+     * Parser for JSON lines: one flat object per record
+     */
+    static ProductRowParser jsonLines() {
+        return new JsonLineParser();
+    }
+
+    /**
+     * Build a product from raw field values indexed by field constant
+     */
+    static Product toProduct(String[] values) {
+        int id = parseInt(required(values, ID, "productId"), "productId");
+        String name = required(values, NAME, "productName");
+        String category = required(values, CATEGORY, "category");
+
+        double price = values[PRICE] == null ? 0.0 : parseDouble(values[PRICE], "price");
+        if (!(price >= 0) || Double.isInfinite(price)) {
+            throw new IllegalArgumentException("Invalid price: " + values[PRICE]);
+        }
+        int stock = values[STOCK] == null ? 0 : parseInt(values[STOCK], "stockQuantity");
+        if (stock < 0) {
+            throw new IllegalArgumentException("Negative stockQuantity: " + stock);
+        }
+        double rating = values[RATING] == null ? 0.0 : parseDouble(values[RATING], "rating");
+        if (!(rating >= 0 && rating <= 5)) {
+            throw new IllegalArgumentException("Rating out of range 0-5: " + values[RATING]);
+        }
+        String description = values[DESCRIPTION] == null ? "" : values[DESCRIPTION];
+        return new Product(id, name, category, price, description, stock, rating);
+    }
+
+    private static String required(String[] values, int field, String fieldName) {
+        String value = values[field];
+        if (value == null || value.trim().isEmpty()) {
+            throw new IllegalArgumentException("Missing " + fieldName);
+        }
+        return value;
+    }
+
+    private static int parseInt(String value, String fieldName) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + fieldName + ": " + value);
+        }
+    }
+
+    private static double parseDouble(String value, String fieldName) {
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + fieldName + ": " + value);
+        }
+    }
+
+    private static Integer fieldFor(String name) {
+        return FIELDS.get(name.trim().toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * CSV parser; columns are matched to fields by the header, unknown columns are ignored
+     */
+    private static class CsvParser extends ProductRowParser {
+        // Field constant of each column, -1 for ignored columns
+        private final int[] columnFields;
+
+        CsvParser(String header) {
+            List<String> columns = splitCsv(header);
+            this.columnFields = new int[columns.size()];
+            boolean[] seen = new boolean[FIELD_COUNT];
+            for (int i = 0; i < columns.size(); i++) {
+                Integer field = fieldFor(columns.get(i));
+                columnFields[i] = field == null ? -1 : field.intValue();
+                if (field != null) {
+                    if (seen[field]) {
+                        throw new IllegalArgumentException("Duplicate column: " + columns.get(i));
+                    }
+                    seen[field] = true;
+                }
+            }
+            if (!seen[ID] || !seen[NAME] || !seen[CATEGORY]) {
+                throw new IllegalArgumentException("CSV header needs productId, productName and category columns: "
+                                                   + header);
+            }
+        }
+
+        @Override
+        Product parse(String record) {
+            List<String> cells = splitCsv(record);
+            if (cells.size() != columnFields.length) {
+                throw new IllegalArgumentException("Expected " + columnFields.length + " columns, found "
+                                                   + cells.size());
+            }
+            String[] values = new String[FIELD_COUNT];
+            for (int i = 0; i < cells.size(); i++) {
+                if (columnFields[i] >= 0) {
+                    String cell = cells.get(i);
+                    values[columnFields[i]] = cell.isEmpty() ? null : cell;
+                }
+            }
+            return toProduct(values);
+        }
+
+        /**
+         * Split a CSV record into cells; quoted cells may contain commas, quotes ("") and newlines
+         */
+        static List<String> splitCsv(String record) {
+            List<String> cells = new ArrayList<String>();
+            StringBuilder cell = new StringBuilder();
+            boolean quoted = false;
+            boolean wasQuoted = false;
+            for (int i = 0; i < record.length(); i++) {
+                char c = record.charAt(i);
+                if (quoted) {
+                    if (c == '"') {
+                        if (i + 1 < record.length() && record.charAt(i + 1) == '"') {
+                            cell.append('"');
+                            i++;
+                        } else {
+                            quoted = false;
+                        }
+                    } else {
+                        cell.append(c);
+                    }
+                } else if (c == ',') {
+                    cells.add(cell.toString());
+                    cell.setLength(0);
+                    wasQuoted = false;
+                } else if (c == '"' && cell.length() == 0 && !wasQuoted) {
+                    quoted = true;
+                    wasQuoted = true;
+                } else if (c == '"') {
+                    throw new IllegalArgumentException("Unexpected quote at position " + i);
+                } else if (wasQuoted) {
+                    throw new IllegalArgumentException("Text after closing quote at position " + i);
+                } else {
+                    cell.append(c);
+                }
+            }
+            if (quoted) {
+                throw new IllegalArgumentException("Unterminated quoted value");
+            }
+            cells.add(cell.toString());
+            return cells;
+        }
+    }
+
+    /**
+     * JSON lines parser for flat objects of strings, numbers, booleans and nulls;
+     * unknown keys are ignored, nested objects and arrays are rejected
+     */
+    private static class JsonLineParser extends ProductRowParser {
+
+        @Override
+        Product parse(String record) {
+            String[] values = new String[FIELD_COUNT];
+            Cursor cursor = new Cursor(record);
+            cursor.expect('{');
+            if (!cursor.consume('}')) {
+                do {
+                    String key = cursor.string();
+                    cursor.expect(':');
+                    String value = cursor.value();
+                    Integer field = fieldFor(key);
+                    if (field != null) {
+                        values[field] = value;
+                    }
+                } while (cursor.consume(','));
+                cursor.expect('}');
+            }
+            cursor.end();
+            return toProduct(values);
+        }
+
+        /**
+         * Position in the record being parsed
+         */
+        private static class Cursor {
+            private final String text;
+            private int position;
+
+            Cursor(String text) {
+                this.text = text;
+            }
+
+            void skipWhitespace() {
+                while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+                    position++;
+                }
+            }
+
+            boolean consume(char c) {
+                skipWhitespace();
+                if (position < text.length() && text.charAt(position) == c) {
+                    position++;
+                    return true;
+                }
+                return false;
+            }
+
+            void expect(char c) {
+                if (!consume(c)) {
+                    throw error("Expected '" + c + "'");
+                }
+            }
+
+            void end() {
+                skipWhitespace();
+                if (position != text.length()) {
+                    throw error("Unexpected text after object");
+                }
+            }
+
+            /**
+             * A value as its text: strings unescaped, numbers and booleans verbatim, null as null
+             */
+            String value() {
+                skipWhitespace();
+                if (position >= text.length()) {
+                    throw error("Missing value");
+                }
+                char c = text.charAt(position);
+                if (c == '"') {
+                    return string();
+                }
+                if (c == '{' || c == '[') {
+                    throw error("Nested values are not supported");
+                }
+                int start = position;
+                while (position < text.length() && ",} \t".indexOf(text.charAt(position)) < 0) {
+                    position++;
+                }
+                String literal = text.substring(start, position);
+                if (literal.isEmpty()) {
+                    throw error("Missing value");
+                }
+                return "null".equals(literal) ? null : literal;
+            }
+
+            String string() {
+                expect('"');
+                StringBuilder value = new StringBuilder();
+                while (true) {
+                    if (position >= text.length()) {
+                        throw error("Unterminated string");
+                    }
+                    char c = text.charAt(position++);
+                    if (c == '"') {
+                        return value.toString();
+                    }
+                    if (c != '\\') {
+                        value.append(c);
+                        continue;
+                    }
+                    if (position >= text.length()) {
+                        throw error("Unterminated escape");
+                    }
+                    char escaped = text.charAt(position++);
+                    switch (escaped) {
+                        case '"':
+                        case '\\':
+                        case '/':
+                            value.append(escaped);
+                            break;
+                        case 'b':
+                            value.append('\b');
+                            break;
+                        case 'f':
+                            value.append('\f');
+                            break;
+                        case 'n':
+                            value.append('\n');
+                            break;
+                        case 'r':
+                            value.append('\r');
+                            break;
+                        case 't':
+                            value.append('\t');
+                            break;
+                        case 'u':
+                            if (position + 4 > text.length()) {
+                                throw error("Truncated \\u escape");
+                            }
+                            try {
+                                value.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                            } catch (NumberFormatException e) {
+                                throw error("Invalid \\u escape");
+                            }
+                            position += 4;
+                            break;
+                        default:
+                            throw error("Invalid escape \\" + escaped);
+                    }
+                }
+            }
+
+            IllegalArgumentException error(String message) {
+                return new IllegalArgumentException(message + " at position " + position);
+            }
+        }
+    }
+}
@@ -0,0 +1,1002 @@
+package com.example.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * ProductSearchService - thread-safe search over one immutable product catalog
+ * The columnar store and every index are built once, in the constructor or (the
+ * Eytzinger and interpolation ID layouts) by the first search using them, and never
+ * modified, and each search keeps its counters in local variables and returns
+ * them in a SearchResult, so any number of threads can share one instance; the
+ * only lock is taken while a lazily built layout is created
+ * Linear name, category and price scans switch to a fork/join parallel scan once
+ * the catalog reaches the configurable parallel threshold
+ */
+public class ProductSearchService {
+
+    /**
+     * Default catalog size from which linear scans run in parallel
+     */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 200000;
+
+    // Copied once; the executor copies the bounds again for each query
+    private static final double[] DEFAULT_PRICE_BOUNDS = FacetCounts.defaultPriceBounds();
+    private static final double[] DEFAULT_RATING_BOUNDS = FacetCounts.defaultRatingBounds();
+
+    private final ProductStore store;
+    // Built by the first ID search that needs them, so a mapped catalog opens without copying its IDs
+    private volatile EytzingerIdLayout eytzingerLayout;
+    private volatile InterpolationIdSearch interpolationSearch;
+    private final ProductIdIndex idIndex;
+    private final TrigramNameIndex nameIndex;
+    private final FuzzyNameIndex fuzzyIndex;
+    private final NameAutocompleter autocompleter;
+    private final CategoryBitmapIndex categoryIndex;
+    private final PriceIndex priceIndex;
+    private final QueryExecutor queryExecutor;
+    private final ForkJoinPool scanPool;
+    // Created by the first getMetrics call; services only searched through snapshots or shards never need it
+    private volatile SearchMetrics metrics;
+    private volatile int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+
+    /**
+     * Constructor - builds the columnar store and all search indexes
+     */
+    public ProductSearchService(Product[] products) {
+        this(products, true);
+    }
+
+    /**
+     * Constructor - builds the columnar store
+     * @param products Products to search
+     * @param buildIndexes Whether to build the indexes used by the indexedSearch* methods
+     */
+    public ProductSearchService(Product[] products, boolean buildIndexes) {
+        // Columnar copy; also holds the ID-sorted order used by binary search
+        this(new ProductStore(products), buildIndexes);
+    }
+
+    /**
+     * Constructor - searches a mapped catalog file without materializing its products
+     * Scans read the mapped columns and stored lowercased names in place and its stored
+     * ID order is used as is, so with buildIndexes false nothing is copied at startup;
+     * matches are built from the file as they are returned. The Eytzinger, interpolation
+     * and batch ID searches copy the ID columns onto the heap on first use
+     * @param catalog Catalog to search; the service keeps reading rows from its mapping
+     * @param buildIndexes Whether to build the indexes used by the indexedSearch* methods
+     */
+    public ProductSearchService(MappedCatalog catalog, boolean buildIndexes) {
+        this(new ProductStore(catalog), buildIndexes);
+    }
+
+    private ProductSearchService(ProductStore store, boolean buildIndexes) {
+        this.store = store;
+
+        if (buildIndexes) {
+            this.idIndex = new ProductIdIndex(store.idColumn());
+            this.nameIndex = new TrigramNameIndex(store);
+            this.fuzzyIndex = new FuzzyNameIndex(store);
+            this.autocompleter = new NameAutocompleter(store, ProductComparators.BY_RATING);
+            this.categoryIndex = new CategoryBitmapIndex(store);
+            this.priceIndex = new PriceIndex(store.priceColumn());
+        } else {
+            this.idIndex = null;
+            this.nameIndex = null;
+            this.fuzzyIndex = null;
+            this.autocompleter = null;
+            this.categoryIndex = null;
+            this.priceIndex = null;
+        }
+        this.queryExecutor = new QueryExecutor(store, nameIndex, categoryIndex, priceIndex);
+        this.scanPool = ForkJoinPool.commonPool();
+    }
+
+    private EytzingerIdLayout eytzingerLayout() {
+        EytzingerIdLayout current = eytzingerLayout;
+        if (current == null) {
+            synchronized (this) {
+                current = eytzingerLayout;
+                if (current == null) {
+                    current = new EytzingerIdLayout(store.sortedIdColumn(), store.idOrderColumn());
+                    eytzingerLayout = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private InterpolationIdSearch interpolationSearch() {
+        InterpolationIdSearch current = interpolationSearch;
+        if (current == null) {
+            synchronized (this) {
+                current = interpolationSearch;
+                if (current == null) {
+                    current = new InterpolationIdSearch(store.sortedIdColumn());
+                    interpolationSearch = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Set the catalog size from which linear scans run in parallel
+     * @param parallelThreshold Minimum product count; Integer.MAX_VALUE disables parallel scans
+     */
+    public void setParallelThreshold(int parallelThreshold) {
+        if (parallelThreshold < 1) {
+            throw new IllegalArgumentException("Parallel threshold must be positive: " + parallelThreshold);
+        }
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    /**
+     * Check whether a linear scan over the catalog would run in parallel
+     */
+    public boolean isParallelScan() {
+        return store.size() >= parallelThreshold;
+    }
+
+    /**
+     * Run a predicate over every slot on the fork/join pool
+     * Every product is still checked once, so the comparison count equals the catalog size
+     */
+    private SearchResult parallelScan(ParallelScan.SlotPredicate predicate, long startTime) {
+        int[] slots = ParallelScan.collect(predicate, store.size(), scanPool);
+        return new SearchResult(store.rows(slots), store.size(), System.nanoTime() - startTime);
+    }
+
+    /**
+     * LINEAR SEARCH - O(n) scans over the primitive columns
+     */
+
+    /**
+     * Linear search by product ID
+     */
+    public SearchResult linearSearchById(int productId) {
+        long startTime = System.nanoTime();
+        int comparisons = 0;
+
+        for (int i = 0; i < store.size(); i++) {
+            comparisons++;
+            if (store.idAt(i) == productId) {
+                return SearchResult.single(store.row(i), comparisons, System.nanoTime() - startTime);
+            }
+        }
+        return SearchResult.single(null, comparisons, System.nanoTime() - startTime);
+    }
+
+    /**
+     * Linear search by product name (partial, case-insensitive matches)
+     */
+    public SearchResult linearSearchByName(String searchTerm) {
+        long startTime = System.nanoTime();
+        if (searchTerm == null || searchTerm.trim().isEmpty()) {
+            return empty(startTime);
+        }
+
+        final NameMatcher term = NameMatcher.compile(searchTerm);
+        if (isParallelScan()) {
+            return parallelScan(new ParallelScan.SlotPredicate() {
+                @Override
+                public boolean test(int slot) {
+                    return store.nameMatches(slot, term);
+                }
+            }, startTime);
+        }
+
+        List<Product> results = new ArrayList<Product>();
+        int comparisons = 0;
+        for (int i = 0; i < store.size(); i++) {
+            comparisons++;
+            if (store.nameMatches(i, term)) {
+                results.add(store.row(i));
+            }
+        }
+        return toResult(results, comparisons, startTime);
+    }
+
+    /**
+     * Linear search by category (case-insensitive)
+     */
+    public SearchResult linearSearchByCategory(String category) {
+        long startTime = System.nanoTime();
+        if (category == null || category.trim().isEmpty()) {
+            return empty(startTime);
+        }
+
+        final boolean[] matchingCodes = store.matchingCategoryCodes(category);
+        if (isParallelScan()) {
+            return parallelScan(new ParallelScan.SlotPredicate() {
+                @Override
+                public boolean test(int slot) {
+                    return matchingCodes[store.categoryCodeAt(slot)];
+                }
+            }, startTime);
+        }
+
+        List<Product> results = new ArrayList<Product>();
+        int comparisons = 0;
+        for (int i = 0; i < store.size(); i++) {
+            comparisons++;
+            if (matchingCodes[store.categoryCodeAt(i)]) {
+                results.add(store.row(i));
+            }
+        }
+        return toResult(results, comparisons, startTime);
+    }
+
+    /**
+     * Linear search by price range [minPrice, maxPrice]
+     */
+    public SearchResult linearSearchByPriceRange(final double minPrice, final double maxPrice) {
+        long startTime = System.nanoTime();
+        if (isParallelScan()) {
+            return parallelScan(new ParallelScan.SlotPredicate() {
+                @Override
+                public boolean test(int slot) {
+                    double price = store.priceAt(slot);
+                    return price >= minPrice && price <= maxPrice;
+                }
+            }, startTime);
+        }
+
+        List<Product> results = new ArrayList<Product>();
+        int comparisons = 0;
+
+        for (int i = 0; i < store.size(); i++) {
+            comparisons++;
+            double price = store.priceAt(i);
+            if (price >= minPrice && price <= maxPrice) {
+                results.add(store.row(i));
+            }
+        }
+        return toResult(results, comparisons, startTime);
+    }
+
+    /**
+     * BINARY SEARCH - O(log n) over the ID-sorted column
+     */
+
+    /**
+     * Iterative binary search by product ID
+     */
+    public SearchResult binarySearchById(int productId) {
+        long startTime = System.nanoTime();
+        int comparisons = 0;
+        int left = 0;
+        int right = store.size() - 1;
+
+        while (left <= right) {
+            comparisons++;
+            int mid = left + (right - left) / 2;
+            int midProductId = store.sortedIdAt(mid);
+
+            if (midProductId == productId) {
+                return SearchResult.single(store.row(store.slotInIdOrder(mid)), comparisons,
+                                           System.nanoTime() - startTime);
+            } else if (midProductId < productId) {
+                left = mid + 1;
+            } else {
+                right = mid - 1;
+            }
+        }
+        return SearchResult.single(null, comparisons, System.nanoTime() - startTime);
+    }
+
+    /**
+     * Recursive binary search by product ID
+     */
+    public SearchResult binarySearchRecursive(int productId) {
+        long startTime = System.nanoTime();
+        int[] comparisons = new int[1];
+        Product match = binarySearchRecursiveHelper(productId, 0, store.size() - 1, comparisons);
+        return SearchResult.single(match, comparisons[0], System.nanoTime() - startTime);
+    }
+
+    /**
+     * Helper method for recursive binary search
+     */
+    private Product binarySearchRecursiveHelper(int productId, int left, int right, int[] comparisons) {
+        if (left > right) {
+            return null;
+        }
+
+        comparisons[0]++;
+        int mid = left + (right - left) / 2;
+        int midProductId = store.sortedIdAt(mid);
+
+        if (midProductId == productId) {
+            return store.row(store.slotInIdOrder(mid));
+        } else if (midProductId < productId) {
+            return binarySearchRecursiveHelper(productId, mid + 1, right, comparisons);
+        } else {
+            return binarySearchRecursiveHelper(productId, left, mid - 1, comparisons);
+        }
+    }
+
+    /**
+     * Binary search by product ID over the Eytzinger (breadth-first) ID layout
+     * Same O(log n) comparisons as binarySearchById, but cache-friendly and branch-free
+     */
+    public SearchResult eytzingerSearchById(int productId) {
+        long startTime = System.nanoTime();
+        int[] steps = new int[1];
+        int slot = eytzingerLayout().find(productId, steps);
+        return SearchResult.single(slot >= 0 ? store.row(slot) : null, steps[0], System.nanoTime() - startTime);
+    }
+
+    /**
+     * Interpolation search by product ID over the ID-sorted order
+     * O(log log n) probes on uniform IDs; falls back to binary search when the guess keeps missing
+     */
+    public SearchResult interpolationSearchById(int productId) {
+        long startTime = System.nanoTime();
+        int[] steps = new int[1];
+        int position = interpolationSearch().interpolationFind(productId, steps);
+        return SearchResult.single(position >= 0 ? store.row(store.slotInIdOrder(position)) : null,
+                                   steps[0], System.nanoTime() - startTime);
+    }
+
+    /**
+     * Search by product ID with the variant suited to the sampled ID distribution:
+     * interpolation search for near-uniform IDs, the Eytzinger layout otherwise
+     */
+    public SearchResult adaptiveSearchById(int productId) {
+        return interpolationSearch().isUniform()
+                ? interpolationSearchById(productId)
+                : eytzingerSearchById(productId);
+    }
+
+    /**
+     * Batch lookup of ascending product IDs by exponential (galloping) search
+     * Each lookup resumes from the previous match: O(k log(n / k)) probes for k IDs
+     * @param productIds IDs in ascending order (duplicates allowed)
+     * @return Found products in the order of the requested IDs; missing IDs are skipped
+     */
+    public SearchResult exponentialSearchByIds(int[] productIds) {
+        long startTime = System.nanoTime();
+        int[] steps = new int[1];
+        List<Product> results = new ArrayList<Product>();
+        InterpolationIdSearch search = interpolationSearch();
+        int position = 0;
+        for (int i = 0; i < productIds.length; i++) {
+            if (i > 0 && productIds[i] < productIds[i - 1]) {
+                throw new IllegalArgumentException("Product IDs must be ascending: " + productIds[i - 1]
+                                                   + " before " + productIds[i]);
+            }
+            position = search.gallop(productIds[i], position, steps);
+            if (position < store.size() && store.sortedIdAt(position) == productIds[i]) {
+                results.add(store.row(store.slotInIdOrder(position)));
+            }
+        }
+        return toResult(results, steps[0], startTime);
+    }
+
+    /**
+     * Batch lookup of product IDs in any order by a sorted merge join
+     * The IDs are sorted together with their request positions, then walked against the
+     * ID-sorted column with galloping steps that resume from the previous match, so the
+     * column is read front to back once: O(k log k + k log(n / k)) for k IDs, instead of
+     * k independent O(log n) binary searches that each start cold from the middle
+     * @param productIds IDs to resolve, in any order (duplicates allowed)
+     * @return Products in request order, null for missing IDs, with the missing IDs listed
+     */
+    public IdLookupResult findByIds(int[] productIds) {
+        long startTime = System.nanoTime();
+        int k = productIds.length;
+
+        // (ID, request position) pairs packed into longs sort by ID with a primitive sort;
+        // a batch that is already ascending is not sorted again
+        long[] probes = new long[k];
+        boolean ascending = true;
+        for (int i = 0; i < k; i++) {
+            probes[i] = ((long) productIds[i] << 32) | i;
+            ascending &= i == 0 || productIds[i - 1] <= productIds[i];
+        }
+        if (!ascending) {
+            Arrays.sort(probes);
+        }
+
+        Product[] products = new Product[k];
+        int[] missing = new int[Math.min(k, 16)];
+        int missingCount = 0;
+        int[] steps = new int[1];
+        int n = store.size();
+        InterpolationIdSearch search = interpolationSearch();
+        int position = 0;
+        for (int i = 0; i < k; i++) {
+            int productId = (int) (probes[i] >> 32);
+            int index = (int) probes[i];
+            if (i > 0 && productId == (int) (probes[i - 1] >> 32)) {
+                // Repeated ID: same answer as its previous occurrence, already counted if missing
+                products[index] = products[(int) probes[i - 1]];
+                continue;
+            }
+            position = search.gallop(productId, position, steps);
+            if (position < n && store.sortedIdAt(position) == productId) {
+                products[index] = store.row(store.slotInIdOrder(position));
+            } else {
+                if (missingCount == missing.length) {
+                    missing = Arrays.copyOf(missing, missingCount * 2);
+                }
+                missing[missingCount++] = productId;
+            }
+        }
+        return new IdLookupResult(products, Arrays.copyOf(missing, missingCount), steps[0],
+                                  System.nanoTime() - startTime);
+    }
+
+    /**
+     * Whether sampled product IDs are uniform enough for interpolation search
+     */
+    public boolean hasUniformIds() {
+        return interpolationSearch().isUniform();
+    }
+
+    /**
+     * ALLOCATION-FREE SEARCH - sequential scans that stream matches to a visitor
+     * A name term is compiled once into a NameMatcher that the caller keeps, and matches
+     * go straight to the caller. The collectBy* searches fill a reused HitBuffer with
+     * slots and allocate nothing per query; the visitBy* searches build one Product per
+     * match for the visitor. Scans always run on the calling thread
+     */
+
+    /**
+     * Stream products whose name contains a compiled term (case-insensitive)
+     * Same matches as linearSearchByName for the term the matcher was compiled from
+     * @param term Compiled term, e.g. NameMatcher.compile("pro"); blank terms match nothing
+     * @param visitor Receives matches in slot order; returning false stops the scan
+     * @return Number of products examined
+     */
+    public int visitByName(NameMatcher term, ProductVisitor visitor) {
+        return scanByName(term, visitor, true);
+    }
+
+    /**
+     * @param buildRows Whether the visitor is given each match's Product, or null
+     */
+    private int scanByName(NameMatcher term, ProductVisitor visitor, boolean buildRows) {
+        if (term.isBlank()) {
+            return 0;
+        }
+        for (int i = 0; i < store.size(); i++) {
+            if (store.nameMatches(i, term) && !visitor.visit(i, buildRows ? store.row(i) : null)) {
+                return i + 1;
+            }
+        }
+        return store.size();
+    }
+
+    /**
+     * Stream products of a category (case-insensitive)
+     * @param visitor Receives matches in slot order; returning false stops the scan
+     * @return Number of products examined
+     */
+    public int visitByCategory(String category, ProductVisitor visitor) {
+        return scanByCategory(category, visitor, true);
+    }
+
+    private int scanByCategory(String category, ProductVisitor visitor, boolean buildRows) {
+        if (category == null || isBlank(category)) {
+            return 0;
+        }
+        int foldCode = store.categoryFoldCode(category);
+        if (foldCode < 0) {
+            return 0;
+        }
+        for (int i = 0; i < store.size(); i++) {
+            if (store.categoryFoldCodeAt(i) == foldCode && !visitor.visit(i, buildRows ? store.row(i) : null)) {
+                return i + 1;
+            }
+        }
+        return store.size();
+    }
+
+    /**
+     * Stream products priced in [minPrice, maxPrice]
+     * @param visitor Receives matches in slot order; returning false stops the scan
+     * @return Number of products examined
+     */
+    public int visitByPriceRange(double minPrice, double maxPrice, ProductVisitor visitor) {
+        return scanByPriceRange(minPrice, maxPrice, visitor, true);
+    }
+
+    private int scanByPriceRange(double minPrice, double maxPrice, ProductVisitor visitor, boolean buildRows) {
+        for (int i = 0; i < store.size(); i++) {
+            double price = store.priceAt(i);
+            if (price >= minPrice && price <= maxPrice && !visitor.visit(i, buildRows ? store.row(i) : null)) {
+                return i + 1;
+            }
+        }
+        return store.size();
+    }
+
+    /**
+     * Collect products whose name contains a compiled term into a reusable buffer
+     * @return Number of hits, also available as hits.size()
+     */
+    public int collectByName(NameMatcher term, HitBuffer hits) {
+        hits.reset(store);
+        scanByName(term, hits, false);
+        return hits.size();
+    }
+
+    /**
+     * Collect products of a category into a reusable buffer
+     * @return Number of hits, also available as hits.size()
+     */
+    public int collectByCategory(String category, HitBuffer hits) {
+        hits.reset(store);
+        scanByCategory(category, hits, false);
+        return hits.size();
+    }
+
+    /**
+     * Collect products priced in [minPrice, maxPrice] into a reusable buffer
+     * @return Number of hits, also available as hits.size()
+     */
+    public int collectByPriceRange(double minPrice, double maxPrice, HitBuffer hits) {
+        hits.reset(store);
+        scanByPriceRange(minPrice, maxPrice, hits, false);
+        return hits.size();
+    }
+
+    /**
+     * Same rule as text.trim().isEmpty(), without allocating
+     */
+    private static boolean isBlank(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * INDEXED SEARCH - each method falls back to its scan when the index was not built
+     */
+
+    /**
+     * Indexed search by product ID using the open-addressing hash index
+     */
+    public SearchResult indexedSearchById(int productId) {
+        if (idIndex == null) {
+            return binarySearchById(productId);
+        }
+
+        long startTime = System.nanoTime();
+        int[] probes = new int[1];
+        int slot = idIndex.find(productId, probes);
+        return SearchResult.single(slot >= 0 ? store.row(slot) : null, probes[0], System.nanoTime() - startTime);
+    }
+
+    /**
+     * Indexed search by product name using the trigram index
+     * Returns the same products, in the same order, as linearSearchByName
+     */
+    public SearchResult indexedSearchByName(String searchTerm) {
+        if (nameIndex == null) {
+            return linearSearchByName(searchTerm);
+        }
+
+        long startTime = System.nanoTime();
+        if (searchTerm == null || searchTerm.trim().isEmpty()) {
+            return empty(startTime);
+        }
+
+        int[] verified = new int[1];
+        int[] slots = nameIndex.search(searchTerm, verified);
+        return new SearchResult(store.rows(slots), verified[0], System.nanoTime() - startTime);
+    }
+
+    /**
+     * Indexed search by category using the category bitmap index
+     */
+    public SearchResult indexedSearchByCategory(String category) {
+        if (categoryIndex == null) {
+            return linearSearchByCategory(category);
+        }
+
+        long startTime = System.nanoTime();
+        if (category == null || category.trim().isEmpty()) {
+            return empty(startTime);
+        }
+
+        int[] slots = categoryIndex.lookup(category).toSlots();
+        return new SearchResult(store.rows(slots), categoryIndex.categoryCount(), System.nanoTime() - startTime);
+    }
+
+    /**
+     * Indexed search by price range using the sorted price column
+     * Unlike linearSearchByPriceRange, results come back in ascending price order
+     */
+    public SearchResult indexedSearchByPriceRange(double minPrice, double maxPrice) {
+        if (priceIndex == null) {
+            return linearSearchByPriceRange(minPrice, maxPrice);
+        }
+
+        long startTime = System.nanoTime();
+        int[] steps = new int[1];
+        int[] slots = priceIndex.range(minPrice, maxPrice, steps);
+        return new SearchResult(store.rows(slots), steps[0], System.nanoTime() - startTime);
+    }
+
+    /**
+     * Combined category, availability and price filter via bitmap intersection
+     * @param category Category to match, or null for any category
+     */
+    public SearchResult indexedFilter(String category, boolean availableOnly, double minPrice, double maxPrice) {
+        if (categoryIndex == null) {
+            return linearFilter(category, availableOnly, minPrice, maxPrice);
+        }
+
+        long startTime = System.nanoTime();
+        int comparisons = 0;
+        ProductBitmap result;
+        if (priceIndex != null) {
+            result = priceIndex.rangeBitmap(minPrice, maxPrice);
+        } else {
+            ProductBitmap.Builder builder = new ProductBitmap.Builder();
+            for (int i = 0; i < store.size(); i++) {
+                comparisons++;
+                double price = store.priceAt(i);
+                if (price >= minPrice && price <= maxPrice) {
+                    builder.add(i);
+                }
+            }
+            result = builder.build();
+        }
+        if (category != null) {
+            comparisons += categoryIndex.categoryCount();
+            result = result.and(categoryIndex.lookup(category));
+        }
+        if (availableOnly) {
+            result = result.and(categoryIndex.available());
+        }
+        return new SearchResult(store.rows(result.toSlots()), comparisons, System.nanoTime() - startTime);
+    }
+
+    /**
+     * Combined filter evaluated by scanning every product (fallback without indexes)
+     */
+    private SearchResult linearFilter(String category, boolean availableOnly, double minPrice, double maxPrice) {
+        long startTime = System.nanoTime();
+        List<Product> results = new ArrayList<Product>();
+        int comparisons = 0;
+
+        boolean[] matchingCodes = category == null ? null : store.matchingCategoryCodes(category);
+        for (int i = 0; i < store.size(); i++) {
+            comparisons++;
+            double price = store.priceAt(i);
+            if (price >= minPrice && price <= maxPrice
+                    && (matchingCodes == null || matchingCodes[store.categoryCodeAt(i)])
+                    && (!availableOnly || store.isAvailable(i))) {
+                results.add(store.row(i));
+            }
+        }
+        return toResult(results, comparisons, startTime);
+    }
+
+    /**
+     * RANKED SEARCH - top-K pages kept in a bounded heap, O(n log K) time and O(K) products
+     * Candidates come from the matching index when built, otherwise from a scan; index
+     * hits are streamed into the heap as they are found, so no slot array of all the
+     * matches is built
+     */
+
+    /**
+     * Ranked, paginated search by product name
+     * @param searchTerm Term to search for in product names
+     * @param order Ranking, e.g. ProductComparators.BY_RATING
+     * @param offset Number of top-ranked matches to skip
+     * @param limit Page size
+     * @return The requested page, best first
+     */
+    public SearchResult rankedSearchByName(String searchTerm, Comparator<Product> order, int offset, int limit) {
+        long startTime = System.nanoTime();
+        TopKCollector top = new TopKCollector(order, offset, limit);
+        if (searchTerm == null || searchTerm.trim().isEmpty()) {
+            return empty(startTime);
+        }
+
+        if (nameIndex != null) {
+            int verified = nameIndex.visit(searchTerm, offerTo(top));
+            return new SearchResult(top.page(), verified, System.nanoTime() - startTime);
+        }
+
+        NameMatcher term = NameMatcher.compile(searchTerm);
+        for (int i = 0; i < store.size(); i++) {
+            if (store.nameMatches(i, term)) {
+                top.offer(store, i);
+            }
+        }
+        return new SearchResult(top.page(), store.size(), System.nanoTime() - startTime);
+    }
+
+    /**
+     * Ranked, paginated search by category
+     * @param category Category to search for
+     * @param order Ranking, e.g. ProductComparators.BY_RATING
+     * @param offset Number of top-ranked matches to skip
+     * @param limit Page size
+     * @return The requested page, best first
+     */
+    public SearchResult rankedSearchByCategory(String category, Comparator<Product> order, int offset, int limit) {
+        long startTime = System.nanoTime();
+        TopKCollector top = new TopKCollector(order, offset, limit);
+        if (category == null || category.trim().isEmpty()) {
+            return empty(startTime);
+        }
+
+        if (categoryIndex != null) {
+            categoryIndex.lookup(category).visit(offerTo(top));
+            return new SearchResult(top.page(), categoryIndex.categoryCount(), System.nanoTime() - startTime);
+        }
+
+        boolean[] matchingCodes = store.matchingCategoryCodes(category);
+        for (int i = 0; i < store.size(); i++) {
+            if (matchingCodes[store.categoryCodeAt(i)]) {
+                top.offer(store, i);
+            }
+        }
+        return new SearchResult(top.page(), store.size(), System.nanoTime() - startTime);
+    }
+
+    /**
+     * Ranked, paginated search by price range [minPrice, maxPrice]
+     * @param order Ranking, e.g. ProductComparators.BY_RATING
+     * @param offset Number of top-ranked matches to skip
+     * @param limit Page size
+     * @return The requested page, best first
+     */
+    public SearchResult rankedSearchByPriceRange(double minPrice, double maxPrice,
+                                                 Comparator<Product> order, int offset, int limit) {
+        long startTime = System.nanoTime();
+        TopKCollector top = new TopKCollector(order, offset, limit);
+
+        if (priceIndex != null) {
+            int[] steps = new int[1];
+            priceIndex.visitRange(minPrice, maxPrice, steps, offerTo(top));
+            return new SearchResult(top.page(), steps[0], System.nanoTime() - startTime);
+        }
+
+        for (int i = 0; i < store.size(); i++) {
+            double price = store.priceAt(i);
+            if (price >= minPrice && price <= maxPrice) {
+                top.offer(store, i);
+            }
+        }
+        return new SearchResult(top.page(), store.size(), System.nanoTime() - startTime);
+    }
+
+    /**
+     * Visitor feeding index hits through the bounded heap
+     */
+    private ProductVisitor offerTo(final TopKCollector top) {
+        return new ProductVisitor() {
+            @Override
+            public boolean visit(int slot, Product product) {
+                top.offer(store, slot);
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Autocomplete: best-rated products whose name starts with the typed prefix
+     * Uses the radix trie when built (comparisons = trie nodes visited), otherwise
+     * ranks every matching product of a scan
+     * @param prefix Typed text, case-insensitive
+     * @param limit Maximum number of completions
+     * @return Completions, highest rating first
+     */
+    public SearchResult autocomplete(String prefix, int limit) {
+        long startTime = System.nanoTime();
+        if (autocompleter != null) {
+            int[] visited = new int[1];
+            int[] slots = autocompleter.completeSlots(prefix, limit, visited);
+            return new SearchResult(store.rows(slots), visited[0], System.nanoTime() - startTime);
+        }
+
+        TopKCollector top = new TopKCollector(ProductComparators.BY_RATING, 0, limit);
+        String key = ProductStore.normalizeName(prefix);
+        for (int i = 0; i < store.size(); i++) {
+            if (store.nameLength(i) >= key.length() && store.lowerNameAt(i).startsWith(key)) {
+                top.offer(store, i);
+            }
+        }
+        return new SearchResult(top.page(), store.size(), System.nanoTime() - startTime);
+    }
+
+    /**
+     * FUZZY SEARCH - typo-tolerant word matching on product names
+     */
+
+    /**
+     * Fuzzy search by product name
+     * Every word of the search term must be within maxDistance edits (insertion, deletion,
+     * substitution or adjacent transposition) of some word of the name; words under 3
+     * characters must match exactly and words under 6 allow at most 1 edit
+     * Uses the fuzzy word index when built (comparisons = trie nodes visited),
+     * otherwise compares against every word of every name
+     * @param searchTerm One or more words, e.g. "samsng galxy"
+     * @param maxDistance Edit distance allowed per word, 0 to FuzzyNameIndex.MAX_DISTANCE
+     * @return Matches ordered by total edit distance, ties in catalog order
+     */
+    public SearchResult fuzzySearchByName(String searchTerm, int maxDistance) {
+        FuzzyNameIndex.checkDistance(maxDistance);
+        long startTime = System.nanoTime();
+        if (searchTerm == null || searchTerm.trim().isEmpty()) {
+            return empty(startTime);
+        }
+
+        if (fuzzyIndex != null) {
+            int[] visited = new int[1];
+            long[] ranked = fuzzyIndex.search(searchTerm, maxDistance, visited);
+            Product[] results = new Product[ranked.length];
+            for (int i = 0; i < ranked.length; i++) {
+                results[i] = store.row((int) ranked[i]);
+            }
+            return new SearchResult(results, visited[0], System.nanoTime() - startTime);
+        }
+
+        String[] queryWords = FuzzyNameIndex.words(ProductStore.normalizeName(searchTerm));
+        int[] limits = new int[queryWords.length];
+        for (int q = 0; q < queryWords.length; q++) {
+            limits[q] = Math.min(maxDistance, FuzzyNameIndex.allowedDistance(queryWords[q].length()));
+        }
+
+        // Packed (distance << 32) | slot, so sorting ranks by distance, then slot
+        long[] ranked = new long[16];
+        int count = 0;
+        int comparisons = 0;
+        for (int i = 0; i < store.size(); i++) {
+            String[] nameWords = FuzzyNameIndex.words(store.lowerNameAt(i));
+            int total = 0;
+            for (int q = 0; q < queryWords.length && total >= 0; q++) {
+                int best = limits[q] + 1;
+                for (String nameWord : nameWords) {
+                    comparisons++;
+                    best = Math.min(best, FuzzyNameIndex.distance(queryWords[q], nameWord, limits[q]));
+                }
+                total = best > limits[q] ? -1 : total + best;
+            }
+            if (total >= 0 && queryWords.length > 0) {
+                if (count == ranked.length) {
+                    ranked = Arrays.copyOf(ranked, count * 2);
+                }
+                ranked[count++] = ((long) total << 32) | i;
+            }
+        }
+        Arrays.sort(ranked, 0, count);
+        Product[] results = new Product[count];
+        for (int i = 0; i < count; i++) {
+            results[i] = store.row((int) ranked[i]);
+        }
+        return new SearchResult(results, comparisons, System.nanoTime() - startTime);
+    }
+
+    /**
+     * Execute a composite query (name, category, price, availability, rating)
+     */
+    public QueryResult executeQuery(ProductQuery query) {
+        return queryExecutor.execute(query);
+    }
+
+    /**
+     * Execute a composite query and count its matches per category, price bucket
+     * and rating band, using the default FacetCounts buckets
+     */
+    public FacetedResult executeFacetedQuery(ProductQuery query) {
+        return queryExecutor.executeFaceted(query, DEFAULT_PRICE_BOUNDS, DEFAULT_RATING_BOUNDS);
+    }
+
+    /**
+     * Execute a composite query with facet counts over custom buckets
+     * @param priceBounds Ascending lower bounds of the price buckets
+     * @param ratingBounds Ascending lower bounds of the rating bands
+     */
+    public FacetedResult executeFacetedQuery(ProductQuery query, double[] priceBounds, double[] ratingBounds) {
+        return queryExecutor.executeFaceted(query, priceBounds, ratingBounds);
+    }
+
+    private static SearchResult empty(long startTime) {
+        return new SearchResult(new Product[0], 0, System.nanoTime() - startTime);
+    }
+
+    private static SearchResult toResult(List<Product> results, int comparisons, long startTime) {
+        return new SearchResult(results.toArray(new Product[results.size()]), comparisons,
+                                System.nanoTime() - startTime);
+    }
+
+    public boolean hasIdIndex() {
+        return idIndex != null;
+    }
+
+    public boolean hasNameIndex() {
+        return nameIndex != null;
+    }
+
+    public boolean hasFuzzyNameIndex() {
+        return fuzzyIndex != null;
+    }
+
+    public boolean hasAutocompleter() {
+        return autocompleter != null;
+    }
+
+    public boolean hasCategoryIndex() {
+        return categoryIndex != null;
+    }
+
+    public boolean hasPriceIndex() {
+        return priceIndex != null;
+    }
+
+    /**
+     * Number of products in the catalog
+     */
+    public int size() {
+        return store.size();
+    }
+
+    /**
+     * Latency histograms of the SearchAlgorithms calls made on this service
+     */
+    public SearchMetrics getMetrics() {
+        SearchMetrics current = metrics;
+        if (current == null) {
+            synchronized (this) {
+                current = metrics;
+                if (current == null) {
+                    current = new SearchMetrics();
+                    metrics = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Slot holding a product ID: the ID index when built, otherwise binary search
+     * @param comparisons comparisons[0] is increased by the probes made
+     * @return The slot, or -1 if the ID is not in the catalog
+     */
+    int slotOf(int productId, int[] comparisons) {
+        if (idIndex != null) {
+            return idIndex.find(productId, comparisons);
+        }
+        int left = 0;
+        int right = store.size() - 1;
+        while (left <= right) {
+            comparisons[0]++;
+            int mid = (left + right) >>> 1;
+            int midProductId = store.sortedIdAt(mid);
+            if (midProductId == productId) {
+                return store.slotInIdOrder(mid);
+            } else if (midProductId < productId) {
+                left = mid + 1;
+            } else {
+                right = mid - 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Columnar store backing this service
+     */
+    ProductStore store() {
+        return store;
+    }
+}
@@ -0,0 +1,465 @@
+package com.example.search;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ProductStore - columnar (struct-of-arrays) snapshot of a product catalog
+ * Each searchable attribute lives in its own primitive array indexed by slot, so
+ * predicate scans walk memory sequentially instead of dereferencing a Product per row
+ * Names are kept lowercased in one shared heap, as bytes when every name is ASCII and
+ * as chars otherwise; categories are kept as dictionary codes
+ * A store built from a MappedCatalog holds no columns of its own: every accessor reads
+ * the mapped file, whose lowercased names are stored ready for matching, so building
+ * one copies nothing and the pages stay shared with other processes
+ * No Product objects are kept: row() builds a new Product from the columns (or from
+ * the file) each time a match is returned, so returned products always agree with
+ * what the scans matched, and changing one never changes the store
+ */
+public class ProductStore {
+
+    // Longest name heap; the offsets are ints and the heap is one array
+    static final int MAX_NAME_HEAP = Integer.MAX_VALUE - 8;
+
+    // When set, every column is read from this file and the arrays below are null
+    private final MappedCatalog mapped;
+    private final int size;
+    private final String[] names;
+    private final String[] descriptions;
+    private final int[] ids;
+    private final double[] prices;
+    private final int[] stock;
+    private final double[] ratings;
+
+    // Lowercased name of slot i is at [nameOffsets[i], nameOffsets[i + 1]) of whichever
+    // heap is set: asciiNameHeap when all names are ASCII, nameHeap otherwise
+    private final byte[] asciiNameHeap;
+    private final char[] nameHeap;
+    private final int[] nameOffsets;
+
+    private final String[] categoryDictionary;
+    private final int[] categoryCodes;
+    // Lowest code whose category equals this code's ignoring case
+    private final int[] categoryFoldCodes;
+
+    // Slots ordered by product ID, and the IDs in that order, for binary search
+    private final int[] idOrder;
+    private final int[] sortedIds;
+
+    /**
+     * Build the columns from a product array
+     * Later changes to the Product objects are not reflected in the columns
+     * @param products Products to store; slot i holds products[i]
+     */
+    public ProductStore(Product[] products) {
+        int n = products.length;
+        this.mapped = null;
+        this.size = n;
+        this.names = new String[n];
+        this.descriptions = new String[n];
+        this.ids = new int[n];
+        this.prices = new double[n];
+        this.stock = new int[n];
+        this.ratings = new double[n];
+        this.categoryCodes = new int[n];
+
+        Map<String, Integer> codeByCategory = new HashMap<String, Integer>();
+        List<String> categories = new ArrayList<String>();
+        String[] lowerNames = new String[n];
+
+        for (int slot = 0; slot < n; slot++) {
+            Product product = products[slot];
+            ids[slot] = product.getProductId();
+            names[slot] = product.getProductName();
+            descriptions[slot] = product.getDescription();
+            prices[slot] = product.getPrice();
+            stock[slot] = product.getStockQuantity();
+            ratings[slot] = product.getRating();
+            lowerNames[slot] = normalizeName(product.getProductName());
+
+            String category = product.getCategory();
+            Integer code = codeByCategory.get(category);
+            if (code == null) {
+                code = Integer.valueOf(categories.size());
+                codeByCategory.put(category, code);
+                categories.add(category);
+            }
+            categoryCodes[slot] = code.intValue();
+        }
+
+        this.nameOffsets = nameOffsets(lowerNames);
+        this.asciiNameHeap = isAscii(lowerNames) ? asciiNameHeap(lowerNames, nameOffsets) : null;
+        this.nameHeap = asciiNameHeap == null ? nameHeap(lowerNames, nameOffsets) : null;
+        this.categoryDictionary = categories.toArray(new String[categories.size()]);
+        this.categoryFoldCodes = categoryFoldCodes(categoryDictionary);
+
+        this.idOrder = sortSlotsById(ids);
+        this.sortedIds = new int[n];
+        for (int i = 0; i < n; i++) {
+            sortedIds[i] = ids[idOrder[i]];
+        }
+    }
+
+    /**
+     * Read the columns of a mapped catalog file in place, without materializing its products
+     * Only the category dictionary is copied; the file's ID order and lowercased names
+     * are used as stored, and rows are built from the file on demand, a new Product per
+     * call, while the mapping stays valid
+     */
+    ProductStore(MappedCatalog catalog) {
+        this.mapped = catalog;
+        this.size = catalog.size();
+        this.names = null;
+        this.descriptions = null;
+        this.ids = null;
+        this.prices = null;
+        this.stock = null;
+        this.ratings = null;
+        this.categoryCodes = null;
+        this.nameOffsets = null;
+        this.asciiNameHeap = null;
+        this.nameHeap = null;
+        this.categoryDictionary = catalog.categoryDictionary();
+        this.categoryFoldCodes = categoryFoldCodes(categoryDictionary);
+        this.idOrder = null;
+        this.sortedIds = null;
+    }
+
+    /**
+     * Heap offsets of lowercased names; the last entry is the heap size
+     * @throws IllegalArgumentException If the names do not fit in one heap array
+     */
+    private static int[] nameOffsets(String[] names) {
+        long total = 0;
+        for (String name : names) {
+            total += name.length();
+        }
+        if (total > MAX_NAME_HEAP) {
+            throw new IllegalArgumentException("Product names total " + total
+                    + " characters; a ProductStore holds at most " + MAX_NAME_HEAP
+                    + ", split the catalog (e.g. ShardedCatalog) or map it with MappedCatalog");
+        }
+        int[] offsets = new int[names.length + 1];
+        for (int slot = 0; slot < names.length; slot++) {
+            offsets[slot + 1] = offsets[slot] + names[slot].length();
+        }
+        return offsets;
+    }
+
+    private static boolean isAscii(String[] names) {
+        for (String name : names) {
+            for (int i = 0; i < name.length(); i++) {
+                if (name.charAt(i) >= 0x80) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static byte[] asciiNameHeap(String[] names, int[] offsets) {
+        byte[] heap = new byte[offsets[names.length]];
+        for (int slot = 0; slot < names.length; slot++) {
+            String name = names[slot];
+            int offset = offsets[slot];
+            for (int i = 0; i < name.length(); i++) {
+                heap[offset + i] = (byte) name.charAt(i);
+            }
+        }
+        return heap;
+    }
+
+    private static char[] nameHeap(String[] names, int[] offsets) {
+        char[] heap = new char[offsets[names.length]];
+        for (int slot = 0; slot < names.length; slot++) {
+            names[slot].getChars(0, names[slot].length(), heap, offsets[slot]);
+        }
+        return heap;
+    }
+
+    /**
+     * Lowest code whose category equals each code's category ignoring case
+     */
+    private static int[] categoryFoldCodes(String[] dictionary) {
+        int[] foldCodes = new int[dictionary.length];
+        Map<String, Integer> codeByFold = new HashMap<String, Integer>();
+        for (int code = 0; code < dictionary.length; code++) {
+            String fold = dictionary[code] == null ? null : foldCase(dictionary[code]);
+            Integer first = codeByFold.get(fold);
+            if (first == null) {
+                first = Integer.valueOf(code);
+                codeByFold.put(fold, first);
+            }
+            foldCodes[code] = first.intValue();
+        }
+        return foldCodes;
+    }
+
+    /**
+     * Lowercase a name or search term the same way Product.containsInName does
+     */
+    static String normalizeName(String name) {
+        return name == null ? "" : name.toLowerCase();
+    }
+
+    /**
+     * Case fold with the per-character rule of String.equalsIgnoreCase
+     */
+    private static String foldCase(String text) {
+        char[] folded = new char[text.length()];
+        for (int i = 0; i < folded.length; i++) {
+            folded[i] = Character.toLowerCase(Character.toUpperCase(text.charAt(i)));
+        }
+        return new String(folded);
+    }
+
+    /**
+     * Slots sorted by ID; packs (id, slot) into one long so the sort never boxes
+     */
+    private static int[] sortSlotsById(int[] ids) {
+        long[] keys = new long[ids.length];
+        for (int slot = 0; slot < ids.length; slot++) {
+            keys[slot] = ((long) ids[slot] << 32) | (slot & 0xFFFFFFFFL);
+        }
+        Arrays.sort(keys);
+        int[] order = new int[ids.length];
+        for (int i = 0; i < keys.length; i++) {
+            order[i] = (int) keys[i];
+        }
+        return order;
+    }
+
+    /**
+     * Number of products in the store
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * New Product holding the values stored at a slot
+     */
+    public Product row(int slot) {
+        if (mapped != null) {
+            return mapped.product(slot);
+        }
+        return new Product(ids[slot], names[slot], categoryDictionary[categoryCodes[slot]], prices[slot],
+                           descriptions[slot], stock[slot], ratings[slot]);
+    }
+
+    /**
+     * Overwrite a product with the values stored at a slot, so a caller comparing many
+     * slots can reuse one Product instead of building a row per slot
+     */
+    void fill(int slot, Product product) {
+        product.setProductId(idAt(slot));
+        product.updateProduct(nameAt(slot), categoryDictionary[categoryCodeAt(slot)], priceAt(slot),
+                              descriptionAt(slot), stockAt(slot), ratingAt(slot));
+    }
+
+    /**
+     * Resolve slots into their Product objects
+     */
+    public Product[] rows(int[] slots) {
+        Product[] results = new Product[slots.length];
+        for (int i = 0; i < slots.length; i++) {
+            results[i] = row(slots[i]);
+        }
+        return results;
+    }
+
+    /**
+     * All products in slot order, built from the columns
+     */
+    public Product[] allRows() {
+        if (mapped != null) {
+            return mapped.toProducts();
+        }
+        Product[] products = new Product[size];
+        for (int slot = 0; slot < products.length; slot++) {
+            products[slot] = row(slot);
+        }
+        return products;
+    }
+
+    /**
+     * All products in ascending ID order, built from the columns
+     */
+    public Product[] rowsInIdOrder() {
+        Product[] products = new Product[size];
+        for (int position = 0; position < products.length; position++) {
+            products[position] = row(slotInIdOrder(position));
+        }
+        return products;
+    }
+
+    public int idAt(int slot) {
+        return mapped != null ? mapped.idAt(slot) : ids[slot];
+    }
+
+    /**
+     * Product name at a slot, as given (not lowercased)
+     */
+    public String nameAt(int slot) {
+        return mapped != null ? mapped.nameAt(slot) : names[slot];
+    }
+
+    public String descriptionAt(int slot) {
+        return mapped != null ? mapped.descriptionAt(slot) : descriptions[slot];
+    }
+
+    public double priceAt(int slot) {
+        return mapped != null ? mapped.priceAt(slot) : prices[slot];
+    }
+
+    public int stockAt(int slot) {
+        return mapped != null ? mapped.stockAt(slot) : stock[slot];
+    }
+
+    public double ratingAt(int slot) {
+        return mapped != null ? mapped.ratingAt(slot) : ratings[slot];
+    }
+
+    public boolean isAvailable(int slot) {
+        return stockAt(slot) > 0;
+    }
+
+    public int categoryCodeAt(int slot) {
+        return mapped != null ? mapped.categoryCodeAt(slot) : categoryCodes[slot];
+    }
+
+    /**
+     * Category string for a dictionary code
+     */
+    public String categoryFor(int code) {
+        return categoryDictionary[code];
+    }
+
+    /**
+     * Number of distinct category strings
+     */
+    public int categoryCount() {
+        return categoryDictionary.length;
+    }
+
+    /**
+     * Mark the category codes that match a category name (case-insensitive)
+     * @return Flags indexed by category code
+     */
+    public boolean[] matchingCategoryCodes(String category) {
+        boolean[] matches = new boolean[categoryDictionary.length];
+        for (int code = 0; code < categoryDictionary.length; code++) {
+            matches[code] = categoryDictionary[code] != null
+                    && categoryDictionary[code].equalsIgnoreCase(category);
+        }
+        return matches;
+    }
+
+    /**
+     * Case-folded code of a category name, without allocating
+     * @return The value categoryFoldCodeAt returns for that category, or -1 if no product has it
+     */
+    public int categoryFoldCode(String category) {
+        for (int code = 0; code < categoryDictionary.length; code++) {
+            if (categoryDictionary[code] != null && categoryDictionary[code].equalsIgnoreCase(category)) {
+                return categoryFoldCodes[code];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Case-folded category code at a slot; equal for categories differing only in case
+     */
+    public int categoryFoldCodeAt(int slot) {
+        return categoryFoldCodes[categoryCodeAt(slot)];
+    }
+
+    /**
+     * Length of the lowercased name at a slot
+     */
+    public int nameLength(int slot) {
+        if (mapped != null) {
+            return mapped.lowerNameLength(slot);
+        }
+        return nameOffsets[slot + 1] - nameOffsets[slot];
+    }
+
+    /**
+     * Character of the lowercased name at a slot
+     */
+    public char nameCharAt(int slot, int index) {
+        if (mapped != null) {
+            return mapped.lowerNameCharAt(slot, index);
+        }
+        return heapChar(nameOffsets[slot] + index);
+    }
+
+    /**
+     * Lowercased name at a slot as a new string
+     */
+    public String lowerNameAt(int slot) {
+        if (mapped != null) {
+            return mapped.lowerNameAt(slot);
+        }
+        if (asciiNameHeap != null) {
+            return new String(asciiNameHeap, nameOffsets[slot], nameLength(slot), StandardCharsets.US_ASCII);
+        }
+        return new String(nameHeap, nameOffsets[slot], nameLength(slot));
+    }
+
+    /**
+     * Check whether the lowercased name at a slot contains a compiled term
+     * Matches Product.containsInName without allocating
+     */
+    public boolean nameMatches(int slot, NameMatcher matcher) {
+        if (mapped != null) {
+            return mapped.lowerNameMatches(slot, matcher);
+        }
+        if (asciiNameHeap != null) {
+            return matcher.matches(asciiNameHeap, nameOffsets[slot], nameOffsets[slot + 1]);
+        }
+        return matcher.matches(nameHeap, nameOffsets[slot], nameOffsets[slot + 1]);
+    }
+
+    private char heapChar(int position) {
+        return asciiNameHeap != null ? (char) asciiNameHeap[position] : nameHeap[position];
+    }
+
+    /**
+     * ID at a position of the ID-sorted order
+     */
+    public int sortedIdAt(int position) {
+        return mapped != null ? mapped.sortedIdAt(position) : sortedIds[position];
+    }
+
+    /**
+     * Slot at a position of the ID-sorted order
+     */
+    public int slotInIdOrder(int position) {
+        return mapped != null ? mapped.slotInIdOrder(position) : idOrder[position];
+    }
+
+    // Raw columns for index builders in this package; callers must not modify them.
+    // A mapped store copies them from the file on each call
+
+    int[] idColumn() {
+        return mapped != null ? mapped.idColumn() : ids;
+    }
+
+    double[] priceColumn() {
+        return mapped != null ? mapped.priceColumn() : prices;
+    }
+
+    int[] sortedIdColumn() {
+        return mapped != null ? mapped.sortedIdColumn() : sortedIds;
+    }
+
+    int[] idOrderColumn() {
+        return mapped != null ? mapped.idOrderColumn() : idOrder;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.search;
+
+/**
+ * ProductVisitor - receives search matches one at a time
+ * Used by the visitBy* methods of ProductSearchService, which build each match's
+ * Product from the catalog columns; a visitor that only needs slots, such as a
+ * HitBuffer filled by the collectBy* methods, is given null and nothing is built.
+ * The index walks (TrigramNameIndex.visit, ProductBitmap.visit, PriceIndex.visitRange)
+ * pass slots the same way, in the order their array-returning methods would
+ */
+public interface ProductVisitor {
+
+    /**
+     * Called for each matching product
+     * @param slot Position of the product in the catalog
+     * @param product The matching product, or null when only slots are streamed
+     * @return true to continue the scan, false to stop it
+     */
+    boolean visit(int slot, Product product);
+}
@@ -0,0 +1,379 @@
+package com.example.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * QueryExecutor - cost-based execution of composite ProductQuery searches
+ * Estimates how many rows each predicate selects, drives execution from the
+ * cheapest indexed predicate (or a full scan when nothing indexed beats it) and
+ * applies the remaining predicates to those candidates only, most selective first
+ * Any of the indexes may be null; the executor then falls back to sampling and scans
+ */
+public class QueryExecutor {
+
+    // Slots inspected when estimating the selectivity of an unindexed predicate
+    private static final int SAMPLE_SIZE = 1024;
+
+    private static final int NAME = 0;
+    private static final int CATEGORY = 1;
+    private static final int PRICE = 2;
+    private static final int AVAILABILITY = 3;
+    private static final int RATING = 4;
+    private static final String[] PREDICATE_NAMES = {"NAME", "CATEGORY", "PRICE", "AVAILABILITY", "RATING"};
+
+    private final ProductStore store;
+    private final TrigramNameIndex nameIndex;
+    private final CategoryBitmapIndex categoryIndex;
+    private final PriceIndex priceIndex;
+
+    public QueryExecutor(ProductStore store, TrigramNameIndex nameIndex,
+                         CategoryBitmapIndex categoryIndex, PriceIndex priceIndex) {
+        this.store = store;
+        this.nameIndex = nameIndex;
+        this.categoryIndex = categoryIndex;
+        this.priceIndex = priceIndex;
+    }
+
+    /**
+     * Run a query and explain how it was executed
+     * @param query The query to run
+     * @return Matching products in catalog order, with the plan used
+     */
+    public QueryResult execute(ProductQuery query) {
+        return execute(query, null);
+    }
+
+    /**
+     * Run a query and count its matches per category, price bucket and rating band
+     * Facets are counted in the same pass that filters the candidates; when the query
+     * does not restrict them, category counts come from bitmap cardinalities and price
+     * counts from the price index instead
+     * @param query The query to run
+     * @param priceBounds Ascending lower bounds of the price buckets
+     * @param ratingBounds Ascending lower bounds of the rating bands
+     * @return Matching products in catalog order, with the plan and facet counts
+     */
+    public FacetedResult executeFaceted(ProductQuery query, double[] priceBounds, double[] ratingBounds) {
+        FacetCounts.checkBounds(priceBounds, "Price");
+        FacetCounts.checkBounds(ratingBounds, "Rating");
+        return (FacetedResult) execute(query, new Facets(store, priceBounds, ratingBounds));
+    }
+
+    /**
+     * Shared execution; facets is null for a plain query
+     */
+    private QueryResult execute(ProductQuery query, Facets facets) {
+        long startTime = System.nanoTime();
+        Predicates predicates = new Predicates(query, store);
+
+        // Estimate every active predicate
+        List<Estimate> estimates = new ArrayList<Estimate>();
+        for (int kind = NAME; kind <= RATING; kind++) {
+            if (predicates.isActive(kind)) {
+                estimates.add(estimate(kind, query, predicates));
+            }
+        }
+
+        // Pick the cheapest indexed access path; a full scan costs one check per product
+        Estimate driver = null;
+        for (Estimate estimate : estimates) {
+            if (estimate.indexed && estimate.rows < store.size()
+                    && (driver == null || estimate.rows < driver.rows)) {
+                driver = estimate;
+            }
+        }
+
+        // Remaining predicates, most selective first so candidates are rejected early
+        List<Estimate> residual = new ArrayList<Estimate>(estimates);
+        residual.remove(driver);
+        Collections.sort(residual, new Comparator<Estimate>() {
+            @Override
+            public int compare(Estimate a, Estimate b) {
+                return Long.compare(a.rows, b.rows);
+            }
+        });
+        int[] residualKinds = new int[residual.size()];
+        for (int i = 0; i < residualKinds.length; i++) {
+            residualKinds[i] = residual.get(i).kind;
+        }
+
+        int[] candidates = driver == null ? null : fetch(driver.kind, query);
+        int candidateCount = candidates == null ? store.size() : candidates.length;
+
+        String facetSource = facets == null ? "" : countIndexedFacets(query, facets);
+
+        int[] matches = new int[candidateCount];
+        int matchCount = 0;
+        for (int i = 0; i < candidateCount; i++) {
+            int slot = candidates == null ? i : candidates[i];
+            if (predicates.test(slot, residualKinds)) {
+                matches[matchCount++] = slot;
+                if (facets != null) {
+                    facets.count(slot);
+                }
+            }
+        }
+        Product[] products = store.rows(Arrays.copyOf(matches, matchCount));
+
+        List<String> estimateLines = new ArrayList<String>();
+        for (Estimate estimate : estimates) {
+            estimateLines.add(estimate.describe());
+        }
+        List<String> residualLines = new ArrayList<String>();
+        for (Estimate estimate : residual) {
+            residualLines.add(PREDICATE_NAMES[estimate.kind]);
+        }
+        String accessPath = driver == null
+                ? "FULL SCAN (" + store.size() + " products)"
+                : PREDICATE_NAMES[driver.kind] + " via " + driver.source + " (" + candidateCount + " candidates)";
+
+        QueryPlan plan = new QueryPlan(query.toString(), store.size(), estimateLines, accessPath + facetSource,
+                                       residualLines, candidateCount, matchCount, System.nanoTime() - startTime);
+        if (facets == null) {
+            return new QueryResult(products, plan);
+        }
+        return new FacetedResult(products, plan, facets.toCounts());
+    }
+
+    /**
+     * Fill the facets that indexes answer without looking at the matches
+     * Category counts are bitmap cardinalities when at most availability is filtered;
+     * price buckets are index counts when nothing is filtered
+     * @return Plan note naming the indexes used, or an empty string
+     */
+    private String countIndexedFacets(ProductQuery query, Facets facets) {
+        boolean unfiltered = !query.hasNameTerm() && !query.hasCategory() && !query.hasPriceRange()
+                && !query.hasMinRating();
+        List<String> sources = new ArrayList<String>();
+        if (categoryIndex != null && unfiltered) {
+            for (int code = 0; code < categoryIndex.categoryCount(); code++) {
+                ProductBitmap bitmap = categoryIndex.bitmapFor(code);
+                facets.categoryCounts[code] = query.isAvailableOnly()
+                        ? bitmap.and(categoryIndex.available()).cardinality() : bitmap.cardinality();
+            }
+            facets.countCategories = false;
+            sources.add("category bitmaps");
+        }
+        if (priceIndex != null && unfiltered && !query.isAvailableOnly()) {
+            double[] bounds = facets.priceBounds;
+            for (int bucket = 0; bucket < bounds.length; bucket++) {
+                int atOrAbove = priceIndex.count(bounds[bucket], Double.POSITIVE_INFINITY);
+                int aboveBucket = bucket + 1 < bounds.length
+                        ? priceIndex.count(bounds[bucket + 1], Double.POSITIVE_INFINITY) : 0;
+                facets.priceCounts[bucket] = atOrAbove - aboveBucket;
+            }
+            facets.countPrices = false;
+            sources.add("price index");
+        }
+        return sources.isEmpty() ? "" : "; facets from " + String.join(", ", sources);
+    }
+
+    /**
+     * Estimate the rows selected by one predicate, exactly from an index where possible
+     */
+    private Estimate estimate(int kind, ProductQuery query, Predicates predicates) {
+        switch (kind) {
+            case NAME:
+                if (nameIndex != null) {
+                    return new Estimate(kind, nameIndex.estimateCandidates(query.getNameTerm()),
+                                        true, "trigram index", "upper bound");
+                }
+                break;
+            case CATEGORY:
+                if (categoryIndex != null) {
+                    return new Estimate(kind, categoryIndex.lookup(query.getCategory()).cardinality(),
+                                        true, "category bitmap", "exact");
+                }
+                break;
+            case PRICE:
+                if (priceIndex != null) {
+                    return new Estimate(kind, priceIndex.count(query.getMinPrice(), query.getMaxPrice()),
+                                        true, "price index", "exact");
+                }
+                break;
+            case AVAILABILITY:
+                if (categoryIndex != null) {
+                    return new Estimate(kind, categoryIndex.available().cardinality(),
+                                        true, "availability bitmap", "exact");
+                }
+                break;
+            default:
+                break;
+        }
+        return new Estimate(kind, sample(kind, predicates), false, "scan", "sampled");
+    }
+
+    /**
+     * Estimate rows by testing evenly spaced slots
+     */
+    private long sample(int kind, Predicates predicates) {
+        int n = store.size();
+        if (n == 0) {
+            return 0;
+        }
+        int samples = Math.min(SAMPLE_SIZE, n);
+        int[] single = {kind};
+        int hits = 0;
+        for (int i = 0; i < samples; i++) {
+            if (predicates.test((int) ((long) i * n / samples), single)) {
+                hits++;
+            }
+        }
+        return (long) Math.ceil((double) hits * n / samples);
+    }
+
+    /**
+     * Fetch the candidates of an indexed predicate as ascending slots
+     */
+    private int[] fetch(int kind, ProductQuery query) {
+        switch (kind) {
+            case NAME:
+                return nameIndex.search(query.getNameTerm());
+            case CATEGORY:
+                return categoryIndex.lookup(query.getCategory()).toSlots();
+            case PRICE:
+                int[] slots = priceIndex.range(query.getMinPrice(), query.getMaxPrice());
+                Arrays.sort(slots);
+                return slots;
+            case AVAILABILITY:
+                return categoryIndex.available().toSlots();
+            default:
+                throw new IllegalArgumentException("No index for predicate " + PREDICATE_NAMES[kind]);
+        }
+    }
+
+    /**
+     * Facet counters filled while matches are collected
+     */
+    private static class Facets {
+        private final ProductStore store;
+        final double[] priceBounds;
+        final double[] ratingBounds;
+        final int[] categoryCounts;
+        final int[] priceCounts;
+        final int[] ratingCounts;
+        boolean countCategories = true;
+        boolean countPrices = true;
+
+        Facets(ProductStore store, double[] priceBounds, double[] ratingBounds) {
+            this.store = store;
+            this.priceBounds = priceBounds.clone();
+            this.ratingBounds = ratingBounds.clone();
+            this.categoryCounts = new int[store.categoryCount()];
+            this.priceCounts = new int[priceBounds.length];
+            this.ratingCounts = new int[ratingBounds.length];
+        }
+
+        void count(int slot) {
+            if (countCategories) {
+                categoryCounts[store.categoryCodeAt(slot)]++;
+            }
+            if (countPrices) {
+                int bucket = FacetCounts.bucketOf(priceBounds, store.priceAt(slot));
+                if (bucket >= 0) {
+                    priceCounts[bucket]++;
+                }
+            }
+            int band = FacetCounts.bucketOf(ratingBounds, store.ratingAt(slot));
+            if (band >= 0) {
+                ratingCounts[band]++;
+            }
+        }
+
+        FacetCounts toCounts() {
+            return FacetCounts.fromCodes(store, categoryCounts, priceBounds, priceCounts, ratingBounds, ratingCounts);
+        }
+    }
+
+    /**
+     * Selectivity estimate for one predicate
+     */
+    private static class Estimate {
+        final int kind;
+        final long rows;
+        final boolean indexed;
+        final String source;
+        final String accuracy;
+
+        Estimate(int kind, long rows, boolean indexed, String source, String accuracy) {
+            this.kind = kind;
+            this.rows = rows;
+            this.indexed = indexed;
+            this.source = source;
+            this.accuracy = accuracy;
+        }
+
+        String describe() {
+            return String.format("%-13s ~%d rows (%s, %s)", PREDICATE_NAMES[kind], rows, source, accuracy);
+        }
+    }
+
+    /**
+     * Query predicates pre-compiled against the store columns
+     */
+    private static class Predicates {
+        private final ProductQuery query;
+        private final ProductStore store;
+        private final NameMatcher nameTerm;
+        private final boolean[] categoryCodes;
+
+        Predicates(ProductQuery query, ProductStore store) {
+            this.query = query;
+            this.store = store;
+            this.nameTerm = query.hasNameTerm()
+                    ? NameMatcher.compile(query.getNameTerm()) : null;
+            this.categoryCodes = query.hasCategory()
+                    ? store.matchingCategoryCodes(query.getCategory()) : null;
+        }
+
+        boolean isActive(int kind) {
+            switch (kind) {
+                case NAME:
+                    return query.hasNameTerm();
+                case CATEGORY:
+                    return query.hasCategory();
+                case PRICE:
+                    return query.hasPriceRange();
+                case AVAILABILITY:
+                    return query.isAvailableOnly();
+                default:
+                    return query.hasMinRating();
+            }
+        }
+
+        /**
+         * Check a slot against the given predicates, stopping at the first failure
+         */
+        boolean test(int slot, int[] kinds) {
+            for (int kind : kinds) {
+                boolean passed;
+                switch (kind) {
+                    case NAME:
+                        passed = store.nameMatches(slot, nameTerm);
+                        break;
+                    case CATEGORY:
+                        passed = categoryCodes[store.categoryCodeAt(slot)];
+                        break;
+                    case PRICE:
+                        double price = store.priceAt(slot);
+                        passed = price >= query.getMinPrice() && price <= query.getMaxPrice();
+                        break;
+                    case AVAILABILITY:
+                        passed = store.isAvailable(slot);
+                        break;
+                    default:
+                        passed = store.ratingAt(slot) >= query.getMinRating();
+                        break;
+                }
+                if (!passed) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.search;
+
+/**
+ * QueryKey - normalized cache key for a product search
+ * Terms are case-folded the same way the searches compare them, so queries that
+ * must return the same products share one key ("PRO" and "pro", "audio" and
+ * "Audio"); price bounds are kept exactly, with -0.0 folded into 0.0
+ */
+public final class QueryKey {
+
+    private static final int NAME = 0;
+    private static final int CATEGORY = 1;
+    private static final int PRICE = 2;
+    private static final int FILTER = 3;
+
+    private final int kind;
+    private final String term;
+    private final boolean availableOnly;
+    private final double minPrice;
+    private final double maxPrice;
+    private final int hash;
+
+    private QueryKey(int kind, String term, boolean availableOnly, double minPrice, double maxPrice) {
+        this.kind = kind;
+        this.term = term;
+        this.availableOnly = availableOnly;
+        this.minPrice = minPrice + 0.0;
+        this.maxPrice = maxPrice + 0.0;
+
+        int h = kind;
+        h = 31 * h + (term == null ? 0 : term.hashCode());
+        h = 31 * h + (availableOnly ? 1 : 0);
+        h = 31 * h + Double.hashCode(this.minPrice);
+        h = 31 * h + Double.hashCode(this.maxPrice);
+        this.hash = h;
+    }
+
+    /**
+     * Key of a name search (case-insensitive substring)
+     */
+    public static QueryKey name(String searchTerm) {
+        return new QueryKey(NAME, searchTerm == null ? null : ProductStore.normalizeName(searchTerm),
+                            false, 0.0, 0.0);
+    }
+
+    /**
+     * Key of a category search (case-insensitive equality)
+     */
+    public static QueryKey category(String category) {
+        return new QueryKey(CATEGORY, foldCategory(category), false, 0.0, 0.0);
+    }
+
+    /**
+     * Key of a price range search
+     */
+    public static QueryKey priceRange(double minPrice, double maxPrice) {
+        return new QueryKey(PRICE, null, false, minPrice, maxPrice);
+    }
+
+    /**
+     * Key of a combined category, availability and price filter
+     * @param category Category to match, or null for any category
+     */
+    public static QueryKey filter(String category, boolean availableOnly, double minPrice, double maxPrice) {
+        return new QueryKey(FILTER, foldCategory(category), availableOnly, minPrice, maxPrice);
+    }
+
+    /**
+     * Fold each character the way String.equalsIgnoreCase compares it
+     */
+    private static String foldCategory(String category) {
+        if (category == null) {
+            return null;
+        }
+        char[] folded = category.toCharArray();
+        for (int i = 0; i < folded.length; i++) {
+            folded[i] = Character.toLowerCase(Character.toUpperCase(folded[i]));
+        }
+        return new String(folded);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof QueryKey)) {
+            return false;
+        }
+        QueryKey other = (QueryKey) obj;
+        return kind == other.kind
+                && availableOnly == other.availableOnly
+                && Double.compare(minPrice, other.minPrice) == 0
+                && Double.compare(maxPrice, other.maxPrice) == 0
+                && (term == null ? other.term == null : term.equals(other.term));
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        switch (kind) {
+            case NAME:
+                return "name~'" + term + "'";
+            case CATEGORY:
+                return "category='" + term + "'";
+            case PRICE:
+                return "price in [" + minPrice + ", " + maxPrice + "]";
+            default:
+                return "filter(category=" + term + ", availableOnly=" + availableOnly
+                        + ", price in [" + minPrice + ", " + maxPrice + "])";
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * QueryPlan - explain output for one executed ProductQuery
+ * Records the selectivity estimate of every predicate, the access path that
+ * drove execution, the residual filters applied to its candidates and the
+ * actual work done, so a slow query can be traced to a poor plan
+ */
+public class QueryPlan {
+
+    private final String query;
+    private final int catalogSize;
+    private final List<String> estimates;
+    private final String accessPath;
+    private final List<String> residualFilters;
+    private final int candidatesExamined;
+    private final int matches;
+    private final long elapsedNanos;
+
+    public QueryPlan(String query, int catalogSize, List<String> estimates, String accessPath,
+                     List<String> residualFilters, int candidatesExamined, int matches, long elapsedNanos) {
+        this.query = query;
+        this.catalogSize = catalogSize;
+        this.estimates = Collections.unmodifiableList(new ArrayList<String>(estimates));
+        this.accessPath = accessPath;
+        this.residualFilters = Collections.unmodifiableList(new ArrayList<String>(residualFilters));
+        this.candidatesExamined = candidatesExamined;
+        this.matches = matches;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    // Getters
+    public List<String> getEstimates() {
+        return estimates;
+    }
+
+    public String getAccessPath() {
+        return accessPath;
+    }
+
+    public List<String> getResidualFilters() {
+        return residualFilters;
+    }
+
+    public int getCandidatesExamined() {
+        return candidatesExamined;
+    }
+
+    public int getMatches() {
+        return matches;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Multi-line explain output
+     */
+    public String explain() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("=== QUERY PLAN ===\n");
+        sb.append("Query: ").append(query).append("\n");
+        sb.append("Catalog size: ").append(catalogSize).append(" products\n");
+        sb.append("Estimates:\n");
+        if (estimates.isEmpty()) {
+            sb.append("  (no predicates)\n");
+        }
+        for (String estimate : estimates) {
+            sb.append("  ").append(estimate).append("\n");
+        }
+        sb.append("Access path: ").append(accessPath).append("\n");
+        sb.append("Residual filters: ");
+        if (residualFilters.isEmpty()) {
+            sb.append("none");
+        }
+        for (int i = 0; i < residualFilters.size(); i++) {
+            sb.append(i > 0 ? " -> " : "").append(residualFilters.get(i));
+        }
+        sb.append("\n");
+        sb.append("Candidates examined: ").append(candidatesExamined).append("\n");
+        sb.append("Matches: ").append(matches).append("\n");
+        sb.append(String.format("Elapsed: %.3f ms", elapsedNanos / 1000000.0));
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return explain();
+    }
+}
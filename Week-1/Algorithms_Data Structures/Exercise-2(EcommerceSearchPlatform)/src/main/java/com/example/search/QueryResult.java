@@ -0,0 +1,30 @@
+package com.example.search;
+
+/**
+ * QueryResult - products matched by a ProductQuery together with its plan
+ */
+public class QueryResult {
+
+    private final Product[] products;
+    private final QueryPlan plan;
+
+    public QueryResult(Product[] products, QueryPlan plan) {
+        this.products = products;
+        this.plan = plan;
+    }
+
+    /**
+     * Matching products in catalog order
+     */
+    public Product[] getProducts() {
+        return products.clone();
+    }
+
+    public int size() {
+        return products.length;
+    }
+
+    public QueryPlan getPlan() {
+        return plan;
+    }
+}
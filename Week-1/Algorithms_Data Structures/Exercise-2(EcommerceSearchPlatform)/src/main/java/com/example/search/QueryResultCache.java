@@ -0,0 +1,146 @@
+package com.example.search;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * QueryResultCache - bounded LRU cache of search results tagged with a catalog version
+ * Entries are evicted least recently used first once either the entry count or the
+ * total weight (matched products plus one per entry) exceeds its bound. There is
+ * no TTL: the first lookup for a newer catalog version drops every older entry,
+ * and lookups for an older version bypass the cache entirely
+ * All methods are synchronized; lookups are short, so one lock is enough
+ */
+public class QueryResultCache {
+
+    private final int maxEntries;
+    private final long maxWeight;
+    private final LinkedHashMap<QueryKey, SearchResult> entries;
+
+    private long version = Long.MIN_VALUE;
+    private long weight;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+    private long invalidationCount;
+
+    /**
+     * @param maxEntries Maximum number of cached queries
+     * @param maxWeight Maximum number of cached products over all entries, plus one per entry
+     */
+    public QueryResultCache(int maxEntries, long maxWeight) {
+        if (maxEntries < 1 || maxWeight < 1) {
+            throw new IllegalArgumentException("Cache bounds must be positive: " + maxEntries + ", " + maxWeight);
+        }
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+        this.entries = new LinkedHashMap<QueryKey, SearchResult>(16, 0.75f, true);
+    }
+
+    /**
+     * Cached result for a query at a catalog version
+     * @return The cached result, or null on a miss
+     */
+    public synchronized SearchResult get(QueryKey key, long catalogVersion) {
+        advanceTo(catalogVersion);
+        SearchResult result = catalogVersion == version ? entries.get(key) : null;
+        if (result == null) {
+            missCount++;
+        } else {
+            hitCount++;
+        }
+        return result;
+    }
+
+    /**
+     * Cache a result computed at a catalog version; results for older versions are ignored
+     */
+    public synchronized void put(QueryKey key, long catalogVersion, SearchResult result) {
+        advanceTo(catalogVersion);
+        long entryWeight = weightOf(result);
+        if (catalogVersion != version || entryWeight > maxWeight) {
+            return;
+        }
+
+        SearchResult previous = entries.put(key, result);
+        if (previous != null) {
+            weight -= weightOf(previous);
+        }
+        weight += entryWeight;
+
+        // Access order: the iterator starts at the least recently used entry
+        Iterator<Map.Entry<QueryKey, SearchResult>> eldest = entries.entrySet().iterator();
+        while (entries.size() > maxEntries || weight > maxWeight) {
+            weight -= weightOf(eldest.next().getValue());
+            eldest.remove();
+            evictionCount++;
+        }
+    }
+
+    /**
+     * Drop every entry
+     */
+    public synchronized void clear() {
+        invalidationCount += entries.size();
+        entries.clear();
+        weight = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getWeight() {
+        return weight;
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Entries removed to respect the size bounds
+     */
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Entries dropped because the catalog version moved on (or clear was called)
+     */
+    public synchronized long getInvalidationCount() {
+        return invalidationCount;
+    }
+
+    public synchronized double getHitRate() {
+        long lookups = hitCount + missCount;
+        return lookups == 0 ? 0.0 : (double) hitCount / lookups;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("QueryResultCache[entries=%d/%d, weight=%d/%d, hits=%d, misses=%d, "
+                             + "evictions=%d, invalidations=%d, hitRate=%.1f%%]",
+                             entries.size(), maxEntries, weight, maxWeight, hitCount, missCount,
+                             evictionCount, invalidationCount, getHitRate() * 100);
+    }
+
+    /**
+     * Move to a newer catalog version, dropping all entries of older ones
+     */
+    private void advanceTo(long catalogVersion) {
+        if (catalogVersion > version) {
+            clear();
+            version = catalogVersion;
+        }
+    }
+
+    private static long weightOf(SearchResult result) {
+        return result.size() + 1L;
+    }
+}
@@ -1,35 +1,47 @@
 package com.example.search;
 
-import java.util.List;
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Comparator;
 
 /**
  * SearchAlgorithms class implementing linear and binary search algorithms
  * for e-commerce product search functionality with performance analysis
+ * Searches are delegated to a shared, thread-safe ProductSearchService; this class
+ * only adds the lastOperationCount bookkeeping and reports, so an instance is meant
+ * for single-threaded use while several instances may share one service
  */
 public class SearchAlgorithms {
     
-    private Product[] products;
-    private Product[] sortedProducts;
+    private ProductSearchService service;
+    private ProductStore store;
     private int lastOperationCount;
+    private SearchMetrics metrics;
     
     /**
-     * Constructor - initializes with product array
+     * Constructor - initializes with product array and builds the search indexes
      */
     public SearchAlgorithms(Product[] products) {
-        this.products = Arrays.copyOf(products, products.length);
-        this.sortedProducts = Arrays.copyOf(products, products.length);
+        this(products, true);
+    }
+    
+    /**
+     * Constructor - initializes with product array
+     * @param products Products to search
+     * @param buildIndexes Whether to build the indexes used by the indexedSearch* methods
+     */
+    public SearchAlgorithms(Product[] products, boolean buildIndexes) {
+        this(new ProductSearchService(products, buildIndexes));
+    }
+    
+    /**
+     * Constructor - wraps an existing search service without copying its catalog
+     * Use one SearchAlgorithms per thread on top of a shared service
+     * @param service Thread-safe service holding the catalog and indexes
+     */
+    public SearchAlgorithms(ProductSearchService service) {
+        this.service = service;
+        this.store = service.store();
+        this.metrics = service.getMetrics();
         this.lastOperationCount = 0;
-        
-        // Sort products by ID for binary search
-        Arrays.sort(this.sortedProducts, new Comparator<Product>() {
-            @Override
-            public int compare(Product p1, Product p2) {
-                return Integer.compare(p1.getProductId(), p2.getProductId());
-            }
-        });
     }
     
     /**
@@ -43,10 +55,22 @@ public class SearchAlgorithms {
         return sb.toString();
     }
     
+    /**
+     * Record the comparison count of a result for getLastOperationCount, and its
+     * latency in the operation's histogram; the result already carries its elapsed
+     * time, so recording adds no clock read
+     */
+    private SearchResult record(SearchOperation operation, SearchResult result) {
+        lastOperationCount = result.getComparisonCount();
+        metrics.record(operation, result);
+        return result;
+    }
+    
     /**
      * LINEAR SEARCH IMPLEMENTATION
      * Time Complexity: O(n)
      * Space Complexity: O(1)
+     * Note: Scans run over the primitive columns of the product store
      */
     
     /**
@@ -55,15 +79,7 @@ public class SearchAlgorithms {
      * @return Product if found, null otherwise
      */
     public Product linearSearchById(int productId) {
-        lastOperationCount = 0;
-        
-        for (int i = 0; i < products.length; i++) {
-            lastOperationCount++;
-            if (products[i].getProductId() == productId) {
-                return products[i];
-            }
-        }
-        return null;
+        return record(SearchOperation.LINEAR_BY_ID, service.linearSearchById(productId)).first();
     }
     
     /**
@@ -72,20 +88,7 @@ public class SearchAlgorithms {
      * @return Array of products whose names contain the search term
      */
     public Product[] linearSearchByName(String searchTerm) {
-        lastOperationCount = 0;
-        List<Product> results = new ArrayList<Product>();
-        
-        if (searchTerm == null || searchTerm.trim().isEmpty()) {
-            return new Product[0];
-        }
-        
-        for (int i = 0; i < products.length; i++) {
-            lastOperationCount++;
-            if (products[i].containsInName(searchTerm)) {
-                results.add(products[i]);
-            }
-        }
-        return results.toArray(new Product[results.size()]);
+        return record(SearchOperation.LINEAR_BY_NAME, service.linearSearchByName(searchTerm)).matchesArray();
     }
     
     /**
@@ -94,20 +97,7 @@ public class SearchAlgorithms {
      * @return Array of products in the specified category
      */
     public Product[] linearSearchByCategory(String category) {
-        lastOperationCount = 0;
-        List<Product> results = new ArrayList<Product>();
-        
-        if (category == null || category.trim().isEmpty()) {
-            return new Product[0];
-        }
-        
-        for (int i = 0; i < products.length; i++) {
-            lastOperationCount++;
-            if (products[i].isInCategory(category)) {
-                results.add(products[i]);
-            }
-        }
-        return results.toArray(new Product[results.size()]);
+        return record(SearchOperation.LINEAR_BY_CATEGORY, service.linearSearchByCategory(category)).matchesArray();
     }
     
     /**
@@ -117,16 +107,7 @@ public class SearchAlgorithms {
      * @return Array of products within price range
      */
     public Product[] linearSearchByPriceRange(double minPrice, double maxPrice) {
-        lastOperationCount = 0;
-        List<Product> results = new ArrayList<Product>();
-        
-        for (int i = 0; i < products.length; i++) {
-            lastOperationCount++;
-            if (products[i].isPriceInRange(minPrice, maxPrice)) {
-                results.add(products[i]);
-            }
-        }
-        return results.toArray(new Product[results.size()]);
+        return record(SearchOperation.LINEAR_BY_PRICE_RANGE, service.linearSearchByPriceRange(minPrice, maxPrice)).matchesArray();
     }
     
     /**
@@ -142,25 +123,7 @@ public class SearchAlgorithms {
      * @return Product if found, null otherwise
      */
     public Product binarySearchById(int productId) {
-        lastOperationCount = 0;
-        
-        int left = 0;
-        int right = sortedProducts.length - 1;
-        
-        while (left <= right) {
-            lastOperationCount++;
-            int mid = left + (right - left) / 2;
-            int midProductId = sortedProducts[mid].getProductId();
-            
-            if (midProductId == productId) {
-                return sortedProducts[mid];
-            } else if (midProductId < productId) {
-                left = mid + 1;
-            } else {
-                right = mid - 1;
-            }
-        }
-        return null;
+        return record(SearchOperation.BINARY_BY_ID, service.binarySearchById(productId)).first();
     }
     
     /**
@@ -169,29 +132,317 @@ public class SearchAlgorithms {
      * @return Product if found, null otherwise
      */
     public Product binarySearchRecursive(int productId) {
-        lastOperationCount = 0;
-        return binarySearchRecursiveHelper(productId, 0, sortedProducts.length - 1);
+        return record(SearchOperation.BINARY_RECURSIVE_BY_ID, service.binarySearchRecursive(productId)).first();
     }
     
     /**
-     * Helper method for recursive binary search
+     * Binary search over IDs stored in Eytzinger (breadth-first) order
+     * Time Complexity: O(log n), with far fewer cache misses on large catalogs
+     * @param productId The ID to search for
+     * @return Product if found, null otherwise
      */
-    private Product binarySearchRecursiveHelper(int productId, int left, int right) {
-        if (left > right) {
-            return null;
-        }
-        
-        lastOperationCount++;
-        int mid = left + (right - left) / 2;
-        int midProductId = sortedProducts[mid].getProductId();
-        
-        if (midProductId == productId) {
-            return sortedProducts[mid];
-        } else if (midProductId < productId) {
-            return binarySearchRecursiveHelper(productId, mid + 1, right);
-        } else {
-            return binarySearchRecursiveHelper(productId, left, mid - 1);
-        }
+    public Product eytzingerSearchById(int productId) {
+        return record(SearchOperation.EYTZINGER_BY_ID, service.eytzingerSearchById(productId)).first();
+    }
+    
+    /**
+     * INTERPOLATION AND EXPONENTIAL SEARCH IMPLEMENTATION
+     * Time Complexity: O(log log n) average on uniform IDs, O(log n) worst case
+     */
+    
+    /**
+     * Interpolation search by product ID, guarded by a binary search fallback
+     * @param productId The ID to search for
+     * @return Product if found, null otherwise
+     */
+    public Product interpolationSearchById(int productId) {
+        return record(SearchOperation.INTERPOLATION_BY_ID, service.interpolationSearchById(productId)).first();
+    }
+    
+    /**
+     * Search by product ID, choosing interpolation or Eytzinger search from the sampled ID distribution
+     * @param productId The ID to search for
+     * @return Product if found, null otherwise
+     */
+    public Product adaptiveSearchById(int productId) {
+        return record(SearchOperation.ADAPTIVE_BY_ID, service.adaptiveSearchById(productId)).first();
+    }
+    
+    /**
+     * Batch lookup of ascending product IDs by exponential (galloping) search
+     * Time Complexity: O(k log(n / k)) for k IDs
+     * @param productIds IDs in ascending order
+     * @return Found products in request order
+     */
+    public Product[] exponentialSearchByIds(int[] productIds) {
+        return record(SearchOperation.EXPONENTIAL_BY_IDS, service.exponentialSearchByIds(productIds)).matchesArray();
+    }
+    
+    /**
+     * Batch lookup of product IDs in any order, e.g. the items of a cart
+     * The IDs are sorted once and merge-joined against the ID-sorted products
+     * Time Complexity: O(k log k + k log(n / k)) for k IDs
+     * @param productIds IDs to resolve, in any order
+     * @return Products in request order (null for missing IDs) and the missing IDs
+     */
+    public IdLookupResult findByIds(int[] productIds) {
+        IdLookupResult result = service.findByIds(productIds);
+        lastOperationCount = result.getComparisonCount();
+        metrics.record(SearchOperation.FIND_BY_IDS, result.getElapsedNanos(), lastOperationCount,
+                       result.getFoundCount());
+        return result;
+    }
+    
+    /**
+     * INDEXED SEARCH IMPLEMENTATION
+     * ID lookups: O(1) average via open-addressing hash index
+     * Name lookups: posting list intersection via trigram index
+     * Category lookups: dictionary code to bitmap, filters via word-level AND
+     * Price ranges: O(log n + k) via sorted price column
+     * Space Complexity: O(n) per index
+     * Note: Requires the indexes built at construction time
+     */
+    
+    /**
+     * Indexed search by product ID using the open-addressing hash index
+     * Falls back to binary search when the index was not built
+     * @param productId The ID to search for
+     * @return Product if found, null otherwise
+     */
+    public Product indexedSearchById(int productId) {
+        return record(SearchOperation.INDEXED_BY_ID, service.indexedSearchById(productId)).first();
+    }
+    
+    /**
+     * Indexed search by product name (partial matches) using the trigram index
+     * Returns the same products, in the same order, as linearSearchByName
+     * Falls back to linear search when the index was not built
+     * @param searchTerm Term to search for in product names
+     * @return Array of products whose names contain the search term
+     */
+    public Product[] indexedSearchByName(String searchTerm) {
+        return record(SearchOperation.INDEXED_BY_NAME, service.indexedSearchByName(searchTerm)).matchesArray();
+    }
+    
+    /**
+     * Indexed search by category using the category bitmap index
+     * Falls back to linear search when the index was not built
+     * @param category Category to search for
+     * @return Array of products in the specified category
+     */
+    public Product[] indexedSearchByCategory(String category) {
+        return record(SearchOperation.INDEXED_BY_CATEGORY, service.indexedSearchByCategory(category)).matchesArray();
+    }
+    
+    /**
+     * Indexed search by price range using the sorted price column
+     * Unlike linearSearchByPriceRange, results come back in ascending price order
+     * Falls back to linear search when the index was not built
+     * @param minPrice Minimum price
+     * @param maxPrice Maximum price
+     * @return Array of products within price range, cheapest first
+     */
+    public Product[] indexedSearchByPriceRange(double minPrice, double maxPrice) {
+        return record(SearchOperation.INDEXED_BY_PRICE_RANGE, service.indexedSearchByPriceRange(minPrice, maxPrice)).matchesArray();
+    }
+    
+    /**
+     * Combined category, availability and price filter
+     * Each predicate becomes a bitmap and the bitmaps are intersected word by word
+     * @param category Category to match, or null for any category
+     * @param availableOnly Whether to keep only in-stock products
+     * @param minPrice Minimum price
+     * @param maxPrice Maximum price
+     * @return Array of matching products in original order
+     */
+    public Product[] indexedFilter(String category, boolean availableOnly, double minPrice, double maxPrice) {
+        return record(SearchOperation.INDEXED_FILTER, service.indexedFilter(category, availableOnly, minPrice, maxPrice)).matchesArray();
+    }
+    
+    /**
+     * RANKED SEARCH IMPLEMENTATION
+     * Time Complexity: O(n log K) where K = offset + limit
+     * Space Complexity: O(K) via bounded heap
+     */
+    
+    /**
+     * Ranked search by product name, one page at a time
+     * @param searchTerm Term to search for in product names
+     * @param order Ranking, e.g. ProductComparators.BY_RATING
+     * @param offset Number of top-ranked matches to skip
+     * @param limit Page size
+     * @return The requested page, best first
+     */
+    public Product[] rankedSearchByName(String searchTerm, Comparator<Product> order, int offset, int limit) {
+        return record(SearchOperation.RANKED_BY_NAME, service.rankedSearchByName(searchTerm, order, offset, limit)).matchesArray();
+    }
+    
+    /**
+     * Ranked search by category, one page at a time
+     * @param category Category to search for
+     * @param order Ranking, e.g. ProductComparators.BY_RATING
+     * @param offset Number of top-ranked matches to skip
+     * @param limit Page size
+     * @return The requested page, best first
+     */
+    public Product[] rankedSearchByCategory(String category, Comparator<Product> order, int offset, int limit) {
+        return record(SearchOperation.RANKED_BY_CATEGORY, service.rankedSearchByCategory(category, order, offset, limit)).matchesArray();
+    }
+    
+    /**
+     * Ranked search by price range, one page at a time
+     * @param minPrice Minimum price
+     * @param maxPrice Maximum price
+     * @param order Ranking, e.g. ProductComparators.BY_RATING
+     * @param offset Number of top-ranked matches to skip
+     * @param limit Page size
+     * @return The requested page, best first
+     */
+    public Product[] rankedSearchByPriceRange(double minPrice, double maxPrice,
+                                              Comparator<Product> order, int offset, int limit) {
+        return record(SearchOperation.RANKED_BY_PRICE_RANGE, service.rankedSearchByPriceRange(minPrice, maxPrice, order, offset, limit)).matchesArray();
+    }
+    
+    /**
+     * Search-as-you-type completions of a name prefix
+     * @param prefix Typed text, case-insensitive
+     * @param limit Maximum number of completions
+     * @return Products whose name starts with the prefix, highest rating first
+     */
+    public Product[] autocomplete(String prefix, int limit) {
+        return record(SearchOperation.AUTOCOMPLETE, service.autocomplete(prefix, limit)).matchesArray();
+    }
+    
+    /**
+     * FUZZY SEARCH
+     * Typo-tolerant word matching, ranked by edit distance
+     */
+    
+    /**
+     * Fuzzy search by product name, e.g. "samsng galxy" finds "Samsung Galaxy S24"
+     * @param searchTerm One or more words, each matched against the words of product names
+     * @param maxDistance Edit distance allowed per word (1 or 2; 0 for exact words)
+     * @return Matching products, closest first
+     */
+    public Product[] fuzzySearchByName(String searchTerm, int maxDistance) {
+        return record(SearchOperation.FUZZY_BY_NAME, service.fuzzySearchByName(searchTerm, maxDistance)).matchesArray();
+    }
+    
+    /**
+     * ALLOCATION-FREE SEARCH
+     * Matches are streamed to a visitor or written to a reusable HitBuffer
+     * Time Complexity: O(n), no allocation per query
+     */
+    
+    /**
+     * Stream products whose name contains the term (case-insensitive)
+     * @param term Term compiled once with NameMatcher.compile and reused across searches
+     * @param visitor Receives each match; returning false stops the scan
+     */
+    public void visitByName(NameMatcher term, ProductVisitor visitor) {
+        long startTime = System.nanoTime();
+        lastOperationCount = service.visitByName(term, visitor);
+        metrics.record(SearchOperation.VISIT_BY_NAME, System.nanoTime() - startTime, lastOperationCount, 0);
+    }
+    
+    /**
+     * Collect products whose name contains the term into a reusable buffer
+     * @param term Term compiled once with NameMatcher.compile and reused across searches
+     * @param hits Buffer to fill; its previous contents are discarded
+     * @return Number of hits
+     */
+    public int collectByName(NameMatcher term, HitBuffer hits) {
+        long startTime = System.nanoTime();
+        hits.reset(store);
+        lastOperationCount = service.visitByName(term, hits);
+        metrics.record(SearchOperation.COLLECT_BY_NAME, System.nanoTime() - startTime, lastOperationCount, hits.size());
+        return hits.size();
+    }
+    
+    /**
+     * Collect products of a category into a reusable buffer
+     * @param category Category to look for
+     * @param hits Buffer to fill; its previous contents are discarded
+     * @return Number of hits
+     */
+    public int collectByCategory(String category, HitBuffer hits) {
+        long startTime = System.nanoTime();
+        hits.reset(store);
+        lastOperationCount = service.visitByCategory(category, hits);
+        metrics.record(SearchOperation.COLLECT_BY_CATEGORY, System.nanoTime() - startTime, lastOperationCount, hits.size());
+        return hits.size();
+    }
+    
+    /**
+     * COMPOSITE QUERY EXECUTION
+     * Drives a multi-predicate query from its cheapest indexed predicate
+     */
+    
+    /**
+     * Execute a composite query (name, category, price, availability, rating)
+     * @param query The query to run, built with ProductQuery.builder()
+     * @return Matching products in original order, with the explain plan
+     */
+    public QueryResult executeQuery(ProductQuery query) {
+        QueryResult result = service.executeQuery(query);
+        lastOperationCount = result.getPlan().getCandidatesExamined();
+        metrics.record(SearchOperation.QUERY, result.getPlan().getElapsedNanos(), lastOperationCount, result.size());
+        return result;
+    }
+    
+    /**
+     * Execute a composite query and count the matches per category, price bucket
+     * and rating band in the same pass, for a listing page's filter sidebar
+     * @param query The query to run, built with ProductQuery.builder()
+     * @return Matching products in original order, with the plan and facet counts
+     */
+    public FacetedResult executeFacetedQuery(ProductQuery query) {
+        FacetedResult result = service.executeFacetedQuery(query);
+        lastOperationCount = result.getPlan().getCandidatesExamined();
+        metrics.record(SearchOperation.FACETED_QUERY, result.getPlan().getElapsedNanos(), lastOperationCount, result.size());
+        return result;
+    }
+    
+    /**
+     * Check whether the ID hash index is available
+     */
+    public boolean hasIdIndex() {
+        return service.hasIdIndex();
+    }
+    
+    /**
+     * Check whether the trigram name index is available
+     */
+    public boolean hasNameIndex() {
+        return service.hasNameIndex();
+    }
+    
+    /**
+     * Check whether the category bitmap index is available
+     */
+    public boolean hasCategoryIndex() {
+        return service.hasCategoryIndex();
+    }
+    
+    /**
+     * Check whether the sorted price index is available
+     */
+    public boolean hasPriceIndex() {
+        return service.hasPriceIndex();
+    }
+    
+    /**
+     * Latency histograms of every instance sharing this service, per operation
+     */
+    public SearchMetrics getMetrics() {
+        return metrics;
+    }
+    
+    /**
+     * Get the shared thread-safe search service behind this instance
+     */
+    public ProductSearchService getService() {
+        return service;
     }
     
     /**
@@ -206,7 +457,7 @@ public class SearchAlgorithms {
         System.out.println("\n" + repeatString("=", 60));
         System.out.println("🚀 SEARCH PERFORMANCE COMPARISON");
         System.out.println(repeatString("=", 60));
-        System.out.println("Dataset size: " + products.length + " products");
+        System.out.println("Dataset size: " + store.size() + " products");
         System.out.println("Target Product ID: " + productId);
         System.out.println(repeatString("-", 60));
         
@@ -222,6 +473,29 @@ public class SearchAlgorithms {
         long binaryTime = System.nanoTime() - startTime;
         int binaryOperations = lastOperationCount;
         
+        // Eytzinger Layout Search Performance
+        startTime = System.nanoTime();
+        Product eytzingerResult = eytzingerSearchById(productId);
+        long eytzingerTime = System.nanoTime() - startTime;
+        int eytzingerOperations = lastOperationCount;
+        
+        // Interpolation Search Performance
+        startTime = System.nanoTime();
+        Product interpolationResult = interpolationSearchById(productId);
+        long interpolationTime = System.nanoTime() - startTime;
+        int interpolationOperations = lastOperationCount;
+        
+        // Indexed Search Performance
+        Product indexedResult = null;
+        long indexedTime = 0;
+        int indexedOperations = 0;
+        if (service.hasIdIndex()) {
+            startTime = System.nanoTime();
+            indexedResult = indexedSearchById(productId);
+            indexedTime = System.nanoTime() - startTime;
+            indexedOperations = lastOperationCount;
+        }
+        
         // Display results
         System.out.println("LINEAR SEARCH:");
         System.out.println("  Result: " + (linearResult != null ? "✅ Found" : "❌ Not Found"));
@@ -241,6 +515,35 @@ public class SearchAlgorithms {
         System.out.println("  Comparisons: " + binaryOperations);
         System.out.println("  Time Complexity: O(log n)");
         
+        System.out.println("\nEYTZINGER LAYOUT SEARCH:");
+        System.out.println("  Result: " + (eytzingerResult != null ? "✅ Found" : "❌ Not Found"));
+        if (eytzingerResult != null) {
+            System.out.println("  Product: " + eytzingerResult.getProductName());
+        }
+        System.out.println("  Time: " + eytzingerTime + " nanoseconds");
+        System.out.println("  Comparisons: " + eytzingerOperations);
+        System.out.println("  Time Complexity: O(log n), cache-friendly");
+        
+        System.out.println("\nINTERPOLATION SEARCH" + (service.hasUniformIds() ? " (uniform IDs)" : " (skewed IDs)") + ":");
+        System.out.println("  Result: " + (interpolationResult != null ? "✅ Found" : "❌ Not Found"));
+        if (interpolationResult != null) {
+            System.out.println("  Product: " + interpolationResult.getProductName());
+        }
+        System.out.println("  Time: " + interpolationTime + " nanoseconds");
+        System.out.println("  Probes: " + interpolationOperations);
+        System.out.println("  Time Complexity: O(log log n) on uniform IDs, O(log n) worst case");
+        
+        if (service.hasIdIndex()) {
+            System.out.println("\nINDEXED (HASH) SEARCH:");
+            System.out.println("  Result: " + (indexedResult != null ? "✅ Found" : "❌ Not Found"));
+            if (indexedResult != null) {
+                System.out.println("  Product: " + indexedResult.getProductName());
+            }
+            System.out.println("  Time: " + indexedTime + " nanoseconds");
+            System.out.println("  Probes: " + indexedOperations);
+            System.out.println("  Time Complexity: O(1) average");
+        }
+        
         // Performance Analysis
         System.out.println("\n📊 PERFORMANCE ANALYSIS:");
         if (linearOperations > 0 && binaryOperations > 0) {
@@ -253,8 +556,17 @@ public class SearchAlgorithms {
             System.out.printf("  Speed Improvement: %.1fx faster\n", speedRatio);
         }
         
+        if (eytzingerTime > 0) {
+            System.out.printf("  Eytzinger vs Binary: %.1fx faster\n", (double) binaryTime / eytzingerTime);
+        }
+        
+        if (service.hasIdIndex() && indexedOperations > 0) {
+            System.out.printf("  Index vs Binary: %.1fx fewer comparisons with the hash index\n",
+                            (double) binaryOperations / indexedOperations);
+        }
+        
         // Theoretical Analysis
-        int n = products.length;
+        int n = store.size();
         int theoreticalLinear = n / 2; // Average case
         int theoreticalBinary = (int) Math.ceil(Math.log(n) / Math.log(2)); // Worst case
         
@@ -272,7 +584,7 @@ public class SearchAlgorithms {
         System.out.println("📈 SEARCH SCENARIO ANALYSIS");
         System.out.println(repeatString("=", 70));
         
-        if (products.length == 0) {
+        if (store.size() == 0) {
             System.out.println("No products available for analysis.");
             return;
         }
@@ -283,12 +595,12 @@ public class SearchAlgorithms {
         System.out.println("Binary Search: Target at middle position");
         
         // Test first element (best case for linear)
-        Product firstProduct = products[0];
+        Product firstProduct = store.row(0);
         Product linearResult = linearSearchById(firstProduct.getProductId());
         int linearBestCase = lastOperationCount;
         
         // Test middle element (best case for binary in some cases)
-        Product middleProduct = sortedProducts[sortedProducts.length / 2];
+        Product middleProduct = store.row(store.slotInIdOrder(store.size() / 2));
         Product binaryResult = binarySearchById(middleProduct.getProductId());
         int binaryBestCase = lastOperationCount;
         
@@ -302,7 +614,7 @@ public class SearchAlgorithms {
         System.out.println("Binary Search: Maximum tree depth traversal");
         
         // Test last element (worst case for linear)
-        Product lastProduct = products[products.length - 1];
+        Product lastProduct = store.row(store.size() - 1);
         linearResult = linearSearchById(lastProduct.getProductId());
         int linearWorstCase = lastOperationCount;
         
@@ -316,9 +628,9 @@ public class SearchAlgorithms {
         
         // Average Case Analysis
         System.out.println("\n📊 AVERAGE CASE ANALYSIS:");
-        System.out.println("  Linear Search: O(n/2) ≈ " + (products.length / 2) + " comparisons");
+        System.out.println("  Linear Search: O(n/2) ≈ " + (store.size() / 2) + " comparisons");
         System.out.println("  Binary Search: O(log n) ≈ " + 
-                         (int) Math.ceil(Math.log(products.length) / Math.log(2)) + " comparisons");
+                         (int) Math.ceil(Math.log(store.size()) / Math.log(2)) + " comparisons");
     }
     
     /**
@@ -332,14 +644,14 @@ public class SearchAlgorithms {
      * Get the original products array
      */
     public Product[] getProducts() {
-        return Arrays.copyOf(products, products.length);
+        return store.allRows();
     }
     
     /**
      * Get the sorted products array
      */
     public Product[] getSortedProducts() {
-        return Arrays.copyOf(sortedProducts, sortedProducts.length);
+        return store.rowsInIdOrder();
     }
     
     /**
@@ -409,15 +721,15 @@ public class SearchAlgorithms {
         System.out.println("🚀 COMPREHENSIVE PERFORMANCE BENCHMARK");
         System.out.println(repeatString("=", 70));
         
-        int[] testCases = {1, products.length / 4, products.length / 2, 
-                          3 * products.length / 4, products.length};
+        int n = store.size();
+        int[] testCases = {1, n / 4, n / 2, 3 * n / 4, n};
         
-        System.out.println("Testing with " + products.length + " products:");
+        System.out.println("Testing with " + n + " products:");
         System.out.println(repeatString("-", 70));
         
         for (int i = 0; i < testCases.length; i++) {
-            if (testCases[i] <= products.length && testCases[i] > 0) {
-                int targetId = products[testCases[i] - 1].getProductId();
+            if (testCases[i] <= n && testCases[i] > 0) {
+                int targetId = store.idAt(testCases[i] - 1);
                 System.out.println("\nTest Case " + (i + 1) + ": Searching for position " + testCases[i]);
                 compareSearchPerformance(targetId);
             }
@@ -0,0 +1,92 @@
+package com.example.search;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * SearchMetrics - per-operation latency histograms for the search entry points
+ * One LatencyHistogram per SearchOperation, looked up by ordinal, so recording
+ * needs no map lookup and no lock; shared by every SearchAlgorithms on one service
+ */
+public class SearchMetrics {
+
+    private final LatencyHistogram[] histograms;
+    private volatile boolean enabled = true;
+
+    public SearchMetrics() {
+        SearchOperation[] operations = SearchOperation.values();
+        this.histograms = new LatencyHistogram[operations.length];
+        for (int i = 0; i < operations.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Record one call of an operation
+     */
+    public void record(SearchOperation operation, long nanos, int comparisons, int results) {
+        if (enabled) {
+            histograms[operation.ordinal()].record(nanos, comparisons, results);
+        }
+    }
+
+    /**
+     * Record a finished search
+     */
+    public void record(SearchOperation operation, SearchResult result) {
+        record(operation, result.getElapsedNanos(), result.getComparisonCount(), result.size());
+    }
+
+    /**
+     * Turn recording on or off; snapshots keep what was recorded so far
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Current figures for one operation
+     */
+    public LatencyHistogram.Snapshot snapshot(SearchOperation operation) {
+        return histograms[operation.ordinal()].snapshot();
+    }
+
+    /**
+     * Current figures for every operation called at least once, in declaration order
+     */
+    public Map<SearchOperation, LatencyHistogram.Snapshot> snapshotAll() {
+        Map<SearchOperation, LatencyHistogram.Snapshot> snapshots =
+                new EnumMap<SearchOperation, LatencyHistogram.Snapshot>(SearchOperation.class);
+        for (SearchOperation operation : SearchOperation.values()) {
+            LatencyHistogram.Snapshot snapshot = snapshot(operation);
+            if (snapshot.getCount() > 0) {
+                snapshots.put(operation, snapshot);
+            }
+        }
+        return snapshots;
+    }
+
+    /**
+     * Clear every histogram
+     */
+    public void reset() {
+        for (LatencyHistogram histogram : histograms) {
+            histogram.reset();
+        }
+    }
+
+    /**
+     * One line per operation called so far
+     */
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<SearchOperation, LatencyHistogram.Snapshot> entry : snapshotAll().entrySet()) {
+            sb.append(String.format("%-24s %s%n", entry.getKey(), entry.getValue()));
+        }
+        return sb.toString();
+    }
+}
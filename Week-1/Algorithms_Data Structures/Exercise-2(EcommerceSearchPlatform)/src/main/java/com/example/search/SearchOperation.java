@@ -0,0 +1,34 @@
+package com.example.search;
+
+/**
+ * SearchOperation - the instrumented SearchAlgorithms entry points
+ * Each constant owns one latency histogram in SearchMetrics, found by ordinal
+ */
+public enum SearchOperation {
+    LINEAR_BY_ID,
+    LINEAR_BY_NAME,
+    LINEAR_BY_CATEGORY,
+    LINEAR_BY_PRICE_RANGE,
+    BINARY_BY_ID,
+    BINARY_RECURSIVE_BY_ID,
+    EYTZINGER_BY_ID,
+    INTERPOLATION_BY_ID,
+    ADAPTIVE_BY_ID,
+    EXPONENTIAL_BY_IDS,
+    FIND_BY_IDS,
+    INDEXED_BY_ID,
+    INDEXED_BY_NAME,
+    INDEXED_BY_CATEGORY,
+    INDEXED_BY_PRICE_RANGE,
+    INDEXED_FILTER,
+    RANKED_BY_NAME,
+    RANKED_BY_CATEGORY,
+    RANKED_BY_PRICE_RANGE,
+    AUTOCOMPLETE,
+    FUZZY_BY_NAME,
+    VISIT_BY_NAME,
+    COLLECT_BY_NAME,
+    COLLECT_BY_CATEGORY,
+    QUERY,
+    FACETED_QUERY
+}
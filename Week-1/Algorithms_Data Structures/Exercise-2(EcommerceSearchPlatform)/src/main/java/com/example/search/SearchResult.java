@@ -0,0 +1,75 @@
+package com.example.search;
+
+/**
+ * SearchResult - immutable outcome of a single search call
+ * Carries the matched products, the number of comparisons (or probes) the
+ * algorithm performed and the elapsed time, so concurrent callers never share
+ * per-search state
+ */
+public class SearchResult {
+
+    private static final Product[] NO_PRODUCTS = new Product[0];
+
+    private final Product[] matches;
+    private final int comparisonCount;
+    private final long elapsedNanos;
+
+    public SearchResult(Product[] matches, int comparisonCount, long elapsedNanos) {
+        this.matches = matches;
+        this.comparisonCount = comparisonCount;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Result of a single-product lookup
+     * @param match Found product, or null if not found
+     */
+    public static SearchResult single(Product match, int comparisonCount, long elapsedNanos) {
+        return new SearchResult(match == null ? NO_PRODUCTS : new Product[] {match},
+                                comparisonCount, elapsedNanos);
+    }
+
+    /**
+     * Copy of the matched products
+     */
+    public Product[] getMatches() {
+        return matches.clone();
+    }
+
+    /**
+     * Matched products without a defensive copy, for callers in this package
+     * that hand the array straight to their own caller
+     */
+    Product[] matchesArray() {
+        return matches;
+    }
+
+    /**
+     * First matched product, or null if nothing matched
+     */
+    public Product first() {
+        return matches.length > 0 ? matches[0] : null;
+    }
+
+    public int size() {
+        return matches.length;
+    }
+
+    public boolean isEmpty() {
+        return matches.length == 0;
+    }
+
+    public int getComparisonCount() {
+        return comparisonCount;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SearchResult[matches=%d, comparisons=%d, time=%.2f μs]",
+                             matches.length, comparisonCount, elapsedNanos / 1000.0);
+    }
+}
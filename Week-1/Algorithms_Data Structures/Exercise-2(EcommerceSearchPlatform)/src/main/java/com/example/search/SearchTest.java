@@ -1,7 +1,14 @@
 package com.example.search;
 
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Comprehensive test class for search algorithms
@@ -47,6 +54,9 @@ public class SearchTest {
                 case "edge":
                     tester.runEdgeCaseTests();
                     break;
+                case "concurrent":
+                    tester.runConcurrencyTests();
+                    break;
                 case "all":
                     tester.runAllTests();
                     break;
@@ -70,6 +80,7 @@ public class SearchTest {
         runBasicTests();
         runPerformanceTests();
         runEdgeCaseTests();
+        runConcurrencyTests();
         explainTheory();
         
         System.out.println("\n" + repeatString('=', 80));
@@ -118,6 +129,9 @@ public class SearchTest {
         for (Product product : nameResults) {
             System.out.println("- " + product.getProductName() + " (ID: " + product.getProductId() + ")");
         }
+        Product[] indexedNameResults = searchAlgorithms.indexedSearchByName("iPhone");
+        System.out.println("Trigram index results: " + indexedNameResults.length + 
+                         (Arrays.equals(nameResults, indexedNameResults) ? " ✅ matches linear search" : " ❌ differs from linear search"));
         
         // Test 6: Category search
         System.out.println("\n📋 Test 6: Search by category");
@@ -127,6 +141,350 @@ public class SearchTest {
         for (Product product : categoryResults) {
             System.out.println("- " + product.getProductName() + " (ID: " + product.getProductId() + ")");
         }
+        Product[] indexedCategoryResults = searchAlgorithms.indexedSearchByCategory("smartphones");
+        System.out.println("Bitmap index results: " + indexedCategoryResults.length + 
+                         (Arrays.equals(categoryResults, indexedCategoryResults) ? " ✅ matches linear search" : " ❌ differs from linear search"));
+        
+        // Test 7: Combined filter
+        System.out.println("\n📋 Test 7: Category + availability + price filter");
+        Product[] filterResults = searchAlgorithms.indexedFilter("Laptops", true, 1000.0, 1800.0);
+        System.out.println("Filter: Laptops, in stock, $1000 - $1800");
+        System.out.println("Results found: " + filterResults.length);
+        for (Product product : filterResults) {
+            System.out.println("- " + product.getProductName() + " (" + product.getFormattedPrice() + ")");
+        }
+        
+        // Test 8: Price range search
+        System.out.println("\n📋 Test 8: Search by price range");
+        Product[] linearPriceResults = searchAlgorithms.linearSearchByPriceRange(200.0, 500.0);
+        Product[] indexedPriceResults = searchAlgorithms.indexedSearchByPriceRange(200.0, 500.0);
+        System.out.println("Price range: $200 - $500");
+        System.out.println("Results found: " + indexedPriceResults.length + " (cheapest first)");
+        for (Product product : indexedPriceResults) {
+            System.out.println("- " + product.getProductName() + " (" + product.getFormattedPrice() + ")");
+        }
+        boolean samePriceResults = linearPriceResults.length == indexedPriceResults.length
+                && new HashSet<Product>(Arrays.asList(linearPriceResults))
+                       .containsAll(Arrays.asList(indexedPriceResults));
+        System.out.println(samePriceResults ? "✅ Price index matches linear search" : "❌ Price index differs from linear search");
+        
+        // Test 9: Composite query with explain plan
+        System.out.println("\n📋 Test 9: Composite query");
+        ProductQuery query = ProductQuery.builder()
+                .nameContains("pro")
+                .priceBetween(200.0, 2000.0)
+                .availableOnly()
+                .minRating(4.5)
+                .build();
+        QueryResult queryResult = searchAlgorithms.executeQuery(query);
+        for (Product product : queryResult.getProducts()) {
+            System.out.println("- " + product.getProductName() + " (" + product.getFormattedPrice() + ")");
+        }
+        System.out.println(queryResult.getPlan().explain());
+        int expectedMatches = 0;
+        for (Product product : products) {
+            if (query.matches(product)) {
+                expectedMatches++;
+            }
+        }
+        System.out.println(expectedMatches == queryResult.size() ? "✅ Planner matches brute-force evaluation" : "❌ Planner differs from brute-force evaluation");
+        
+        // Test 10: Ranked, paginated search
+        System.out.println("\n📋 Test 10: Top rated Laptops, page 1 (2 per page)");
+        Product[] page = searchAlgorithms.rankedSearchByCategory("Laptops", ProductComparators.BY_RATING, 0, 2);
+        for (Product product : page) {
+            System.out.println("- " + product.getProductName() + " " + product.getRatingStars());
+        }
+        
+        // Test 11: Catalog updates with snapshot isolation
+        System.out.println("\n📋 Test 11: Catalog update visible only in newer snapshots");
+        ProductCatalog catalog = new ProductCatalog(products);
+        CatalogSnapshot before = catalog.snapshot();
+        Product restocked = before.findById(products[0].getProductId()).first().copy();
+        restocked.setStockQuantity(restocked.getStockQuantity() + 10);
+        catalog.apply(new ProductCatalog.Batch()
+                .update(restocked)
+                .add(new Product(999, "USB-C Hub", "Electronics", 39.99, "7-port hub", 25, 4.1)));
+        CatalogSnapshot after = catalog.snapshot();
+        System.out.println("Version " + before.getVersion() + ": " + before.size() + " products, stock "
+                           + before.findById(restocked.getProductId()).first().getStockQuantity());
+        System.out.println("Version " + after.getVersion() + ": " + after.size() + " products, stock "
+                           + after.findById(restocked.getProductId()).first().getStockQuantity());
+        System.out.println(before.findById(999).isEmpty() && !after.findById(999).isEmpty() ?
+                          "✅ Readers keep their snapshot" : "❌ Snapshot changed under a reader");
+        
+        // Test 12: Interpolation and exponential search on patterned IDs
+        System.out.println("\n📋 Test 12: Interpolation and galloping search on IDs 5000, 5007, 5014, ...");
+        SearchAlgorithms patterned = new SearchAlgorithms(dataGenerator.generateProductsWithIdPattern(10000, 5000, 7));
+        System.out.println("Uniform IDs detected: " + patterned.getService().hasUniformIds());
+        patterned.binarySearchById(5000 + 7 * 6543);
+        int binaryProbes = patterned.getLastOperationCount();
+        Product interpolated = patterned.adaptiveSearchById(5000 + 7 * 6543);
+        System.out.println("Binary search probes: " + binaryProbes + ", interpolation probes: "
+                           + patterned.getLastOperationCount());
+        Product[] batch = patterned.exponentialSearchByIds(new int[] {5000, 5001, 5070, 5700, 75000});
+        System.out.println("Batch of 5 IDs: " + batch.length + " found with "
+                           + patterned.getLastOperationCount() + " probes");
+        System.out.println(interpolated != null && batch.length == 3 ?
+                          "✅ Interpolation and galloping search agree" : "❌ Unexpected lookup results");
+        
+        // Test 13: Versioned query result cache
+        System.out.println("\n📋 Test 13: Query cache hits, then invalidation on catalog update");
+        CachedProductSearch cachedSearch = new CachedProductSearch(catalog, new QueryResultCache(2, 100));
+        cachedSearch.searchByCategory("Audio");
+        cachedSearch.searchByCategory("AUDIO");
+        cachedSearch.searchByName("Pro");
+        cachedSearch.searchByName("pro");
+        cachedSearch.searchByPriceRange(100, 200);
+        catalog.remove(999);
+        int audioAfterUpdate = cachedSearch.searchByCategory("audio").size();
+        QueryResultCache cache = cachedSearch.getCache();
+        System.out.println(cache);
+        System.out.println(cache.getHitCount() == 2 && cache.getEvictionCount() == 1 && cache.getInvalidationCount() == 2
+                          && audioAfterUpdate == catalog.snapshot().searchByCategory("Audio").size() ?
+                          "✅ Cache keyed by normalized query and catalog version" : "❌ Unexpected cache behaviour");
+        
+        // Test 14: Memory-mapped catalog file
+        System.out.println("\n📋 Test 14: Write, map and query a binary catalog file");
+        try {
+            Path catalogFile = Files.createTempFile("products", ".pcat");
+            try {
+                MappedCatalog.write(products, catalogFile);
+                long startTime = System.nanoTime();
+                MappedCatalog mapped = MappedCatalog.open(catalogFile);
+                long openTime = System.nanoTime() - startTime;
+                Product mappedProduct = mapped.findById(products[3].getProductId());
+                System.out.printf("Opened %d products (%d bytes) in %.2f ms\n",
+                                 mapped.size(), Files.size(catalogFile), openTime / 1000000.0);
+                System.out.println(mappedProduct != null && mappedProduct.equals(products[3])
+                                   && mappedProduct.getProductName().equals(products[3].getProductName()) ?
+                                  "✅ Mapped catalog matches the source products" : "❌ Mapped catalog differs");
+                ProductSearchService mappedService = new ProductSearchService(mapped, false);
+                System.out.println(Arrays.equals(mappedService.linearSearchByCategory("Electronics").matchesArray(),
+                                                 searchAlgorithms.getService().linearSearchByCategory("Electronics").matchesArray())
+                                   && Arrays.equals(mappedService.linearSearchByName("PRO").matchesArray(),
+                                                    searchAlgorithms.getService().linearSearchByName("PRO").matchesArray()) ?
+                                  "✅ Search over the mapped columns matches" : "❌ Unexpected mapped search results");
+                mapped.close();
+            } finally {
+                Files.delete(catalogFile);
+            }
+        } catch (IOException e) {
+            System.out.println("❌ Catalog file error: " + e.getMessage());
+        }
+        
+        // Test 15: Streaming CSV import with a bad row
+        System.out.println("\n📋 Test 15: Import a CSV feed, skipping invalid rows");
+        String feed = "productId,productName,category,price,stockQuantity,rating\n"
+                    + "2001,\"Keyboard, mechanical\",Accessories,89.50,12,4.4\n"
+                    + "2002,Webcam HD,Accessories,not-a-price,5,4.0\n"
+                    + "2003,Desk Lamp,Home,24.99,40,3.9\n";
+        try {
+            CatalogImporter.ProductList imported = new CatalogImporter.ProductList();
+            ImportReport report = new CatalogImporter(CatalogImporter.Format.CSV)
+                    .importFrom(new StringReader(feed), imported);
+            System.out.println(report);
+            for (ImportReport.RowError error : report.getErrors()) {
+                System.out.println("- rejected " + error);
+            }
+            System.out.println(imported.size() == 2 && report.getErrorCount() == 1 ?
+                              "✅ Valid rows imported, invalid row reported" : "❌ Unexpected import result");
+
+            // A stray quote must cost only its own row, not the rest of the feed
+            StringBuilder strayQuoteFeed = new StringBuilder("productId,productName,category,price,stockQuantity,rating\n")
+                    .append("2001,Webcam 1080p \"HD,Accessories,49.99,5,4.0\n");
+            for (int id = 3000; id < 4000; id++) {
+                strayQuoteFeed.append(id).append(",Cable ").append(id).append(",Accessories,9.99,100,4.2\n");
+            }
+            CatalogImporter.ProductList strayImported = new CatalogImporter.ProductList();
+            ImportReport strayReport = new CatalogImporter(CatalogImporter.Format.CSV)
+                    .importFrom(new StringReader(strayQuoteFeed.toString()), strayImported);
+            System.out.println(strayReport);
+            System.out.println(strayReport.getRowsRead() == 1001 && strayImported.size() == 1000
+                               && strayReport.getErrorCount() == 1 && strayReport.getErrors().get(0).getLineNumber() == 2 ?
+                              "✅ Stray quote rejected on its own line" : "❌ Unexpected stray quote import result");
+        } catch (IOException e) {
+            System.out.println("❌ Import failed: " + e.getMessage());
+        }
+        
+        // Test 16: Fuzzy name search with typos
+        System.out.println("\n📋 Test 16: Fuzzy search by product name");
+        Product[] fuzzyResults = searchAlgorithms.fuzzySearchByName("samsng galxy", 2);
+        System.out.println("Search term: 'samsng galxy' (" + searchAlgorithms.getLastOperationCount() + " trie nodes visited)");
+        for (Product product : fuzzyResults) {
+            System.out.println("- " + product.getProductName() + " (ID: " + product.getProductId() + ")");
+        }
+        Product[] fuzzyScan = new SearchAlgorithms(products, false).fuzzySearchByName("samsng galxy", 2);
+        System.out.println(fuzzyResults.length > 0 && fuzzyResults[0].getProductName().equals("Samsung Galaxy S24")
+                          && Arrays.equals(fuzzyResults, fuzzyScan) ?
+                          "✅ Misspelled words matched, index agrees with scan" : "❌ Unexpected fuzzy results");
+        
+        // Test 17: Prefix autocomplete
+        System.out.println("\n📋 Test 17: Autocomplete a typed prefix");
+        Product[] completions = searchAlgorithms.autocomplete("sam", 5);
+        System.out.println("Prefix: 'sam' (" + searchAlgorithms.getLastOperationCount() + " trie nodes visited)");
+        for (Product product : completions) {
+            System.out.println("- " + product.getProductName() + " (rating: " + product.getRating() + ")");
+        }
+        Product[] scannedCompletions = new SearchAlgorithms(products, false).autocomplete("sam", 5);
+        System.out.println(completions.length > 0 && Arrays.equals(completions, scannedCompletions) ?
+                          "✅ Completions ranked by rating, trie agrees with scan" : "❌ Unexpected completions");
+        
+        // Test 18: Allocation-free search into a reused hit buffer
+        System.out.println("\n📋 Test 18: Collect matches into a reusable hit buffer");
+        HitBuffer hits = new HitBuffer(4);
+        NameMatcher proTerm = NameMatcher.compile("PRO");
+        int bufferMatches = searchAlgorithms.collectByName(proTerm, hits);
+        int grownCapacity = hits.capacity();
+        for (int i = 0; i < hits.size(); i++) {
+            System.out.println("- " + hits.productAt(i).getProductName() + " (slot " + hits.slotAt(i) + ")");
+        }
+        boolean sameAsScan = bufferMatches == searchAlgorithms.linearSearchByName("pro").length;
+        searchAlgorithms.collectByCategory("laptops", hits);
+        sameAsScan &= hits.size() == searchAlgorithms.linearSearchByCategory("Laptops").length;
+        searchAlgorithms.collectByName(proTerm, hits);
+        System.out.println(sameAsScan && hits.size() == bufferMatches && hits.capacity() == grownCapacity ?
+                          "✅ Buffer reused across queries, results match the scans" : "❌ Unexpected hit buffer results");
+        
+        // Test 19: Faceted counts for a listing page
+        System.out.println("\n📋 Test 19: Facet counts for a query in one pass");
+        FacetedResult faceted = searchAlgorithms.executeFacetedQuery(ProductQuery.builder().nameContains("pro").build());
+        System.out.println("Query: name contains 'pro' (" + faceted.size() + " matches)");
+        System.out.println(faceted.getFacets());
+        int categoryTotal = 0;
+        for (int count : faceted.getFacets().getCategoryCounts().values()) {
+            categoryTotal += count;
+        }
+        System.out.println(categoryTotal == faceted.size()
+                          && faceted.getFacets().getCategoryCounts().get("Laptops") == searchAlgorithms.executeQuery(
+                                 ProductQuery.builder().nameContains("pro").category("Laptops").build()).size() ?
+                          "✅ Facet counts agree with the filtered queries" : "❌ Unexpected facet counts");
+        
+        // Test 20: Latency histograms per operation
+        System.out.println("\n📋 Test 20: Latency histograms of the search calls");
+        SearchMetrics metrics = searchAlgorithms.getMetrics();
+        metrics.reset();
+        for (int i = 0; i < 1000; i++) {
+            searchAlgorithms.binarySearchById(products[i % products.length].getProductId());
+        }
+        searchAlgorithms.linearSearchByName("pro");
+        System.out.print(metrics.report());
+        LatencyHistogram.Snapshot binaryStats = metrics.snapshot(SearchOperation.BINARY_BY_ID);
+        System.out.println(binaryStats.getCount() == 1000 && binaryStats.getMeanResults() == 1.0
+                          && metrics.snapshot(SearchOperation.LINEAR_BY_NAME).getCount() == 1
+                          && binaryStats.getPercentileNanos(50) <= binaryStats.getPercentileNanos(99) ?
+                          "✅ Every call recorded with its comparisons and result size" : "❌ Unexpected latency histograms");
+        
+        // Test 21: Deterministic parallel catalog generation
+        System.out.println("\n📋 Test 21: Same catalog from one and four generator threads");
+        ProductColumns oneThread = new ParallelProductGenerator(42, 1).generateColumns(200000);
+        Product[] fourThreads = new ParallelProductGenerator(42, 4).generateProducts(200000);
+        boolean identical = true;
+        for (int i = 0; i < fourThreads.length; i++) {
+            Product product = fourThreads[i];
+            identical &= product.getProductId() == oneThread.idAt(i)
+                         && product.getProductName().equals(oneThread.nameAt(i))
+                         && product.getPrice() == oneThread.priceAt(i)
+                         && product.getRating() == oneThread.ratingAt(i);
+        }
+        System.out.println("Last product: " + fourThreads[fourThreads.length - 1]);
+        System.out.println(identical ? "✅ Output independent of thread count" : "❌ Unexpected generated catalog");
+        
+        // Test 22: Batch lookup of unordered IDs
+        System.out.println("\n📋 Test 22: Resolve a cart of IDs in one batch");
+        int[] cartIds = {products[4].getProductId(), 99999, products[0].getProductId(),
+                         products[4].getProductId(), -1};
+        IdLookupResult cart = searchAlgorithms.findByIds(cartIds);
+        System.out.println(cart);
+        boolean aligned = true;
+        for (int i = 0; i < cartIds.length; i++) {
+            aligned &= sameProduct(cart.get(i), searchAlgorithms.binarySearchById(cartIds[i]));
+        }
+        System.out.println("Missing IDs: " + Arrays.toString(cart.getMissingIds()));
+        System.out.println(aligned && Arrays.equals(cart.getMissingIds(), new int[] {-1, 99999}) ?
+                          "✅ Products returned in request order, misses listed once" : "❌ Unexpected batch lookup");
+        
+        // Test 23: Scatter-gather over a hash-sharded catalog
+        System.out.println("\n📋 Test 23: Ranked search scattered over three shards");
+        ShardedCatalog sharded = new ShardedCatalog(products, 3);
+        try {
+            System.out.println("Shard sizes: " + Arrays.toString(sharded.shardSizes()));
+            ShardedResult shardedPage = sharded.rankedSearchByName("pro", ProductComparators.BY_RATING, 0, 3);
+            System.out.println(shardedPage);
+            for (Product product : shardedPage.getMatches()) {
+                System.out.println("- " + product.getProductName() + " (rating: " + product.getRating() + ")");
+            }
+            boolean sameAsSingle = Arrays.equals(shardedPage.getMatches(),
+                    searchAlgorithms.rankedSearchByName("pro", ProductComparators.BY_RATING, 0, 3));
+            sameAsSingle &= sharded.searchByCategory("Laptops").size()
+                            == searchAlgorithms.linearSearchByCategory("Laptops").length;
+            System.out.println(sameAsSingle && !shardedPage.isPartial() ?
+                              "✅ Merged shard pages match the single catalog" : "❌ Unexpected sharded results");
+        } finally {
+            sharded.close();
+        }
+        
+        // Test 24: A shard stuck past its deadline is skipped until its search ends
+        System.out.println("\n📋 Test 24: Stuck shard searches skipped, then drained");
+        final CountDownLatch release = new CountDownLatch(1);
+        ShardedCatalog stuck = new ShardedCatalog(products, 2, true, 200);
+        try {
+            ShardedResult timedOut = stuck.scatter(new ShardedCatalog.ShardSearch() {
+                @Override
+                public SearchResult search(ProductSearchService shard) {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return shard.indexedSearchByName("pro");
+                }
+            }, null, 0, Integer.MAX_VALUE);
+            boolean counted = stuck.stragglerCount(0) == 1 && stuck.stragglerCount(1) == 1;
+            long skipStart = System.nanoTime();
+            ShardedResult skipped = stuck.searchByName("pro");
+            long skipMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - skipStart);
+            release.countDown();
+            long drainDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while ((stuck.stragglerCount(0) > 0 || stuck.stragglerCount(1) > 0) && System.nanoTime() < drainDeadline) {
+                Thread.sleep(1);
+            }
+            boolean drained = stuck.stragglerCount(0) == 0 && stuck.stragglerCount(1) == 0;
+            ShardedResult recovered = stuck.searchByName("pro");
+            System.out.println("Timed out: " + timedOut);
+            System.out.println("While stuck (" + skipMillis + " ms): " + skipped);
+            System.out.println("After draining: " + recovered);
+            System.out.println(timedOut.getMissedShards().length == 2 && counted
+                              && skipped.getMissedShards().length == 2 && skipped.getComparisonCount() == 0
+                              && skipMillis < 200 && drained && !recovered.isPartial()
+                              && recovered.size() == searchAlgorithms.linearSearchByName("pro").length ?
+                              "✅ Stuck shards skipped without queueing, answered again once drained" :
+                              "❌ Unexpected straggler handling");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            stuck.close();
+        }
+        
+        // Test 25: Fork/join scans return the sequential results in the same order
+        System.out.println("\n📋 Test 25: Parallel linear scans match the sequential scans");
+        Product[] scanCatalog = new ParallelProductGenerator(8).generateProducts(50000);
+        ProductSearchService sequentialScans = new ProductSearchService(scanCatalog, false);
+        ProductSearchService parallelScans = new ProductSearchService(scanCatalog, false);
+        parallelScans.setParallelThreshold(1);
+        SearchResult[][] scanPairs = {
+            {sequentialScans.linearSearchByName("pro"), parallelScans.linearSearchByName("pro")},
+            {sequentialScans.linearSearchByCategory("AUDIO"), parallelScans.linearSearchByCategory("AUDIO")},
+            {sequentialScans.linearSearchByPriceRange(500, 900), parallelScans.linearSearchByPriceRange(500, 900)}
+        };
+        boolean scansMatch = !sequentialScans.isParallelScan() && parallelScans.isParallelScan();
+        for (SearchResult[] pair : scanPairs) {
+            System.out.println("Sequential " + pair[0] + " / parallel " + pair[1]);
+            scansMatch &= pair[1].size() > 0 && Arrays.equals(pair[0].matchesArray(), pair[1].matchesArray())
+                          && pair[0].getComparisonCount() == pair[1].getComparisonCount();
+        }
+        System.out.println(scansMatch ? "✅ Parallel scans return the same products in the same order"
+                                      : "❌ Unexpected parallel scan results");
     }
     
     /**
@@ -147,21 +505,39 @@ public class SearchTest {
         long binaryTime = System.nanoTime() - startTime;
         int binaryComparisons = searchAlgorithms.getLastOperationCount();
         
+        // Eytzinger Layout Search
+        startTime = System.nanoTime();
+        Product eytzingerResult = searchAlgorithms.eytzingerSearchById(productId);
+        long eytzingerTime = System.nanoTime() - startTime;
+        int eytzingerComparisons = searchAlgorithms.getLastOperationCount();
+        
+        // Indexed Search
+        startTime = System.nanoTime();
+        Product indexedResult = searchAlgorithms.indexedSearchById(productId);
+        long indexedTime = System.nanoTime() - startTime;
+        int indexedProbes = searchAlgorithms.getLastOperationCount();
+        
         // Results
         boolean linearFound = linearResult != null;
         boolean binaryFound = binaryResult != null;
+        boolean eytzingerFound = eytzingerResult != null;
+        boolean indexedFound = indexedResult != null;
         
         System.out.printf("Linear Search:  %s | %d comparisons | %.2f μs\n", 
                          linearFound ? "FOUND" : "NOT FOUND", linearComparisons, linearTime / 1000.0);
         System.out.printf("Binary Search:  %s | %d comparisons | %.2f μs\n", 
                          binaryFound ? "FOUND" : "NOT FOUND", binaryComparisons, binaryTime / 1000.0);
+        System.out.printf("Eytzinger:      %s | %d comparisons | %.2f μs\n", 
+                         eytzingerFound ? "FOUND" : "NOT FOUND", eytzingerComparisons, eytzingerTime / 1000.0);
+        System.out.printf("Indexed Search: %s | %d probes | %.2f μs\n", 
+                         indexedFound ? "FOUND" : "NOT FOUND", indexedProbes, indexedTime / 1000.0);
         
         if (linearFound && binaryFound) {
             System.out.println("Product: " + linearResult.getProductName());
         }
         
         // Verify consistency
-        if (linearFound == binaryFound) {
+        if (linearFound == binaryFound && linearFound == eytzingerFound && linearFound == indexedFound) {
             System.out.println("✅ Results consistent between algorithms");
         } else {
             System.out.println("❌ Results inconsistent between algorithms");
@@ -293,6 +669,65 @@ public class SearchTest {
         sequentialSearch.compareSearchPerformance(1);
     }
     
+    /**
+     * Run concurrent searches against one shared search service
+     */
+    public void runConcurrencyTests() {
+        System.out.println("\n" + repeatString('-', 60));
+        System.out.println("🧵 CONCURRENCY TESTS");
+        System.out.println(repeatString('-', 60));
+        
+        final Product[] products = dataGenerator.generateRandomProducts(10000);
+        final ProductSearchService service = new ProductSearchService(products);
+        int threadCount = Math.max(2, Runtime.getRuntime().availableProcessors());
+        final int searchesPerThread = 2000;
+        final int[] failures = new int[threadCount];
+        
+        Thread[] threads = new Thread[threadCount];
+        for (int t = 0; t < threadCount; t++) {
+            final int threadIndex = t;
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    // Each thread gets its own facade; the catalog and indexes are shared
+                    SearchAlgorithms searchAlgorithms = new SearchAlgorithms(service);
+                    for (int i = 0; i < searchesPerThread; i++) {
+                        Product expected = products[(threadIndex * 7919 + i * 31) % products.length];
+                        SearchResult result = service.indexedSearchById(expected.getProductId());
+                        Product legacy = searchAlgorithms.binarySearchById(expected.getProductId());
+                        if (!sameProduct(result.first(), expected) || !sameProduct(legacy, expected)
+                                || searchAlgorithms.getLastOperationCount() <= 0) {
+                            failures[threadIndex]++;
+                        }
+                    }
+                }
+            });
+        }
+        
+        long startTime = System.nanoTime();
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        long elapsed = System.nanoTime() - startTime;
+        
+        int totalFailures = 0;
+        for (int count : failures) {
+            totalFailures += count;
+        }
+        System.out.println("Threads: " + threadCount + " sharing one catalog of " + products.length + " products");
+        System.out.println("Searches: " + (threadCount * searchesPerThread * 2));
+        System.out.printf("Elapsed: %.2f ms\n", elapsed / 1000000.0);
+        System.out.println(totalFailures == 0 ? "✅ All concurrent results correct" : "❌ " + totalFailures + " incorrect results");
+    }
+    
     /**
      * Explain search algorithm theory and complexity analysis
      */
@@ -433,4 +868,17 @@ public class SearchTest {
             return String.valueOf(number);
         }
     }
+    
+    /**
+     * Whether two products hold the same values; searches build a new Product per result
+     */
+    private static boolean sameProduct(Product a, Product b) {
+        if (a == null || b == null) {
+            return a == b;
+        }
+        return a.getProductId() == b.getProductId() && a.getProductName().equals(b.getProductName())
+               && a.getCategory().equals(b.getCategory()) && a.getPrice() == b.getPrice()
+               && a.getDescription().equals(b.getDescription()) && a.getStockQuantity() == b.getStockQuantity()
+               && a.getRating() == b.getRating();
+    }
 } 
\ No newline at end of file
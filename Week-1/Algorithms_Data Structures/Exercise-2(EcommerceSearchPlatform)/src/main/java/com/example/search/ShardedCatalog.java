@@ -0,0 +1,547 @@
+package com.example.search;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * ShardedCatalog - product catalog partitioned by product ID hash across shards
+ * Each shard is an independent ProductSearchService served by its own executor, the
+ * in-process stand-in for a shard on another machine: no shard needs the whole
+ * catalog in its heap, and shards scan their part on their own cores in parallel
+ * Name, category, price range and composite queries are scattered to every shard and
+ * the answers gathered with a per-shard deadline; shards that miss it are reported in
+ * the ShardedResult instead of failing the query. A scan cannot be stopped once it
+ * runs, so a shard still busy with a search its caller gave up on is skipped, and
+ * reported as missed, until that search ends rather than queueing every later query
+ * behind it. Each shard returns its matches
+ * sorted, and the lists are combined with a k-way merge, so ranked pages need only
+ * the top offset + limit products of every shard
+ * Unranked matches come back in ascending product ID order, which does not depend on
+ * how products were spread over the shards
+ * Point lookups by ID touch one shard and run on the calling thread
+ */
+public class ShardedCatalog implements Closeable {
+
+    /** Time each shard has to answer a scattered query */
+    public static final long DEFAULT_TIMEOUT_MILLIS = 1000;
+
+    private final ProductSearchService[] shards;
+    private final ExecutorService[] executors;
+    // Per shard: searches still running after their caller stopped waiting for them
+    private final AtomicIntegerArray stragglers;
+    private final long timeoutNanos;
+    private final int size;
+
+    /**
+     * Constructor - indexed shards and the default per-shard timeout
+     * @param products Products to distribute; IDs should be unique
+     * @param shardCount Number of shards
+     */
+    public ShardedCatalog(Product[] products, int shardCount) {
+        this(products, shardCount, true, DEFAULT_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * @param products Products to distribute; IDs should be unique
+     * @param shardCount Number of shards
+     * @param buildIndexes Whether each shard builds its search indexes
+     * @param timeoutMillis Time each shard has to answer a scattered query
+     */
+    public ShardedCatalog(Product[] products, int shardCount, final boolean buildIndexes, long timeoutMillis) {
+        if (shardCount < 1 || timeoutMillis < 1) {
+            throw new IllegalArgumentException("Invalid shard settings: shardCount=" + shardCount
+                                               + ", timeoutMillis=" + timeoutMillis);
+        }
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        this.size = products.length;
+
+        // Partition in ID order: a shard's slot order is then its ID order, so the unranked
+        // matches it returns, which follow slot order, need no sorting before the merge
+        Product[] byId = products.clone();
+        sortById(byId);
+        int[] counts = new int[shardCount];
+        for (Product product : byId) {
+            counts[shardOf(product.getProductId(), shardCount)]++;
+        }
+        Product[][] parts = new Product[shardCount][];
+        for (int i = 0; i < shardCount; i++) {
+            parts[i] = new Product[counts[i]];
+            counts[i] = 0;
+        }
+        for (Product product : byId) {
+            int shard = shardOf(product.getProductId(), shardCount);
+            parts[shard][counts[shard]++] = product;
+        }
+
+        // Each shard builds its own service and indexes on its executor, all shards at once
+        this.executors = new ExecutorService[shardCount];
+        this.stragglers = new AtomicIntegerArray(shardCount);
+        this.shards = new ProductSearchService[shardCount];
+        List<Future<ProductSearchService>> builds = new ArrayList<Future<ProductSearchService>>();
+        try {
+            for (int i = 0; i < shardCount; i++) {
+                executors[i] = Executors.newSingleThreadExecutor(shardThreads(i));
+                final Product[] part = parts[i];
+                builds.add(executors[i].submit(new Callable<ProductSearchService>() {
+                    @Override
+                    public ProductSearchService call() {
+                        return new ProductSearchService(part, buildIndexes);
+                    }
+                }));
+            }
+            for (int i = 0; i < shardCount; i++) {
+                shards[i] = builds.get(i).get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+            throw new IllegalStateException("Interrupted while building shards", e);
+        } catch (ExecutionException e) {
+            close();
+            throw new IllegalStateException("Shard build failed", e.getCause());
+        }
+    }
+
+    /**
+     * Shard holding a product ID: a mixed hash of the ID, so consecutive IDs spread evenly
+     */
+    static int shardOf(int productId, int shardCount) {
+        // MurmurHash3 32-bit finalizer
+        int h = productId;
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return (h & Integer.MAX_VALUE) % shardCount;
+    }
+
+    /**
+     * Find a product by ID on its shard
+     */
+    public SearchResult findById(int productId) {
+        return shards[shardOf(productId, shards.length)].indexedSearchById(productId);
+    }
+
+    /**
+     * Search every shard by product name (case-insensitive substring)
+     * @return Matches in ascending product ID order
+     */
+    public ShardedResult searchByName(final String searchTerm) {
+        return scatter(new ShardSearch() {
+            @Override
+            public SearchResult search(ProductSearchService shard) {
+                return shard.indexedSearchByName(searchTerm);
+            }
+        }, null, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Search every shard by category (case-insensitive)
+     * @return Matches in ascending product ID order
+     */
+    public ShardedResult searchByCategory(final String category) {
+        return scatter(new ShardSearch() {
+            @Override
+            public SearchResult search(ProductSearchService shard) {
+                return shard.indexedSearchByCategory(category);
+            }
+        }, null, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Search every shard by price range [minPrice, maxPrice]
+     * @return Matches in ascending product ID order
+     */
+    public ShardedResult searchByPriceRange(final double minPrice, final double maxPrice) {
+        return scatter(new ShardSearch() {
+            @Override
+            public SearchResult search(ProductSearchService shard) {
+                return shard.indexedSearchByPriceRange(minPrice, maxPrice);
+            }
+        }, null, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Run a composite query on every shard; comparisons are the candidates each shard examined
+     * @return Matches in ascending product ID order
+     */
+    public ShardedResult executeQuery(final ProductQuery query) {
+        return scatter(new ShardSearch() {
+            @Override
+            public SearchResult search(ProductSearchService shard) {
+                QueryResult result = shard.executeQuery(query);
+                return new SearchResult(result.getProducts(), result.getPlan().getCandidatesExamined(),
+                                        result.getPlan().getElapsedNanos());
+            }
+        }, null, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Ranked, paginated search by product name across all shards
+     * @param order Ranking, e.g. ProductComparators.BY_RATING; should break ties so the ranking is total
+     * @return The requested page, best first
+     */
+    public ShardedResult rankedSearchByName(final String searchTerm, final Comparator<Product> order,
+                                            int offset, int limit) {
+        final int top = topCount(offset, limit);
+        return scatter(new ShardSearch() {
+            @Override
+            public SearchResult search(ProductSearchService shard) {
+                return shard.rankedSearchByName(searchTerm, order, 0, top);
+            }
+        }, order, offset, limit);
+    }
+
+    /**
+     * Ranked, paginated search by category across all shards
+     * @param order Ranking, e.g. ProductComparators.BY_RATING; should break ties so the ranking is total
+     * @return The requested page, best first
+     */
+    public ShardedResult rankedSearchByCategory(final String category, final Comparator<Product> order,
+                                                int offset, int limit) {
+        final int top = topCount(offset, limit);
+        return scatter(new ShardSearch() {
+            @Override
+            public SearchResult search(ProductSearchService shard) {
+                return shard.rankedSearchByCategory(category, order, 0, top);
+            }
+        }, order, offset, limit);
+    }
+
+    /**
+     * Ranked, paginated search by price range across all shards
+     * @param order Ranking, e.g. ProductComparators.BY_RATING; should break ties so the ranking is total
+     * @return The requested page, best first
+     */
+    public ShardedResult rankedSearchByPriceRange(final double minPrice, final double maxPrice,
+                                                  final Comparator<Product> order, int offset, int limit) {
+        final int top = topCount(offset, limit);
+        return scatter(new ShardSearch() {
+            @Override
+            public SearchResult search(ProductSearchService shard) {
+                return shard.rankedSearchByPriceRange(minPrice, maxPrice, order, 0, top);
+            }
+        }, order, offset, limit);
+    }
+
+    /**
+     * Number of products across all shards
+     */
+    public int size() {
+        return size;
+    }
+
+    public int shardCount() {
+        return shards.length;
+    }
+
+    /**
+     * Number of products on each shard
+     */
+    public int[] shardSizes() {
+        int[] sizes = new int[shards.length];
+        for (int i = 0; i < shards.length; i++) {
+            sizes[i] = shards[i].size();
+        }
+        return sizes;
+    }
+
+    /**
+     * Stop the shard executors with shutdownNow: queued searches are dropped and running
+     * ones are interrupted, but a scan does not check for interrupts, so one in progress
+     * runs to its end on its daemon thread and its result is discarded
+     */
+    @Override
+    public void close() {
+        for (ExecutorService executor : executors) {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Searches still running on a shard after their caller stopped waiting
+     */
+    int stragglerCount(int shard) {
+        return stragglers.get(shard);
+    }
+
+    /**
+     * A search run against one shard
+     */
+    interface ShardSearch {
+        SearchResult search(ProductSearchService shard);
+    }
+
+    /**
+     * Run a search on every shard and merge the answers received before the deadline
+     * Shards busy with an abandoned search are not asked and count as missed
+     * @param order Ranking each shard's matches already follow, or null for unranked
+     *              matches, which each shard sorts by product ID before answering
+     */
+    ShardedResult scatter(ShardSearch search, Comparator<Product> order, int offset, int limit) {
+        long startTime = System.nanoTime();
+        long deadline = startTime + timeoutNanos;
+        boolean ranked = order != null;
+        ShardTask[] tasks = new ShardTask[shards.length];
+        List<Future<SearchResult>> answers = new ArrayList<Future<SearchResult>>(shards.length);
+        Product[][] lists = new Product[shards.length][];
+        int comparisons = 0;
+        int[] missed = new int[shards.length];
+        int missedCount = 0;
+        boolean interrupted = false;
+        try {
+            for (int i = 0; i < shards.length; i++) {
+                if (stragglers.get(i) > 0) {
+                    answers.add(null);
+                    continue;
+                }
+                tasks[i] = new ShardTask(i, search, ranked, deadline);
+                answers.add(executors[i].submit(tasks[i]));
+            }
+            for (int i = 0; i < shards.length; i++) {
+                Future<SearchResult> answer = answers.get(i);
+                if (answer == null || interrupted) {
+                    missed[missedCount++] = i;
+                    continue;
+                }
+                try {
+                    SearchResult result = answer.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    if (result == null) {
+                        // Started after the deadline and skipped its scan
+                        missed[missedCount++] = i;
+                        continue;
+                    }
+                    lists[i] = result.matchesArray();
+                    comparisons += result.getComparisonCount();
+                } catch (TimeoutException e) {
+                    missed[missedCount++] = i;
+                } catch (InterruptedException e) {
+                    // Give up waiting; the remaining shards are reported as missed
+                    interrupted = true;
+                    missed[missedCount++] = i;
+                }
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("Shard search failed", cause);
+        } finally {
+            // Late shards are not waited for: a search that has not started is dropped,
+            // one already running makes its shard a straggler until it ends
+            for (int i = 0; i < shards.length; i++) {
+                if (tasks[i] != null && lists[i] == null) {
+                    tasks[i].abandon(answers.get(i));
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        Product[] matches = ranked ? merge(lists, order, offset, limit) : mergeById(lists);
+        return new ShardedResult(matches, comparisons,
+                                 System.nanoTime() - startTime, Arrays.copyOf(missed, missedCount));
+    }
+
+    /**
+     * One shard's part of a scattered search
+     * The state moves from PENDING to RUNNING when a shard thread picks the task up and to
+     * DONE when it ends; a caller that stops waiting first moves it to ABANDONED, and the
+     * shard's straggler count covers a RUNNING task's ABANDONED stretch
+     */
+    private final class ShardTask implements Callable<SearchResult> {
+        private static final int PENDING = 0;
+        private static final int RUNNING = 1;
+        private static final int DONE = 2;
+        private static final int ABANDONED = 3;
+
+        private final int shard;
+        private final ShardSearch search;
+        private final boolean ranked;
+        private final long deadline;
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+
+        ShardTask(int shard, ShardSearch search, boolean ranked, long deadline) {
+            this.shard = shard;
+            this.search = search;
+            this.ranked = ranked;
+            this.deadline = deadline;
+        }
+
+        /**
+         * @return The shard's matches, or null if the task started after the deadline
+         */
+        @Override
+        public SearchResult call() {
+            if (!state.compareAndSet(PENDING, RUNNING)) {
+                // Abandoned before it started; the caller already dropped it
+                return null;
+            }
+            try {
+                if (System.nanoTime() - deadline >= 0) {
+                    return null;
+                }
+                SearchResult result = search.search(shards[shard]);
+                if (!ranked) {
+                    // The result was created by this call, so its array can be sorted in place
+                    sortById(result.matchesArray());
+                }
+                return result;
+            } finally {
+                if (state.getAndSet(DONE) == ABANDONED) {
+                    stragglers.decrementAndGet(shard);
+                }
+            }
+        }
+
+        /**
+         * Stop waiting: drop the task if it has not started, else count it as a straggler until it ends
+         * FutureTask.cancel also succeeds on a running task, so the state decides which case applies
+         */
+        void abandon(Future<SearchResult> answer) {
+            if (state.compareAndSet(PENDING, ABANDONED)) {
+                answer.cancel(false);
+            } else if (state.compareAndSet(RUNNING, ABANDONED)) {
+                stragglers.incrementAndGet(shard);
+            }
+        }
+    }
+
+    /**
+     * K-way merge of sorted lists, skipping the first offset products and keeping at most limit
+     * @param lists Lists sorted by order; null for shards that did not answer
+     */
+    static Product[] merge(final Product[][] lists, final Comparator<Product> order, int offset, int limit) {
+        long total = 0;
+        for (Product[] list : lists) {
+            total += list == null ? 0 : list.length;
+        }
+        int count = (int) Math.max(0, Math.min(total - offset, limit));
+        Product[] merged = new Product[count];
+        if (count == 0) {
+            return merged;
+        }
+
+        // Heap of list numbers keyed by each list's current head
+        final int[] heads = new int[lists.length];
+        PriorityQueue<Integer> next = new PriorityQueue<Integer>(lists.length, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer l1, Integer l2) {
+                return order.compare(lists[l1][heads[l1]], lists[l2][heads[l2]]);
+            }
+        });
+        for (int i = 0; i < lists.length; i++) {
+            if (lists[i] != null && lists[i].length > 0) {
+                next.add(i);
+            }
+        }
+        int skipped = 0;
+        int size = 0;
+        while (size < count) {
+            int list = next.poll();
+            Product product = lists[list][heads[list]++];
+            if (skipped < offset) {
+                skipped++;
+            } else {
+                merged[size++] = product;
+            }
+            if (heads[list] < lists[list].length) {
+                next.add(list);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Sort products by ID: (ID, position) pairs packed into longs take a primitive sort
+     * Lists that are already in ID order are only checked, in O(n)
+     */
+    static void sortById(Product[] products) {
+        long[] keys = new long[products.length];
+        boolean sorted = true;
+        for (int i = 0; i < products.length; i++) {
+            keys[i] = ((long) products[i].getProductId() << 32) | i;
+            sorted &= i == 0 || keys[i - 1] <= keys[i];
+        }
+        if (sorted) {
+            return;
+        }
+        Arrays.sort(keys);
+        Product[] unsorted = products.clone();
+        for (int i = 0; i < products.length; i++) {
+            products[i] = unsorted[(int) keys[i]];
+        }
+    }
+
+    /**
+     * K-way merge of lists sorted by product ID; each step picks the smallest head
+     * by a scan over the lists, cheap for the handful of shards a catalog has
+     * @param lists Lists sorted by ID; null for shards that did not answer
+     */
+    static Product[] mergeById(Product[][] lists) {
+        int total = 0;
+        for (Product[] list : lists) {
+            total += list == null ? 0 : list.length;
+        }
+        Product[] merged = new Product[total];
+        int[] heads = new int[lists.length];
+        // ID at each list's head; lists that are done hold no head
+        long[] headIds = new long[lists.length];
+        for (int i = 0; i < lists.length; i++) {
+            headIds[i] = lists[i] == null || lists[i].length == 0 ? Long.MAX_VALUE : lists[i][0].getProductId();
+        }
+        for (int size = 0; size < total; size++) {
+            int list = 0;
+            for (int i = 1; i < lists.length; i++) {
+                if (headIds[i] < headIds[list]) {
+                    list = i;
+                }
+            }
+            merged[size] = lists[list][heads[list]++];
+            headIds[list] = heads[list] < lists[list].length ? lists[list][heads[list]].getProductId() : Long.MAX_VALUE;
+        }
+        return merged;
+    }
+
+    /**
+     * Products each shard must rank for a page: its best offset + limit
+     */
+    private static int topCount(int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Offset and limit must not be negative: " + offset + ", " + limit);
+        }
+        return (int) Math.min(Integer.MAX_VALUE - 8, (long) offset + limit);
+    }
+
+    private static ThreadFactory shardThreads(final int shard) {
+        return new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable task) {
+                Thread thread = new Thread(task, "catalog-shard-" + shard);
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+}
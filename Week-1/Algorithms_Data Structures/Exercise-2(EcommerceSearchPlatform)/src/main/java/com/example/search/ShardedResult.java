@@ -0,0 +1,39 @@
+package com.example.search;
+
+import java.util.Arrays;
+
+/**
+ * ShardedResult - merged outcome of a search scattered over the shards of a ShardedCatalog
+ * Comparisons are summed over the shards that answered; shards that missed their
+ * deadline are listed, and their products are absent from the matches
+ */
+public class ShardedResult extends SearchResult {
+
+    private final int[] missedShards;
+
+    public ShardedResult(Product[] matches, int comparisonCount, long elapsedNanos, int[] missedShards) {
+        super(matches, comparisonCount, elapsedNanos);
+        this.missedShards = missedShards;
+    }
+
+    /**
+     * Whether some shards did not answer in time, so matches may be missing
+     */
+    public boolean isPartial() {
+        return missedShards.length > 0;
+    }
+
+    /**
+     * Shard numbers that did not answer in time, ascending
+     */
+    public int[] getMissedShards() {
+        return missedShards.clone();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ShardedResult[matches=%d, comparisons=%d, time=%.2f μs, missed shards=%s]",
+                             size(), getComparisonCount(), getElapsedNanos() / 1000.0,
+                             Arrays.toString(missedShards));
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.search;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * TopKCollector - bounded heap keeping the best offset + limit products seen so far
+ * The worst kept product sits at the root, so each offered product costs O(log K)
+ * and memory stays O(K) however many products match
+ * Slots offered from a ProductStore are only built into a new Product when they rank
+ * among the best seen so far: the ProductComparators orderings on numbers compare the
+ * store's columns directly, and any other comparator is given one reused Product
+ * refilled per slot, so it must not keep the products it is given
+ * Not thread-safe; use one collector per search
+ */
+public class TopKCollector {
+
+    // compareSlot result for comparators it cannot evaluate from the columns
+    private static final int UNKNOWN = Integer.MIN_VALUE;
+
+    private final Comparator<Product> comparator;
+    private final int offset;
+    private final int limit;
+    private final int capacity;
+    private Product[] heap;
+    private int size;
+    // Holds the last slot offered that did not make the ranking, ready to be refilled
+    private Product scratch;
+
+    /**
+     * @param comparator Ranking order, best first
+     * @param offset Number of top-ranked products to skip (page start)
+     * @param limit Maximum number of products to return (page size)
+     */
+    public TopKCollector(Comparator<Product> comparator, int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Offset and limit must not be negative: " + offset + ", " + limit);
+        }
+        this.comparator = comparator;
+        this.offset = offset;
+        this.limit = limit;
+        this.capacity = (int) Math.min(Integer.MAX_VALUE - 8, (long) offset + limit);
+        this.heap = new Product[Math.min(capacity, 16)];
+    }
+
+    /**
+     * Offer a matching product to the ranking
+     */
+    public void offer(Product product) {
+        if (capacity == 0) {
+            return;
+        }
+        if (size < capacity) {
+            if (size == heap.length) {
+                heap = Arrays.copyOf(heap, (int) Math.min(capacity, (long) size * 2));
+            }
+            heap[size] = product;
+            siftUp(size++);
+        } else if (comparator.compare(product, heap[0]) < 0) {
+            heap[0] = product;
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Offer the matching product at a store slot
+     */
+    void offer(ProductStore store, int slot) {
+        if (capacity == 0) {
+            return;
+        }
+        if (size < capacity) {
+            offer(store.row(slot));
+            return;
+        }
+        int order = compareSlot(store, slot, heap[0]);
+        if (order != UNKNOWN) {
+            if (order < 0) {
+                heap[0] = store.row(slot);
+                siftDown(0);
+            }
+            return;
+        }
+        Product candidate = scratch;
+        if (candidate == null) {
+            candidate = store.row(slot);
+        } else {
+            store.fill(slot, candidate);
+        }
+        if (comparator.compare(candidate, heap[0]) < 0) {
+            heap[0] = candidate;
+            siftDown(0);
+            scratch = null;
+        } else {
+            scratch = candidate;
+        }
+    }
+
+    /**
+     * The comparator's result for a slot against a product, read from the store's columns
+     * @return UNKNOWN unless the comparator is BY_PRICE, BY_RATING or BY_ID
+     */
+    private int compareSlot(ProductStore store, int slot, Product product) {
+        int result;
+        if (comparator == ProductComparators.BY_PRICE) {
+            result = Double.compare(store.priceAt(slot), product.getPrice());
+        } else if (comparator == ProductComparators.BY_RATING) {
+            result = Double.compare(product.getRating(), store.ratingAt(slot));
+        } else if (comparator == ProductComparators.BY_ID) {
+            result = 0;
+        } else {
+            return UNKNOWN;
+        }
+        return result != 0 ? result : Integer.compare(store.idAt(slot), product.getProductId());
+    }
+
+    /**
+     * The requested page, best first
+     */
+    public Product[] page() {
+        Product[] ranked = Arrays.copyOf(heap, size);
+        Arrays.sort(ranked, comparator);
+        if (offset >= ranked.length) {
+            return new Product[0];
+        }
+        return Arrays.copyOfRange(ranked, offset, Math.min(ranked.length, offset + limit));
+    }
+
+    // Max-heap on the ranking: the root is the worst product kept
+
+    private void siftUp(int index) {
+        Product product = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (comparator.compare(product, heap[parent]) <= 0) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = product;
+    }
+
+    private void siftDown(int index) {
+        Product product = heap[index];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            int right = child + 1;
+            if (right < size && comparator.compare(heap[right], heap[child]) > 0) {
+                child = right;
+            }
+            if (comparator.compare(product, heap[child]) >= 0) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = product;
+    }
+}
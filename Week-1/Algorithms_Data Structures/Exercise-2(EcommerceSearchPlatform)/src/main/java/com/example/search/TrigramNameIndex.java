@@ -0,0 +1,300 @@
+package com.example.search;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * TrigramNameIndex - inverted index of three-character substrings over product names
+ * Works over the lowercased name heap of a ProductStore; a query intersects the
+ * posting lists of its trigrams and only verifies the surviving candidates
+ * Produces the same results, in the same order, as a linear containsInName scan
+ */
+public class TrigramNameIndex {
+
+    private static final int GRAM_LENGTH = 3;
+    private static final int[] NO_SLOTS = new int[0];
+
+    private final ProductStore store;
+    private final long[] grams;
+    private final int[][] postings;
+
+    /**
+     * Build the index over a product store
+     * @param store Columnar products; posting lists hold slots of this store
+     */
+    public TrigramNameIndex(ProductStore store) {
+        this.store = store;
+        Map<Long, PostingList> lists = new HashMap<Long, PostingList>();
+
+        for (int slot = 0; slot < store.size(); slot++) {
+            int length = store.nameLength(slot);
+            for (int i = 0; i + GRAM_LENGTH <= length; i++) {
+                Long gram = Long.valueOf(pack(store.nameCharAt(slot, i),
+                                              store.nameCharAt(slot, i + 1),
+                                              store.nameCharAt(slot, i + 2)));
+                PostingList list = lists.get(gram);
+                if (list == null) {
+                    list = new PostingList();
+                    lists.put(gram, list);
+                }
+                list.addOnce(slot);
+            }
+        }
+
+        // Freeze into a sorted key array so queries never box a key
+        this.grams = new long[lists.size()];
+        int g = 0;
+        for (Long gram : lists.keySet()) {
+            grams[g++] = gram.longValue();
+        }
+        Arrays.sort(grams);
+        this.postings = new int[grams.length][];
+        for (int i = 0; i < grams.length; i++) {
+            postings[i] = lists.get(Long.valueOf(grams[i])).toArray();
+        }
+    }
+
+    /**
+     * Pack three characters into one long key
+     */
+    private static long pack(char first, char second, char third) {
+        return ((long) first << 32) | ((long) second << 16) | (long) third;
+    }
+
+    /**
+     * Key of the trigram starting at index
+     */
+    private static long gramAt(String text, int index) {
+        return pack(text.charAt(index), text.charAt(index + 1), text.charAt(index + 2));
+    }
+
+    /**
+     * Find all products whose name contains the search term (case-insensitive)
+     * @param searchTerm Term to search for
+     * @return Ascending slots of matching products
+     */
+    public int[] search(String searchTerm) {
+        return search(searchTerm, null);
+    }
+
+    /**
+     * Find all products whose name contains the search term (case-insensitive)
+     * @param searchTerm Term to search for
+     * @param verified Optional single-element counter receiving the number of names checked
+     * @return Ascending slots of matching products
+     */
+    public int[] search(String searchTerm, int[] verified) {
+        String term = ProductStore.normalizeName(searchTerm);
+        int[] candidates = term.length() < GRAM_LENGTH ? null : candidates(term);
+
+        if (candidates == null) {
+            // Too short to index: scan the pre-normalized names
+            return verify(term, null, store.size(), verified);
+        }
+        return verify(term, candidates, candidates.length, verified);
+    }
+
+    /**
+     * Stream the slots whose name contains the search term to a visitor, in ascending order
+     * Each slot of the shortest posting list is probed in the others as it is reached,
+     * so no candidate or result array is built; the visitor is given a null product
+     * @param searchTerm Term to search for
+     * @param visitor Receives matching slots; returning false stops the search
+     * @return Number of names checked
+     */
+    public int visit(String searchTerm, ProductVisitor visitor) {
+        String term = ProductStore.normalizeName(searchTerm);
+        NameMatcher matcher = NameMatcher.compile(term);
+        if (term.length() < GRAM_LENGTH) {
+            for (int slot = 0; slot < store.size(); slot++) {
+                if (store.nameMatches(slot, matcher) && !visitor.visit(slot, null)) {
+                    return slot + 1;
+                }
+            }
+            return store.size();
+        }
+
+        int[][] lists = postingLists(term);
+        if (lists == null) {
+            return 0;
+        }
+        int[] cursors = new int[lists.length];
+        int verified = 0;
+        for (int slot : lists[0]) {
+            boolean candidate = true;
+            for (int i = 1; i < lists.length && candidate; i++) {
+                if (lists[i] != lists[i - 1]) {
+                    cursors[i] = gallop(lists[i], cursors[i], slot);
+                    candidate = cursors[i] < lists[i].length && lists[i][cursors[i]] == slot;
+                }
+            }
+            if (candidate) {
+                verified++;
+                if (store.nameMatches(slot, matcher) && !visitor.visit(slot, null)) {
+                    break;
+                }
+            }
+        }
+        return verified;
+    }
+
+    /**
+     * Upper bound on the candidates a search would verify, without intersecting
+     * @param searchTerm Term to estimate
+     * @return Length of the shortest posting list, or the catalog size for short terms
+     */
+    public int estimateCandidates(String searchTerm) {
+        String term = ProductStore.normalizeName(searchTerm);
+        if (term.length() < GRAM_LENGTH) {
+            return store.size();
+        }
+        int shortest = store.size();
+        for (int i = 0; i + GRAM_LENGTH <= term.length(); i++) {
+            int position = Arrays.binarySearch(grams, gramAt(term, i));
+            if (position < 0) {
+                return 0;
+            }
+            shortest = Math.min(shortest, postings[position].length);
+        }
+        return shortest;
+    }
+
+    /**
+     * Intersect the posting lists of every trigram in the term, shortest first
+     */
+    private int[] candidates(String term) {
+        int[][] lists = postingLists(term);
+        if (lists == null) {
+            return NO_SLOTS;
+        }
+
+        int[] result = lists[0];
+        for (int i = 1; i < lists.length && result.length > 0; i++) {
+            if (lists[i] != lists[i - 1]) {
+                result = intersect(result, lists[i]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Posting lists of every trigram in the term, shortest first
+     * @return The lists, or null if some trigram occurs in no name
+     */
+    private int[][] postingLists(String term) {
+        int gramCount = term.length() - GRAM_LENGTH + 1;
+        int[][] lists = new int[gramCount][];
+
+        for (int i = 0; i < gramCount; i++) {
+            int position = Arrays.binarySearch(grams, gramAt(term, i));
+            if (position < 0) {
+                return null;
+            }
+            lists[i] = postings[position];
+        }
+
+        Arrays.sort(lists, new Comparator<int[]>() {
+            @Override
+            public int compare(int[] a, int[] b) {
+                return Integer.compare(a.length, b.length);
+            }
+        });
+        return lists;
+    }
+
+    /**
+     * Intersect two ascending slot lists
+     * Gallops through the longer list so a rare trigram stays cheap against a common one
+     */
+    private static int[] intersect(int[] small, int[] large) {
+        int[] out = new int[small.length];
+        int count = 0;
+        int j = 0;
+        for (int i = 0; i < small.length && j < large.length; i++) {
+            int slot = small[i];
+            j = gallop(large, j, slot);
+            if (j < large.length && large[j] == slot) {
+                out[count++] = slot;
+            }
+        }
+        return count == out.length ? out : Arrays.copyOf(out, count);
+    }
+
+    /**
+     * First index at or after from whose value is >= target
+     */
+    private static int gallop(int[] values, int from, int target) {
+        int step = 1;
+        int low = from;
+        int high = from;
+        while (high < values.length && values[high] < target) {
+            low = high + 1;
+            high = from + step;
+            step <<= 1;
+        }
+        if (high > values.length) {
+            high = values.length;
+        }
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] < target) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Keep the candidates whose normalized name really contains the term
+     * @param candidates Slots to check, or null to check every slot
+     */
+    private int[] verify(String term, int[] candidates, int count, int[] verified) {
+        NameMatcher matcher = NameMatcher.compile(term);
+        int[] out = new int[count];
+        int matches = 0;
+        for (int i = 0; i < count; i++) {
+            int slot = candidates == null ? i : candidates[i];
+            if (store.nameMatches(slot, matcher)) {
+                out[matches++] = slot;
+            }
+        }
+        if (verified != null) {
+            verified[0] = count;
+        }
+        return matches == out.length ? out : Arrays.copyOf(out, matches);
+    }
+
+    /**
+     * Number of distinct trigrams in the index
+     */
+    public int gramCount() {
+        return grams.length;
+    }
+
+    /**
+     * Growable ascending int list used while building posting lists
+     */
+    private static class PostingList {
+        private int[] slots = new int[4];
+        private int size;
+
+        void addOnce(int slot) {
+            // Slots arrive in ascending order, so a repeat is always the last entry
+            if (size > 0 && slots[size - 1] == slot) {
+                return;
+            }
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            slots[size++] = slot;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(slots, size);
+        }
+    }
+}